@@ -0,0 +1,89 @@
+package com.modern.benchmark;
+
+import com.modern.dto.Dish;
+import com.modern.optional.OptionalChap2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 벤치마크 입력 데이터 생성기
+ * 실행마다 같은 데이터가 나오도록 시드를 고정한다.
+ * */
+final class BenchmarkData {
+
+    private static final long SEED = 42L;
+
+    private BenchmarkData() {
+    }
+
+    // distinct 개의 서로 다른 키를 섞어서 size 개를 만든다.
+    static String[] keys(int size, int distinct) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        String[] keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = "movie-" + random.nextInt(distinct);
+        }
+        return keys;
+    }
+
+    // 서로 다른 키 size 개 ("movie-0" ~ "movie-(size-1)")
+    static String[] distinctKeys(int size) {
+        String[] keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = "movie-" + i;
+        }
+        return keys;
+    }
+
+    // 절반은 distinctKeys(size) 에 있는 키, 절반은 없는 키를 섞은 조회 목록 (키는 새 String 객체라 == 비교로 끝나지 않는다)
+    static String[] lookups(int size, int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        String[] lookups = new String[count];
+        for (int i = 0; i < count; i++) {
+            lookups[i] = (random.nextBoolean() ? "movie-" : "absent-") + random.nextInt(size);
+        }
+        return lookups;
+    }
+
+    // 절반은 숫자로, 절반은 소문자로 시작하는 "a12" 형태의 참조코드
+    static List<String> referenceCodes(int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<String> codes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            char head = random.nextBoolean() ? (char) ('0' + random.nextInt(10)) : (char) ('a' + random.nextInt(26));
+            codes.add(head + Integer.toString(random.nextInt(100)));
+        }
+        return codes;
+    }
+
+    // Dish.menu 를 size 개까지 반복하면서 칼로리만 흔든다.
+    static List<Dish> menu(int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Dish> menu = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Dish base = Dish.menu.get(i % Dish.menu.size());
+            menu.add(new Dish(base.getName(), base.isVegetarian(), random.nextInt(100, 900), base.getType()));
+        }
+        return menu;
+    }
+
+    // 10% 는 차가 없고, 10% 는 보험이 없고, 나머지는 distinct 개의 보험사 중 하나에 가입한 사람들
+    static List<OptionalChap2.Person> persons(int size, int distinct) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        OptionalChap2 model = new OptionalChap2();
+        OptionalChap2.Insurance[] insurances = new OptionalChap2.Insurance[distinct];
+        for (int i = 0; i < distinct; i++) {
+            insurances[i] = model.new Insurance("insurance-" + i);
+        }
+        List<OptionalChap2.Person> persons = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int roll = random.nextInt(10);
+            OptionalChap2.Car car = roll == 0 ? null
+                    : model.new Car(roll == 1 ? null : insurances[random.nextInt(distinct)]);
+            persons.add(model.new Person(car));
+        }
+        return persons;
+    }
+}
@@ -0,0 +1,151 @@
+package com.modern.benchmark;
+
+import com.modern.datastructure.FrozenMap;
+import com.modern.datastructure.FrozenSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CollectionFactory / MapProcess 의 상수 컬렉션(HashSet, Set.of, HashMap, Map.ofEntries) VS FrozenSet / FrozenMap
+ *  1. contains / getOrDefault : 절반은 있는 키, 절반은 없는 키로 LOOKUPS 번 조회한 평균 시간
+ *  2. build* : 같은 키로 컬렉션을 만드는 시간이다.
+ *     -prof gc 의 gc.alloc.rate.norm 은 만드는 동안 "할당한" 바이트 수이고 만든 뒤 "남는" 크기(retained footprint)가 아니다.
+ *     FrozenSet / FrozenMap 은 정렬용 long[], 입력 배열 복사본, 중복 제거 후 잘라낸 배열이 모두 포함되고
+ *     Map.copyOf 도 entrySet 을 배열로 옮기는 임시 배열이 포함된다. 그래서 이 값으로 컬렉션의 메모리 사용량을 비교하면 안된다.
+ *     보유 크기는 JOL 의 GraphLayout.parseInstance(set).totalSize() 처럼 만든 객체 그래프를 직접 재서 비교한다.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FrozenCollectionBenchmark {
+
+    private static final int LOOKUPS = 1024;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private String[] keys;
+    private String[] lookups;
+    private Map<String, String> source;
+
+    private Set<String> hashSet;
+    private Set<String> setOf;
+    private Set<String> frozenSet;
+    private Map<String, String> hashMap;
+    private Map<String, String> mapOf;
+    private Map<String, String> frozenMap;
+
+    @Setup
+    public void setUp() {
+        keys = BenchmarkData.distinctKeys(size);
+        lookups = BenchmarkData.lookups(size, LOOKUPS);
+        source = new HashMap<>();
+        for (String key : keys) {
+            source.put(key, key.toUpperCase());
+        }
+        hashSet = new HashSet<>(Arrays.asList(keys));
+        setOf = Set.of(keys);
+        frozenSet = FrozenSet.of(keys);
+        hashMap = new HashMap<>(source);
+        mapOf = Map.copyOf(source); // Map.ofEntries 와 같은 구현 (ImmutableCollections.MapN)
+        frozenMap = FrozenMap.copyOf(source);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int hashSetContains() {
+        return countContains(hashSet);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int setOfContains() {
+        return countContains(setOf);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int frozenSetContains() {
+        return countContains(frozenSet);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int hashMapGetOrDefault() {
+        return sumGetOrDefault(hashMap);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int mapOfGetOrDefault() {
+        return sumGetOrDefault(mapOf);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int frozenMapGetOrDefault() {
+        return sumGetOrDefault(frozenMap);
+    }
+
+    @Benchmark
+    public Set<String> buildHashSet() {
+        return new HashSet<>(Arrays.asList(keys));
+    }
+
+    @Benchmark
+    public Set<String> buildSetOf() {
+        return Set.of(keys);
+    }
+
+    @Benchmark
+    public Set<String> buildFrozenSet() {
+        return FrozenSet.of(keys);
+    }
+
+    @Benchmark
+    public Map<String, String> buildHashMap() {
+        return new HashMap<>(source);
+    }
+
+    @Benchmark
+    public Map<String, String> buildMapOf() {
+        return Map.copyOf(source);
+    }
+
+    @Benchmark
+    public Map<String, String> buildFrozenMap() {
+        return FrozenMap.copyOf(source);
+    }
+
+    private int countContains(Set<String> set) {
+        int found = 0;
+        for (String key : lookups) {
+            if (set.contains(key)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private int sumGetOrDefault(Map<String, String> map) {
+        int length = 0;
+        for (String key : lookups) {
+            length += map.getOrDefault(key, "").length();
+        }
+        return length;
+    }
+}
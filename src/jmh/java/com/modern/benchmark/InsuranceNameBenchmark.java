@@ -0,0 +1,69 @@
+package com.modern.benchmark;
+
+import com.modern.exec.AdaptiveQueryExecutor;
+import com.modern.optional.InsuranceNameResolver;
+import com.modern.optional.OptionalChap2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OptionalChap2 의 Optional 체인 VS InsuranceNameResolver 비교
+ * 사람 목록에서 보험 회사 이름을 중복없이 모은다. -prof gc 로 돌리면 사람당 할당량 차이를 볼수 있다.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class InsuranceNameBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"100"})
+    public int insurers;
+
+    private final OptionalChap2 optional = new OptionalChap2();
+    private final InsuranceNameResolver resolver = new InsuranceNameResolver(AdaptiveQueryExecutor.shared());
+
+    private List<OptionalChap2.Person> persons;
+
+    @Setup
+    public void setUp() {
+        persons = BenchmarkData.persons(size, insurers);
+    }
+
+    @Benchmark
+    public Set<String> optionalChain() {
+        return optional.getCarInsuranceNames(persons);
+    }
+
+    @Benchmark
+    public Set<String> optionalStream() {
+        return optional.getCarInsuranceNames2(persons.stream()
+                .map(p -> p.getCar().flatMap(OptionalChap2.Car::getInsurance).map(OptionalChap2.Insurance::getName)));
+    }
+
+    @Benchmark
+    public Set<String> bulkSequential() {
+        return InsuranceNameResolver.resolveSequential(persons);
+    }
+
+    @Benchmark
+    public Set<String> bulkParallel() {
+        return resolver.resolveParallel(persons);
+    }
+
+    @Benchmark
+    public Set<String> bulkAdaptive() {
+        return resolver.resolve(persons);
+    }
+}
@@ -0,0 +1,75 @@
+package com.modern.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ListAndAggregateProcessing 의 두 패턴을 비교한다.
+ *  1. transactionReferenceRemove : Iterator.remove VS removeIf
+ *  2. listReplaceAll : ListIterator.set VS replaceAll
+ * 두 연산 모두 원본 리스트를 바꾸므로 매 호출마다 ArrayList 로 복사해서 시작한다. 복사 비용은 양쪽에 똑같이 들어간다.
+ * 요소의 절반은 숫자로 시작하기 때문에 삭제 대상이 된다.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ListIdiomBenchmark {
+
+    @Param({"10", "1000", "100000", "10000000"})
+    public int size;
+
+    private List<String> referenceCodes;
+
+    @Setup
+    public void setUp() {
+        referenceCodes = BenchmarkData.referenceCodes(size);
+    }
+
+    @Benchmark
+    public List<String> removeWithIterator() {
+        List<String> list = new ArrayList<>(referenceCodes);
+        for (Iterator<String> iterator = list.iterator(); iterator.hasNext(); ) {
+            String s = iterator.next();
+            if (Character.isDigit(s.charAt(0))) {
+                iterator.remove();
+            }
+        }
+        return list;
+    }
+
+    @Benchmark
+    public List<String> removeWithRemoveIf() {
+        List<String> list = new ArrayList<>(referenceCodes);
+        list.removeIf(s -> Character.isDigit(s.charAt(0)));
+        return list;
+    }
+
+    @Benchmark
+    public List<String> replaceWithListIterator() {
+        List<String> list = new ArrayList<>(referenceCodes);
+        for (ListIterator<String> iterator = list.listIterator(); iterator.hasNext(); ) {
+            String code = iterator.next();
+            iterator.set(Character.toUpperCase(code.charAt(0)) + code.substring(1));
+        }
+        return list;
+    }
+
+    @Benchmark
+    public List<String> replaceWithReplaceAll() {
+        List<String> list = new ArrayList<>(referenceCodes);
+        list.replaceAll(code -> Character.toUpperCase(code.charAt(0)) + code.substring(1));
+        return list;
+    }
+}
@@ -0,0 +1,84 @@
+package com.modern.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapProcess 의 두 계산 패턴을 비교한다.
+ *  1. mergePattern : get/null 확인/put 으로 세기 VS merge(key, 1L, Long::sum)
+ *  2. calculatePattern : get/null 확인/put 으로 리스트 초기화 VS computeIfAbsent
+ * 키는 size 개 중 1/4 만 서로 다르게 만들어 갱신(기존 키)과 삽입(새 키)이 섞이도록 한다.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MapIdiomBenchmark {
+
+    @Param({"10", "1000", "100000", "10000000"})
+    public int size;
+
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        keys = BenchmarkData.keys(size, Math.max(1, size / 4));
+    }
+
+    @Benchmark
+    public Map<String, Long> countWithGetPut() {
+        Map<String, Long> moviesToCount = new HashMap<>();
+        for (String key : keys) {
+            Long count = moviesToCount.get(key);
+            if (count == null) {
+                moviesToCount.put(key, 1L);
+            } else {
+                moviesToCount.put(key, count + 1L);
+            }
+        }
+        return moviesToCount;
+    }
+
+    @Benchmark
+    public Map<String, Long> countWithMerge() {
+        Map<String, Long> moviesToCount = new HashMap<>();
+        for (String key : keys) {
+            moviesToCount.merge(key, 1L, Long::sum);
+        }
+        return moviesToCount;
+    }
+
+    @Benchmark
+    public Map<String, List<String>> groupWithNullCheck() {
+        Map<String, List<String>> friendsToMovies = new HashMap<>();
+        for (String key : keys) {
+            List<String> movies = friendsToMovies.get(key);
+            if (movies == null) {
+                movies = new ArrayList<>();
+                friendsToMovies.put(key, movies);
+            }
+            movies.add(key);
+        }
+        return friendsToMovies;
+    }
+
+    @Benchmark
+    public Map<String, List<String>> groupWithComputeIfAbsent() {
+        Map<String, List<String>> friendsToMovies = new HashMap<>();
+        for (String key : keys) {
+            friendsToMovies.computeIfAbsent(key, name -> new ArrayList<>()).add(key);
+        }
+        return friendsToMovies;
+    }
+}
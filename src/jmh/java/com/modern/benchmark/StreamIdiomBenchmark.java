@@ -0,0 +1,63 @@
+package com.modern.benchmark;
+
+import com.modern.dto.Dish;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * ReFactory2.disReFactory 의 반복문 VS 스트림 VS 병렬 스트림 비교
+ * 칼로리가 300 을 넘는 요리 이름을 모은다. 작은 입력에서는 fork/join 비용이 작업보다 크다는 것을 확인할수 있다.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StreamIdiomBenchmark {
+
+    @Param({"10", "1000", "100000", "10000000"})
+    public int size;
+
+    private List<Dish> menu;
+
+    @Setup
+    public void setUp() {
+        menu = BenchmarkData.menu(size);
+    }
+
+    @Benchmark
+    public List<String> loop() {
+        List<String> dishNames = new ArrayList<>();
+        for (Dish dish : menu) {
+            if (dish.getCalories() > 300) {
+                dishNames.add(dish.getName());
+            }
+        }
+        return dishNames;
+    }
+
+    @Benchmark
+    public List<String> stream() {
+        return menu.stream()
+                .filter(d -> d.getCalories() > 300)
+                .map(Dish::getName)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<String> parallelStream() {
+        return menu.parallelStream()
+                .filter(d -> d.getCalories() > 300)
+                .map(Dish::getName)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,399 @@
+package com.modern.datastructure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+public class AhoCorasick {
+    /**
+     * 여러 키워드를 텍스트 한번 훑기로 모두 찾는 Aho-Corasick 오토마톤
+     *  키워드마다 text.contains(keyword) 를 하면 텍스트 하나당 비용이 키워드 수에 비례한다.
+     *  Aho-Corasick 은 키워드들로 트라이(trie)를 만들고 실패 링크(failure link)를 이어서
+     *  키워드 수와 상관없이 텍스트 길이 + 일치 개수에 비례하는 시간에 모든 일치를 찾는다.
+     *
+     *  ● 노드는 int 번호이고 전이(transition)는 (노드, 문자) -> 자식 노드 오픈 어드레싱 테이블 하나에 모아둔다.
+     *    노드마다 Map 을 두지 않으므로 키워드가 수천개여도 객체 수가 거의 늘지 않는다.
+     *  ● 출력 링크(dictionary link) : 실패 링크를 따라가다 처음 만나는 "키워드가 끝나는 노드".
+     *    일치를 보고할때 키워드가 없는 노드들을 건너뛴다.
+     *  ● 키워드 추가는 트라이에 노드만 덧붙이고, 링크 재계산은 다음 검색때 한번에 한다. (여러개를 추가해도 재계산 한번)
+     *    기존 키워드를 다시 넣지 않고 링크만 BFS 로 다시 계산하므로 O(노드 수) 이다.
+     *  ● 키워드 삭제는 끝 노드의 표시를 지우고, 다른 키워드가 지나가지 않는 꼬리 노드들을 트라이에서 떼어낸다.
+     *    떼어낸 노드 번호는 다음 추가때 재사용하므로 추가/삭제를 반복해도 트라이가 계속 커지지 않는다.
+     *  ● 대소문자를 구분한다. (String.contains 와 같다)
+     *  ● 스레드 안전하지 않다. 여러 스레드에서 쓰려면 KeywordFeed 처럼 읽기/쓰기 락으로 감싼다.
+     * */
+
+    private static final int ROOT = 0;
+    private static final long EMPTY = -1L;
+
+    // 트라이 노드 (노드 번호로 인덱싱)
+    private int nodeCount = 1;
+    private int[] fail = new int[16];
+    private int[] dictLink = new int[16];
+    private int[] keywordAt = new int[16]; // 이 노드에서 끝나는 키워드 id (-1 없음)
+    private int[] depth = new int[16]; // 떼어낸 노드는 -1
+    private int[] childCount = new int[16];
+    private int[] freeNodes = new int[0];
+    private int freeNodeCount;
+
+    // (노드 << 16 | 문자) -> 자식 노드
+    private long[] edgeKeys;
+    private int[] edgeTargets;
+    private int edgeCount;
+    private int edgeMask;
+
+    // 키워드 id -> 키워드 (삭제된 id 는 null)
+    private final List<String> keywords = new ArrayList<>();
+    private final Map<String, Integer> keywordIds = new HashMap<>();
+    private final List<Integer> freeIds = new ArrayList<>();
+    private int liveKeywords;
+    private boolean dirty;
+
+    public AhoCorasick() {
+        keywordAt[ROOT] = -1;
+        dictLink[ROOT] = -1; // 키워드 없이 검색해도 출력 링크를 따라가지 않도록
+        allocateEdges(64);
+    }
+
+    public static AhoCorasick of(String... keywords) {
+        AhoCorasick automaton = new AhoCorasick();
+        for (String keyword : keywords) {
+            automaton.add(keyword);
+        }
+        automaton.build();
+        return automaton;
+    }
+
+    /* 키워드를 추가하고 id 를 반환한다. 이미 있으면 기존 id */
+    public int add(String keyword) {
+        if (keyword == null || keyword.isEmpty()) {
+            throw new IllegalArgumentException("keyword must not be empty");
+        }
+        Integer existing = keywordIds.get(keyword);
+        if (existing != null) {
+            return existing;
+        }
+        int node = ROOT;
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = keyword.charAt(i);
+            int child = child(node, c);
+            if (child < 0) {
+                child = newNode(depth[node] + 1);
+                putEdge(node, c, child);
+                childCount[node]++;
+            }
+            node = child;
+        }
+        int id;
+        if (freeIds.isEmpty()) {
+            id = keywords.size();
+            keywords.add(keyword);
+        } else {
+            id = freeIds.remove(freeIds.size() - 1);
+            keywords.set(id, keyword);
+        }
+        keywordIds.put(keyword, id);
+        keywordAt[node] = id;
+        liveKeywords++;
+        dirty = true;
+        return id;
+    }
+
+    public boolean remove(String keyword) {
+        Integer id = keywordIds.remove(keyword);
+        if (id == null) {
+            return false;
+        }
+        prune(keyword);
+        keywords.set(id, null);
+        freeIds.add(id);
+        liveKeywords--;
+        dirty = true;
+        return true;
+    }
+
+    /* 키워드 id (없으면 -1) */
+    public int idOf(String keyword) {
+        Integer id = keywordIds.get(keyword);
+        return id == null ? -1 : id;
+    }
+
+    public String keyword(int id) {
+        return keywords.get(id);
+    }
+
+    /* 지금까지 발급한 id 의 상한 (삭제된 id 포함). BitSet 등을 만들때 크기로 쓴다. */
+    public int idBound() {
+        return keywords.size();
+    }
+
+    public int size() {
+        return liveKeywords;
+    }
+
+    /* 트라이에 붙어있는 노드 수 (루트 포함) */
+    public int nodeCount() {
+        return nodeCount - freeNodeCount;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /* 실패 링크와 출력 링크를 계산한다. 바뀐게 없으면 아무것도 하지 않는다. */
+    public void build() {
+        if (!dirty) {
+            return;
+        }
+        // 깊이 순서(BFS)로 노드를 정렬한다. 부모는 항상 자식보다 얕으므로 부모의 링크가 먼저 계산된다.
+        int[] order = bfsOrder();
+        int[] parent = new int[nodeCount];
+        char[] label = new char[nodeCount];
+        for (int i = 0; i < edgeKeys.length; i++) {
+            long key = edgeKeys[i];
+            if (key != EMPTY) {
+                int child = edgeTargets[i];
+                parent[child] = (int) (key >>> 16);
+                label[child] = (char) key;
+            }
+        }
+        fail[ROOT] = ROOT;
+        dictLink[ROOT] = -1;
+        for (int k = 1; k < order.length; k++) {
+            int node = order[k];
+            int p = parent[node];
+            char c = label[node];
+            int f = ROOT;
+            if (p != ROOT) {
+                f = fail[p];
+                int next;
+                while ((next = child(f, c)) < 0 && f != ROOT) {
+                    f = fail[f];
+                }
+                f = next < 0 ? ROOT : next;
+            }
+            fail[node] = f;
+            dictLink[node] = keywordAt[f] >= 0 ? f : dictLink[f];
+        }
+        dirty = false;
+    }
+
+    /**
+     * text 에서 키워드가 나올때마다 키워드 id 를 전달한다. (같은 키워드가 여러번 나오면 여러번)
+     * 링크가 오래됐으면 먼저 build() 한다.
+     * */
+    public void search(CharSequence text, IntConsumer onMatch) {
+        build();
+        int node = ROOT;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            node = step(node, text.charAt(i));
+            int out = keywordAt[node] >= 0 ? node : dictLink[node];
+            while (out >= 0) {
+                onMatch.accept(keywordAt[out]);
+                out = dictLink[out];
+            }
+        }
+    }
+
+    /* text 에 나오는 서로 다른 키워드 id 들을 오름차순으로 반환한다. */
+    public int[] matchIds(CharSequence text) {
+        build();
+        int[] found = null;
+        int count = 0;
+        int node = ROOT;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            node = step(node, text.charAt(i));
+            int out = keywordAt[node] >= 0 ? node : dictLink[node];
+            while (out >= 0) {
+                if (found == null) {
+                    found = new int[4];
+                } else if (count == found.length) {
+                    found = Arrays.copyOf(found, count << 1);
+                }
+                found[count++] = keywordAt[out];
+                out = dictLink[out];
+            }
+        }
+        if (count == 0) {
+            return new int[0];
+        }
+        Arrays.sort(found, 0, count);
+        int distinct = 1;
+        for (int i = 1; i < count; i++) {
+            if (found[i] != found[distinct - 1]) {
+                found[distinct++] = found[i];
+            }
+        }
+        return Arrays.copyOf(found, distinct);
+    }
+
+    public boolean containsAny(CharSequence text) {
+        build();
+        int node = ROOT;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            node = step(node, text.charAt(i));
+            if (keywordAt[node] >= 0 || dictLink[node] >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int step(int node, char c) {
+        int next;
+        while ((next = child(node, c)) < 0 && node != ROOT) {
+            node = fail[node];
+        }
+        return next < 0 ? ROOT : next;
+    }
+
+    // 키워드 끝 노드의 표시를 지우고, 키워드도 자식도 없는 노드를 끝에서부터 떼어낸다.
+    private void prune(String keyword) {
+        int[] path = new int[keyword.length() + 1];
+        for (int i = 0; i < keyword.length(); i++) {
+            path[i + 1] = child(path[i], keyword.charAt(i));
+        }
+        keywordAt[path[keyword.length()]] = -1;
+        for (int i = keyword.length(); i > 0; i--) {
+            int node = path[i];
+            if (keywordAt[node] >= 0 || childCount[node] > 0) {
+                break;
+            }
+            removeEdge(path[i - 1], keyword.charAt(i - 1));
+            childCount[path[i - 1]]--;
+            freeNode(node);
+        }
+    }
+
+    private int[] bfsOrder() {
+        // 깊이별 계수 정렬 (자식 목록을 따로 가지고 있지 않으므로). 떼어낸 노드(depth -1)는 뺀다.
+        int maxDepth = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            maxDepth = Math.max(maxDepth, depth[i]);
+        }
+        int[] start = new int[maxDepth + 2];
+        for (int i = 0; i < nodeCount; i++) {
+            if (depth[i] >= 0) {
+                start[depth[i] + 1]++;
+            }
+        }
+        for (int d = 1; d < start.length; d++) {
+            start[d] += start[d - 1];
+        }
+        int[] order = new int[nodeCount - freeNodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            if (depth[i] >= 0) {
+                order[start[depth[i]]++] = i;
+            }
+        }
+        return order;
+    }
+
+    private int newNode(int nodeDepth) {
+        int node;
+        if (freeNodeCount > 0) {
+            node = freeNodes[--freeNodeCount];
+        } else {
+            if (nodeCount == fail.length) {
+                int capacity = fail.length << 1;
+                fail = Arrays.copyOf(fail, capacity);
+                dictLink = Arrays.copyOf(dictLink, capacity);
+                keywordAt = Arrays.copyOf(keywordAt, capacity);
+                depth = Arrays.copyOf(depth, capacity);
+                childCount = Arrays.copyOf(childCount, capacity);
+            }
+            node = nodeCount++;
+        }
+        keywordAt[node] = -1;
+        dictLink[node] = -1;
+        depth[node] = nodeDepth;
+        childCount[node] = 0;
+        return node;
+    }
+
+    private void freeNode(int node) {
+        if (freeNodeCount == freeNodes.length) {
+            freeNodes = Arrays.copyOf(freeNodes, Math.max(16, freeNodeCount << 1));
+        }
+        freeNodes[freeNodeCount++] = node;
+        depth[node] = -1;
+        keywordAt[node] = -1;
+    }
+
+    private int child(int node, char c) {
+        long key = edgeKey(node, c);
+        int i = spread(key) & edgeMask;
+        long k;
+        while ((k = edgeKeys[i]) != EMPTY) {
+            if (k == key) {
+                return edgeTargets[i];
+            }
+            i = (i + 1) & edgeMask;
+        }
+        return -1;
+    }
+
+    private void putEdge(int node, char c, int target) {
+        if ((edgeCount + 1) * 2 > edgeKeys.length) { // 적재율 0.5
+            long[] oldKeys = edgeKeys;
+            int[] oldTargets = edgeTargets;
+            allocateEdges(oldKeys.length << 1);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    insertEdge(oldKeys[i], oldTargets[i]);
+                }
+            }
+        }
+        insertEdge(edgeKey(node, c), target);
+        edgeCount++;
+    }
+
+    // 선형 탐사 테이블에서 지운 자리 뒤의 항목들을 당겨서 탐사 구간이 끊기지 않게 한다. (묘비를 남기지 않는다)
+    private void removeEdge(int node, char c) {
+        long key = edgeKey(node, c);
+        int i = spread(key) & edgeMask;
+        while (edgeKeys[i] != key) {
+            i = (i + 1) & edgeMask;
+        }
+        edgeKeys[i] = EMPTY;
+        edgeCount--;
+        for (int j = (i + 1) & edgeMask; edgeKeys[j] != EMPTY; j = (j + 1) & edgeMask) {
+            int home = spread(edgeKeys[j]) & edgeMask;
+            // home 이 (i, j] 구간 밖이면 j 의 항목을 빈 자리 i 로 옮길수 있다.
+            if (((j - home) & edgeMask) >= ((j - i) & edgeMask)) {
+                edgeKeys[i] = edgeKeys[j];
+                edgeTargets[i] = edgeTargets[j];
+                edgeKeys[j] = EMPTY;
+                i = j;
+            }
+        }
+    }
+
+    private void insertEdge(long key, int target) {
+        int i = spread(key) & edgeMask;
+        while (edgeKeys[i] != EMPTY) {
+            i = (i + 1) & edgeMask;
+        }
+        edgeKeys[i] = key;
+        edgeTargets[i] = target;
+    }
+
+    private void allocateEdges(int capacity) {
+        edgeKeys = new long[capacity];
+        Arrays.fill(edgeKeys, EMPTY);
+        edgeTargets = new int[capacity];
+        edgeMask = capacity - 1;
+    }
+
+    private static long edgeKey(int node, char c) {
+        return ((long) node << 16) | c;
+    }
+
+    private static int spread(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,601 @@
+package com.modern.datastructure;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+public class ChunkedConcurrentList<E> extends AbstractList<E> {
+    /**
+     * 순회 중에 삭제해도 되는 스레드 안전 리스트 (청크 단위 copy-on-write)
+     *  ArrayList 는 for-each 도중 list.remove 하면 ConcurrentModificationException 이 발생한다.
+     *  CopyOnWriteArrayList 는 순회가 안전하지만 쓸때마다 배열 전체를 복사한다. (요소 n 개면 쓰기 한번에 O(n))
+     *
+     *  1. 요소를 최대 64개짜리 청크(Leaf)에 나눠 담고, 청크들을 최대 32갈래의 트리(Branch)로 묶는다.
+     *     노드는 만든 뒤 바뀌지 않는다. 트리의 루트 하나가 리스트의 한 버전이다.
+     *  2. 쓰기(add / set / remove)는 바뀌는 청크 하나와 루트까지의 경로만 복사해서 새 루트를 만들고 volatile 로 공개한다.
+     *     요소가 백만개여도 쓰기 한번에 복사하는 양은 청크 하나(64) + 경로(32 * 높이 4) 정도다.
+     *     쓰기끼리는 잠금 하나로 순서를 정하고, 읽기는 잠금 없이 그 시점의 루트를 읽는다.
+     *  3. iterator() 는 만들때의 루트(버전)를 잡고 순회한다. 순회 중에 리스트가 바뀌어도 처음 본 내용 그대로 끝까지 돈다.
+     *     그래서 for-each 안에서 list.remove 해도 예외가 나지 않는다. iterator.remove() 도 지원한다.
+     *     (iterator.remove() 는 지금 리스트에서 같은 객체(==)를 순회 위치 근처부터 찾아 지운다)
+     *  4. 끝에 추가(add)하면 꽉 찬 청크는 그대로 두고 새 청크를 만든다. 지워서 작아진 청크는 이웃 청크와 합친다.
+     *
+     *  get(i) 는 트리 높이만큼 내려가므로(요소 백만개면 4단계) RandomAccess 는 아니다. 순회는 iterator 를 쓴다.
+     *  null 요소를 허용한다.
+     * */
+
+    static final int LEAF_CAPACITY = 64;
+    static final int BRANCH_CAPACITY = 32;
+    private static final Leaf EMPTY = new Leaf(new Object[0]);
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Node root = EMPTY;
+
+    public ChunkedConcurrentList() {
+    }
+
+    public ChunkedConcurrentList(Collection<? extends E> source) {
+        root = build(source.toArray());
+    }
+
+    /* ------------------------------ 읽기 (잠금 없음) ------------------------------ */
+
+    @Override
+    public int size() {
+        return root.size();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Node r = root;
+        Objects.checkIndex(index, r.size());
+        return (E) get(r, index);
+    }
+
+    /* 지금 버전의 읽기 전용 리스트. 이후의 변경은 보이지 않는다. (복사하지 않는다) */
+    public List<E> snapshot() {
+        return new Snapshot<>(root);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr<>(root, this);
+    }
+
+    /**
+     * 지금 버전을 순회하는 읽기 전용 ListIterator (set / add / remove 는 UnsupportedOperationException)
+     * List.sort / replaceAll 의 기본 구현은 listIterator().set 으로 쓰므로 아래에서 따로 구현한다.
+     * */
+    @Override
+    public ListIterator<E> listIterator(int index) {
+        return snapshot().listIterator(index);
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        Node r = root;
+        return Spliterators.spliterator(new Itr<>(r, null), r.size(), Spliterator.ORDERED);
+    }
+
+    /* ------------------------------ 쓰기 (잠금) ------------------------------ */
+
+    @Override
+    public boolean add(E e) {
+        writeLock.lock();
+        try {
+            Node r = root;
+            root = grow(insert(r, r.size(), e));
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void add(int index, E element) {
+        writeLock.lock();
+        try {
+            Node r = root;
+            Objects.checkIndex(index, r.size() + 1);
+            root = grow(insert(r, index, element));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /* 잠금을 한번만 잡고 추가한 뒤 새 버전을 한번만 공개한다. */
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        Object[] elements = c.toArray();
+        if (elements.length == 0) {
+            return false;
+        }
+        writeLock.lock();
+        try {
+            Node r = root;
+            for (Object e : elements) {
+                r = grow(insert(r, r.size(), e));
+            }
+            root = r;
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E set(int index, E element) {
+        writeLock.lock();
+        try {
+            Node r = root;
+            Objects.checkIndex(index, r.size());
+            E previous = (E) get(r, index);
+            root = set(r, index, element);
+            return previous;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E remove(int index) {
+        writeLock.lock();
+        try {
+            Node r = root;
+            Objects.checkIndex(index, r.size());
+            E removed = (E) get(r, index);
+            root = shrink(remove(r, index));
+            return removed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        writeLock.lock();
+        try {
+            int index = indexOf(root, o);
+            if (index < 0) {
+                return false;
+            }
+            root = shrink(remove(root, index));
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /* 남길 요소로 트리를 한번 새로 만든다. filter 가 예외를 던지면 리스트는 그대로다. */
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        Objects.requireNonNull(filter, "filter");
+        writeLock.lock();
+        try {
+            Node r = root;
+            Object[] kept = new Object[r.size()];
+            int n = 0;
+            for (Itr<E> it = new Itr<>(r, null); it.hasNext(); ) {
+                E e = it.next();
+                if (!filter.test(e)) {
+                    kept[n++] = e;
+                }
+            }
+            if (n == kept.length) {
+                return false;
+            }
+            root = build(Arrays.copyOf(kept, n));
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /* 바꾼 요소로 트리를 한번 새로 만든다. operator 가 예외를 던지면 리스트는 그대로다. */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void replaceAll(UnaryOperator<E> operator) {
+        Objects.requireNonNull(operator, "operator");
+        writeLock.lock();
+        try {
+            Object[] elements = new Snapshot<>(root).toArray();
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] = operator.apply((E) elements[i]);
+            }
+            root = build(elements);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /* 배열로 꺼내 정렬한 뒤 트리를 한번 새로 만든다. comparator 가 null 이면 자연 순서 (List.sort 와 같다) */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void sort(Comparator<? super E> c) {
+        writeLock.lock();
+        try {
+            Object[] elements = new Snapshot<>(root).toArray();
+            Arrays.sort(elements, (Comparator<Object>) c);
+            root = build(elements);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /* subList(from, to).clear() 가 호출한다. 남는 요소로 트리를 한번 새로 만든다. */
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        writeLock.lock();
+        try {
+            Object[] elements = new Snapshot<>(root).toArray();
+            Objects.checkFromToIndex(fromIndex, toIndex, elements.length);
+            Object[] kept = new Object[elements.length - (toIndex - fromIndex)];
+            System.arraycopy(elements, 0, kept, 0, fromIndex);
+            System.arraycopy(elements, toIndex, kept, fromIndex, elements.length - toIndex);
+            root = build(kept);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        writeLock.lock();
+        try {
+            root = EMPTY;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // iterator.remove() : 순회를 시작한 뒤 다른 쓰기로 위치가 바뀌었을수 있으므로 hint 근처부터 같은 객체(==)를 찾는다.
+    private boolean removeSame(Object element, int hint) {
+        writeLock.lock();
+        try {
+            Node r = root;
+            int size = r.size();
+            int start = Math.max(0, Math.min(hint, size - 1));
+            for (int d = 0; d <= LEAF_CAPACITY; d++) {
+                if (start - d >= 0 && get(r, start - d) == element) {
+                    root = shrink(remove(r, start - d));
+                    return true;
+                }
+                if (d > 0 && start + d < size && get(r, start + d) == element) {
+                    root = shrink(remove(r, start + d));
+                    return true;
+                }
+            }
+            int i = 0;
+            for (Itr<Object> it = new Itr<>(r, null); it.hasNext(); i++) {
+                if (it.next() == element) {
+                    root = shrink(remove(r, i));
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /* ------------------------------ 노드 ------------------------------ */
+
+    private abstract static sealed class Node permits Leaf, Branch {
+        abstract int size();
+    }
+
+    private static final class Leaf extends Node {
+        private final Object[] items;
+
+        private Leaf(Object[] items) {
+            this.items = items;
+        }
+
+        @Override
+        int size() {
+            return items.length;
+        }
+    }
+
+    private static final class Branch extends Node {
+        private final Node[] children;
+        private final int[] ends; // ends[k] = children[0..k] 의 요소 수 합
+
+        private Branch(Node[] children) {
+            this.children = children;
+            this.ends = new int[children.length];
+            int total = 0;
+            for (int k = 0; k < children.length; k++) {
+                total += children[k].size();
+                ends[k] = total;
+            }
+        }
+
+        @Override
+        int size() {
+            return ends[ends.length - 1];
+        }
+
+        // index 가 들어있는 자식 (index == size 면 마지막 자식)
+        int childAt(int index) {
+            int lo = 0;
+            int hi = ends.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (ends[mid] > index) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return lo;
+        }
+
+        int start(int k) {
+            return k == 0 ? 0 : ends[k - 1];
+        }
+    }
+
+    private static Object get(Node node, int index) {
+        while (node instanceof Branch b) {
+            int k = b.childAt(index);
+            index -= b.start(k);
+            node = b.children[k];
+        }
+        return ((Leaf) node).items[index];
+    }
+
+    // index 가 들어있는 청크의 요소 배열과 청크 안에서의 위치
+    private static Object[] leafAt(Node node, int index, int[] offset) {
+        while (node instanceof Branch b) {
+            int k = b.childAt(index);
+            index -= b.start(k);
+            node = b.children[k];
+        }
+        offset[0] = index;
+        return ((Leaf) node).items;
+    }
+
+    private static Node set(Node node, int index, Object element) {
+        if (node instanceof Branch b) {
+            int k = b.childAt(index);
+            Node[] children = b.children.clone();
+            children[k] = set(children[k], index - b.start(k), element);
+            return new Branch(children);
+        }
+        Object[] items = ((Leaf) node).items.clone();
+        items[index] = element;
+        return new Leaf(items);
+    }
+
+    // 노드 1개, 또는 넘쳐서 나눠진 노드 2개를 반환한다.
+    private static Node[] insert(Node node, int index, Object element) {
+        if (node instanceof Leaf leaf) {
+            Object[] items = leaf.items;
+            int n = items.length;
+            if (n < LEAF_CAPACITY) {
+                return new Node[]{new Leaf(inserted(items, index, element))};
+            }
+            if (index == n) { // 끝에 추가 : 꽉 찬 청크는 그대로 두고 새 청크를 연다.
+                return new Node[]{leaf, new Leaf(new Object[]{element})};
+            }
+            Object[] all = inserted(items, index, element);
+            int half = all.length >>> 1;
+            return new Node[]{new Leaf(Arrays.copyOfRange(all, 0, half)), new Leaf(Arrays.copyOfRange(all, half, all.length))};
+        }
+        Branch b = (Branch) node;
+        int k = b.childAt(index);
+        Node[] parts = insert(b.children[k], index - b.start(k), element);
+        Node[] children = replaced(b.children, k, parts);
+        if (children.length <= BRANCH_CAPACITY) {
+            return new Node[]{new Branch(children)};
+        }
+        // 끝에 추가하다 넘친 경우는 앞쪽을 꽉 찬 채로 두고, 중간이면 반으로 나눈다.
+        int split = k == b.children.length - 1 ? children.length - 1 : children.length >>> 1;
+        return new Node[]{new Branch(Arrays.copyOfRange(children, 0, split)),
+                new Branch(Arrays.copyOfRange(children, split, children.length))};
+    }
+
+    // 비게 되면 null 을 반환한다.
+    private static Node remove(Node node, int index) {
+        if (node instanceof Leaf leaf) {
+            Object[] items = leaf.items;
+            if (items.length == 1) {
+                return null;
+            }
+            Object[] copy = new Object[items.length - 1];
+            System.arraycopy(items, 0, copy, 0, index);
+            System.arraycopy(items, index + 1, copy, index, copy.length - index);
+            return new Leaf(copy);
+        }
+        Branch b = (Branch) node;
+        int k = b.childAt(index);
+        Node child = remove(b.children[k], index - b.start(k));
+        if (child == null) {
+            if (b.children.length == 1) {
+                return null;
+            }
+            return new Branch(replaced(b.children, k, new Node[0]));
+        }
+        // 작아진 청크는 옆 청크와 합칠수 있으면 합친다. (지우기만 반복해도 청크가 잘게 쪼개지지 않도록)
+        if (child instanceof Leaf leaf && leaf.size() < LEAF_CAPACITY / 4) {
+            int sibling = k + 1 < b.children.length ? k + 1 : k - 1;
+            if (sibling >= 0 && b.children[sibling] instanceof Leaf other
+                    && leaf.size() + other.size() <= LEAF_CAPACITY) {
+                int first = Math.min(k, sibling);
+                Object[] left = (first == k ? leaf : other).items;
+                Object[] right = (first == k ? other : leaf).items;
+                Object[] merged = Arrays.copyOf(left, left.length + right.length);
+                System.arraycopy(right, 0, merged, left.length, right.length);
+                Node[] children = replaced(b.children, first, new Node[]{new Leaf(merged)});
+                return new Branch(replaced(children, first + 1, new Node[0]));
+            }
+        }
+        return new Branch(replaced(b.children, k, new Node[]{child}));
+    }
+
+    // 루트가 나눠졌으면 한 단계 높인다.
+    private static Node grow(Node[] parts) {
+        return parts.length == 1 ? parts[0] : new Branch(parts);
+    }
+
+    // 비었으면 빈 청크로, 자식이 하나뿐인 Branch 는 그 자식으로 낮춘다.
+    private static Node shrink(Node node) {
+        if (node == null) {
+            return EMPTY;
+        }
+        while (node instanceof Branch b && b.children.length == 1) {
+            node = b.children[0];
+        }
+        return node;
+    }
+
+    // 꽉 찬 청크와 Branch 로 한번에 만든다.
+    private static Node build(Object[] elements) {
+        if (elements.length == 0) {
+            return EMPTY;
+        }
+        Node[] level = new Node[(elements.length + LEAF_CAPACITY - 1) / LEAF_CAPACITY];
+        for (int i = 0; i < level.length; i++) {
+            int from = i * LEAF_CAPACITY;
+            level[i] = new Leaf(Arrays.copyOfRange(elements, from, Math.min(from + LEAF_CAPACITY, elements.length)));
+        }
+        while (level.length > 1) {
+            Node[] parents = new Node[(level.length + BRANCH_CAPACITY - 1) / BRANCH_CAPACITY];
+            for (int i = 0; i < parents.length; i++) {
+                int from = i * BRANCH_CAPACITY;
+                parents[i] = new Branch(Arrays.copyOfRange(level, from, Math.min(from + BRANCH_CAPACITY, level.length)));
+            }
+            level = parents;
+        }
+        return level[0];
+    }
+
+    private static int indexOf(Node root, Object o) {
+        int i = 0;
+        for (Itr<Object> it = new Itr<>(root, null); it.hasNext(); i++) {
+            if (Objects.equals(o, it.next())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Object[] inserted(Object[] items, int index, Object element) {
+        Object[] copy = new Object[items.length + 1];
+        System.arraycopy(items, 0, copy, 0, index);
+        copy[index] = element;
+        System.arraycopy(items, index, copy, index + 1, items.length - index);
+        return copy;
+    }
+
+    // nodes[k] 를 replacement(0개 이상)로 바꾼 배열
+    private static Node[] replaced(Node[] nodes, int k, Node[] replacement) {
+        Node[] copy = new Node[nodes.length - 1 + replacement.length];
+        System.arraycopy(nodes, 0, copy, 0, k);
+        System.arraycopy(replacement, 0, copy, k, replacement.length);
+        System.arraycopy(nodes, k + 1, copy, k + replacement.length, nodes.length - k - 1);
+        return copy;
+    }
+
+    /* ------------------------------ 순회 ------------------------------ */
+
+    // 한 버전(root)을 청크 단위로 순회한다. 청크가 바뀔때만 트리를 내려간다.
+    private static final class Itr<E> implements Iterator<E> {
+        private final Node root;
+        private final int size;
+        private final ChunkedConcurrentList<?> owner; // iterator.remove() 대상 (없으면 읽기 전용)
+        private final int[] offset = new int[1];
+        private Object[] items = EMPTY.items;
+        private int pos;
+        private int index;
+        private Object lastReturned;
+        private int lastIndex = -1;
+        private int removed; // 이 iterator 로 지운 수 (살아있는 리스트에서의 위치를 추정할때 쓴다)
+
+        private Itr(Node root, ChunkedConcurrentList<?> owner) {
+            this.root = root;
+            this.size = root.size();
+            this.owner = owner;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (index >= size) {
+                throw new NoSuchElementException();
+            }
+            if (pos == items.length) {
+                items = leafAt(root, index, offset);
+                pos = offset[0];
+            }
+            lastReturned = items[pos++];
+            lastIndex = index++;
+            return (E) lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (owner == null) {
+                throw new UnsupportedOperationException();
+            }
+            if (lastIndex < 0) {
+                throw new IllegalStateException();
+            }
+            if (owner.removeSame(lastReturned, lastIndex - removed)) {
+                removed++;
+            }
+            lastIndex = -1;
+        }
+    }
+
+    // 한 버전의 읽기 전용 뷰
+    private static final class Snapshot<E> extends AbstractList<E> {
+        private final Node root;
+
+        private Snapshot(Node root) {
+            this.root = root;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get(int index) {
+            Objects.checkIndex(index, root.size());
+            return (E) ChunkedConcurrentList.get(root, index);
+        }
+
+        @Override
+        public int size() {
+            return root.size();
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Itr<>(root, null);
+        }
+
+        @Override
+        public Spliterator<E> spliterator() {
+            return Spliterators.spliterator(new Itr<>(root, null), root.size(), Spliterator.ORDERED);
+        }
+    }
+}
@@ -0,0 +1,549 @@
+package com.modern.datastructure;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+public class CompressedBitmap {
+    /**
+     * Roaring 방식의 압축 비트맵 (0 이상의 int 집합)
+     *  값의 상위 16비트로 청크(chunk)를 나누고 청크마다 밀도에 따라 두가지 컨테이너 중 하나를 쓴다.
+     *  1. ArrayContainer : 값이 4096개 이하면 하위 16비트를 정렬된 char[] 로 저장한다. (값 하나당 2바이트)
+     *  2. BitmapContainer : 4096개를 넘으면 65536비트(long[1024], 8KB) 비트맵으로 저장한다.
+     *  4096 은 두 표현의 크기가 같아지는 지점이다. 희소한 집합은 배열로, 밀집한 집합은 비트맵으로 작게 유지되고
+     *  AND / OR / ANDNOT 은 같은 청크의 컨테이너끼리만 연산하면 된다.
+     *
+     *  스레드 안전하지 않다. and / or / andNot 은 새 비트맵을 만들고 피연산자는 바꾸지 않는다.
+     * */
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    private char[] highs = new char[4];
+    private Container[] containers = new Container[4];
+    private int count;
+
+    public CompressedBitmap() {
+    }
+
+    public static CompressedBitmap of(int... values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    /**
+     * [0, size) 구간의 모든 값을 가진 비트맵
+     * 청크 번호로 반복하고 끝 값은 long 으로 계산한다. size 가 Integer.MAX_VALUE 근처여도 start + 65536 이 넘치지 않는다.
+     * */
+    public static CompressedBitmap range(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative: " + size);
+        }
+        CompressedBitmap bitmap = new CompressedBitmap();
+        int chunks = (int) (((long) size + 0xFFFF) >>> 16);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int start = chunk << 16;
+            int length = (int) Math.min((long) size - start, 1 << 16);
+            BitmapContainer container = new BitmapContainer();
+            Arrays.fill(container.words, 0, length >>> 6, -1L);
+            if ((length & 63) != 0) {
+                container.words[length >>> 6] = (1L << length) - 1;
+            }
+            container.cardinality = length;
+            bitmap.append((char) chunk, container.optimize());
+        }
+        return bitmap;
+    }
+
+    public boolean add(int value) {
+        checkValue(value);
+        char high = (char) (value >>> 16);
+        int i = indexOf(high);
+        if (i < 0) {
+            i = -i - 1;
+            insertAt(i, high, new ArrayContainer());
+        }
+        Container container = containers[i];
+        int before = container.cardinality();
+        containers[i] = container.add((char) value);
+        return containers[i].cardinality() > before;
+    }
+
+    public boolean remove(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int i = indexOf((char) (value >>> 16));
+        if (i < 0) {
+            return false;
+        }
+        Container container = containers[i];
+        int before = container.cardinality();
+        Container after = container.remove((char) value);
+        if (after.cardinality() == 0) {
+            removeAt(i);
+        } else {
+            containers[i] = after;
+        }
+        return after.cardinality() < before;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int i = indexOf((char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    public int cardinality() {
+        int sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += containers[i].cardinality();
+        }
+        return sum;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /* 오름차순으로 모든 값을 순회한다. */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < count; i++) {
+            containers[i].forEach(highs[i] << 16, action);
+        }
+    }
+
+    public int[] toArray() {
+        int[] values = new int[cardinality()];
+        int[] position = new int[1];
+        forEach(v -> values[position[0]++] = v);
+        return values;
+    }
+
+    public CompressedBitmap copy() {
+        CompressedBitmap copy = new CompressedBitmap();
+        copy.highs = Arrays.copyOf(highs, highs.length);
+        copy.containers = new Container[containers.length];
+        for (int i = 0; i < count; i++) {
+            copy.containers[i] = containers[i].copy();
+        }
+        copy.count = count;
+        return copy;
+    }
+
+    public static CompressedBitmap and(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.count && j < b.count) {
+            if (a.highs[i] < b.highs[j]) {
+                i++;
+            } else if (a.highs[i] > b.highs[j]) {
+                j++;
+            } else {
+                Container c = a.containers[i].and(b.containers[j]);
+                if (c.cardinality() > 0) {
+                    result.append(a.highs[i], c);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public static CompressedBitmap or(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.count || j < b.count) {
+            if (j >= b.count || (i < a.count && a.highs[i] < b.highs[j])) {
+                result.append(a.highs[i], a.containers[i].copy());
+                i++;
+            } else if (i >= a.count || a.highs[i] > b.highs[j]) {
+                result.append(b.highs[j], b.containers[j].copy());
+                j++;
+            } else {
+                result.append(a.highs[i], a.containers[i].or(b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /* a 에는 있고 b 에는 없는 값 (a AND NOT b) */
+    public static CompressedBitmap andNot(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap();
+        int j = 0;
+        for (int i = 0; i < a.count; i++) {
+            while (j < b.count && b.highs[j] < a.highs[i]) {
+                j++;
+            }
+            Container c = j < b.count && b.highs[j] == a.highs[i]
+                    ? a.containers[i].andNot(b.containers[j])
+                    : a.containers[i].copy();
+            if (c.cardinality() > 0) {
+                result.append(a.highs[i], c);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompressedBitmap other) || count != other.count) {
+            return false;
+        }
+        return Arrays.equals(toArray(), other.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private int indexOf(char high) {
+        return Arrays.binarySearch(highs, 0, count, high);
+    }
+
+    private void append(char high, Container container) {
+        insertAt(count, high, container);
+    }
+
+    private void insertAt(int i, char high, Container container) {
+        if (count == highs.length) {
+            highs = Arrays.copyOf(highs, count * 2);
+            containers = Arrays.copyOf(containers, count * 2);
+        }
+        System.arraycopy(highs, i, highs, i + 1, count - i);
+        System.arraycopy(containers, i, containers, i + 1, count - i);
+        highs[i] = high;
+        containers[i] = container;
+        count++;
+    }
+
+    private void removeAt(int i) {
+        System.arraycopy(highs, i + 1, highs, i, count - i - 1);
+        System.arraycopy(containers, i + 1, containers, i, count - i - 1);
+        containers[--count] = null;
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values are not supported: " + value);
+        }
+    }
+
+    // 하나의 청크(하위 16비트 값들)를 담는 컨테이너. 변경 연산은 표현이 바뀔수 있으므로 새 컨테이너를 반환한다.
+    private abstract static class Container {
+        abstract boolean contains(char value);
+
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract int cardinality();
+
+        abstract void forEach(int base, IntConsumer action);
+
+        abstract Container copy();
+
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container andNot(Container other);
+    }
+
+    private static final class ArrayContainer extends Container {
+        char[] values;
+        int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        Container add(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+            i = -i - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+            }
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < cardinality; i++) {
+                action.accept(base | values[i]);
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] out = new char[Math.max(cardinality, 1)];
+            int n = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    char x = values[i];
+                    char y = array.values[j];
+                    if (x < y) {
+                        i++;
+                    } else if (x > y) {
+                        j++;
+                    } else {
+                        out[n++] = x;
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        out[n++] = values[i];
+                    }
+                }
+            }
+            return new ArrayContainer(out, n);
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            if (cardinality + array.cardinality > ARRAY_MAX) {
+                return toBitmap().or(array);
+            }
+            char[] out = new char[Math.max(cardinality + array.cardinality, 1)];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < array.cardinality) {
+                if (j >= array.cardinality || (i < cardinality && values[i] < array.values[j])) {
+                    out[n++] = values[i++];
+                } else if (i >= cardinality || values[i] > array.values[j]) {
+                    out[n++] = array.values[j++];
+                } else {
+                    out[n++] = values[i++];
+                    j++;
+                }
+            }
+            return new ArrayContainer(out, n);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            char[] out = new char[Math.max(cardinality, 1)];
+            int n = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (!other.contains(values[i])) {
+                    out[n++] = values[i];
+                }
+            }
+            return new ArrayContainer(out, n);
+        }
+
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.words[values[i] >>> 6] |= 1L << values[i];
+            }
+            bitmap.cardinality = cardinality;
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        final long[] words;
+        int cardinality;
+
+        BitmapContainer() {
+            this(new long[BITMAP_WORDS], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container add(char value) {
+            long bit = 1L << value;
+            int w = value >>> 6;
+            if ((words[w] & bit) == 0) {
+                words[w] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long bit = 1L << value;
+            int w = value >>> 6;
+            if ((words[w] & bit) != 0) {
+                words[w] &= ~bit;
+                cardinality--;
+            }
+            return optimize();
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    action.accept(base | (w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            long[] out = new long[BITMAP_WORDS];
+            int card = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                out[w] = words[w] & otherWords[w];
+                card += Long.bitCount(out[w]);
+            }
+            return new BitmapContainer(out, card).optimize();
+        }
+
+        @Override
+        Container or(Container other) {
+            BitmapContainer result = (BitmapContainer) copy();
+            if (other instanceof ArrayContainer array) {
+                for (int i = 0; i < array.cardinality; i++) {
+                    result.add(array.values[i]);
+                }
+                return result;
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            int card = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                result.words[w] |= otherWords[w];
+                card += Long.bitCount(result.words[w]);
+            }
+            result.cardinality = card;
+            return result;
+        }
+
+        @Override
+        Container andNot(Container other) {
+            BitmapContainer result = (BitmapContainer) copy();
+            if (other instanceof ArrayContainer array) {
+                for (int i = 0; i < array.cardinality; i++) {
+                    char v = array.values[i];
+                    long bit = 1L << v;
+                    if ((result.words[v >>> 6] & bit) != 0) {
+                        result.words[v >>> 6] &= ~bit;
+                        result.cardinality--;
+                    }
+                }
+                return result.optimize();
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            int card = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                result.words[w] &= ~otherWords[w];
+                card += Long.bitCount(result.words[w]);
+            }
+            result.cardinality = card;
+            return result.optimize();
+        }
+
+        // 4096개 이하로 줄었으면 배열 컨테이너로 바꾼다.
+        Container optimize() {
+            if (cardinality > ARRAY_MAX) {
+                return this;
+            }
+            char[] values = new char[Math.max(cardinality, 1)];
+            int n = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    values[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, n);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.modern.datastructure;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+public class ConcurrentMultimap<K, V> {
+    /**
+     * Map<K, List<V>> + computeIfAbsent(k, n -> new ArrayList<>()).add(v) 를 대체하는 스레드 안전 멀티맵
+     *  1. 키별 추가는 ConcurrentHashMap.compute 안에서 일어난다. compute 는 해당 키가 속한 버킷만 잠그기 때문에
+     *     서로 다른 키에 대한 추가는 동시에 진행된다. (락 스트라이핑)
+     *  2. 값이 하나뿐인 키는 값을 그대로 저장한다. (ArrayList 도 배열도 만들지 않는다)
+     *     두번째 값부터는 작은 Object[] 에 이어붙이고 꽉 차면 1.5배로 늘린다. 키 하나당 ArrayList(객체 + 기본 10칸 배열)보다 작다.
+     *  3. get 은 복사하지 않는 읽기 전용 List 뷰를 반환한다. 값은 뒤에 이어붙이기만 하고 이미 쓴 칸은 덮어쓰지 않기 때문에
+     *     뷰를 만든 순간의 (배열, 크기)를 잡아두면 그 뒤에 추가가 일어나도 뷰의 내용은 변하지 않는다.
+     *     (값 삭제는 새 배열을 만들어 교체하므로 이미 만든 뷰에는 영향이 없다)
+     *
+     *  ● null 키와 null 값은 허용하지 않는다. (ConcurrentHashMap 과 동일)
+     * */
+
+    private final ConcurrentHashMap<K, Object> map;
+
+    public ConcurrentMultimap() {
+        this.map = new ConcurrentHashMap<>();
+    }
+
+    public ConcurrentMultimap(int expectedKeys) {
+        this.map = new ConcurrentHashMap<>(expectedKeys);
+    }
+
+    public void put(K key, V value) {
+        Objects.requireNonNull(value, "value");
+        map.compute(key, (k, current) -> {
+            if (current == null) {
+                return value;
+            }
+            if (current instanceof Values<?> values) {
+                values.append(value);
+                return values;
+            }
+            return new Values<>(current, value);
+        });
+    }
+
+    /**
+     * 여러 값을 한번의 compute(한번의 버킷 락)로 추가한다.
+     * 값은 compute 전에 배열로 복사하면서 null 검사를 끝낸다. 그래서 null 이 섞여 있으면 아무 값도 추가되지 않고,
+     * 호출자의 Iterable 코드가 버킷 락을 잡은 채로 실행되지도 않는다.
+     * */
+    public void putAll(K key, Iterable<? extends V> values) {
+        Object[] added = toArray(values);
+        if (added.length == 0) {
+            return;
+        }
+        map.compute(key, (k, current) -> {
+            if (current == null) {
+                return added.length == 1 ? added[0] : new Values<>(added);
+            }
+            if (current instanceof Values<?> vs) {
+                vs.appendAll(added);
+                return vs;
+            }
+            Object[] all = new Object[added.length + 1];
+            all[0] = current;
+            System.arraycopy(added, 0, all, 1, added.length);
+            return new Values<>(all);
+        });
+    }
+
+    public void putAll(Map<? extends K, ? extends Iterable<? extends V>> entries) {
+        entries.forEach(this::putAll);
+    }
+
+    /* 키에 연결된 값들의 읽기 전용 뷰. 값이 없으면 빈 리스트 */
+    public List<V> get(K key) {
+        return view(map.get(key));
+    }
+
+    public boolean containsKey(K key) {
+        return map.containsKey(key);
+    }
+
+    /* key 에 연결된 값 중 value 하나를 삭제한다. */
+    public boolean remove(K key, V value) {
+        boolean[] removed = new boolean[1];
+        map.computeIfPresent(key, (k, current) -> {
+            if (current instanceof Values<?> values) {
+                Object[] remaining = values.without(value);
+                removed[0] = remaining != null;
+                if (remaining == null) {
+                    return values;
+                }
+                return remaining.length == 1 ? remaining[0] : new Values<>(remaining);
+            }
+            if (current.equals(value)) {
+                removed[0] = true;
+                return null;
+            }
+            return current;
+        });
+        return removed[0];
+    }
+
+    /* 키와 키에 연결된 모든 값을 삭제하고 삭제된 값들을 반환한다. */
+    public List<V> removeAll(K key) {
+        return view(map.remove(key));
+    }
+
+    /* 키의 개수 */
+    public int keyCount() {
+        return map.size();
+    }
+
+    /* 전체 값의 개수. 키 수에 비례하는 시간이 걸린다. */
+    public long size() {
+        long size = 0;
+        for (Object current : map.values()) {
+            size += current instanceof Values<?> values ? values.size : 1;
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    public void clear() {
+        map.clear();
+    }
+
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(map.keySet());
+    }
+
+    public void forEach(BiConsumer<? super K, ? super List<V>> action) {
+        map.forEach((key, current) -> action.accept(key, view(current)));
+    }
+
+    /* Map<K, List<V>> 형태의 읽기 전용 뷰. 항목을 순회할때 값 뷰를 만들 뿐 복사하지 않는다. */
+    public Map<K, List<V>> asMap() {
+        return new AbstractMap<>() {
+            @Override
+            public Set<Entry<K, List<V>>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<K, List<V>>> iterator() {
+                        Iterator<Entry<K, Object>> delegate = map.entrySet().iterator();
+                        return new Iterator<>() {
+                            @Override
+                            public boolean hasNext() {
+                                return delegate.hasNext();
+                            }
+
+                            @Override
+                            public Entry<K, List<V>> next() {
+                                Entry<K, Object> entry = delegate.next();
+                                return new SimpleImmutableEntry<>(entry.getKey(), view(entry.getValue()));
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return map.size();
+                    }
+                };
+            }
+
+            @Override
+            public List<V> get(Object key) {
+                Object current = map.get(key);
+                return current == null ? null : view(current);
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return map.containsKey(key);
+            }
+
+            @Override
+            public int size() {
+                return map.size();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return asMap().toString();
+    }
+
+    // 호출자와 공유하지 않는 새 배열 (Collection.toArray 는 항상 새 배열을 반환한다)
+    private static Object[] toArray(Iterable<?> values) {
+        Object[] array;
+        if (values instanceof Collection<?> collection) {
+            array = collection.toArray();
+        } else {
+            List<Object> list = new ArrayList<>();
+            values.forEach(list::add);
+            array = list.toArray();
+        }
+        for (Object value : array) {
+            Objects.requireNonNull(value, "value");
+        }
+        return array;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<V> view(Object current) {
+        if (current == null) {
+            return Collections.emptyList();
+        }
+        if (current instanceof Values<?> values) {
+            // size 를 먼저 읽고 elements 를 읽는다. 둘 다 volatile 이라 그 사이에 배열이 늘어나 새 배열을 읽더라도
+            // 새 배열은 앞의 size 칸을 복사한 뒤에 공개되었으므로 [0, size) 는 항상 채워져 있다.
+            int size = values.size;
+            return new ValuesView<>(values.elements, size);
+        }
+        return Collections.singletonList((V) current);
+    }
+
+    // 값이 두개 이상인 키의 저장소. append 는 항상 compute 안(버킷 락)에서만 호출된다.
+    // 쓰기 순서 : (늘릴때) 복사한 배열을 elements 에 공개 -> 새 칸 쓰기 -> size 공개
+    private static final class Values<V> {
+        volatile Object[] elements;
+        volatile int size;
+
+        Values(Object first, Object second) {
+            this.elements = new Object[]{first, second};
+            this.size = 2;
+        }
+
+        Values(Object[] elements) {
+            this.elements = elements;
+            this.size = elements.length;
+        }
+
+        void append(Object value) {
+            int n = size;
+            Object[] array = elements;
+            if (n == array.length) {
+                array = Arrays.copyOf(array, n + (n >> 1) + 1);
+                elements = array;
+            }
+            array[n] = value;
+            size = n + 1; // volatile 쓰기로 새 칸을 공개한다.
+        }
+
+        void appendAll(Object[] values) {
+            int n = size;
+            int required = n + values.length;
+            Object[] array = elements;
+            if (required > array.length) {
+                array = Arrays.copyOf(array, Math.max(required, n + (n >> 1) + 1));
+                elements = array;
+            }
+            System.arraycopy(values, 0, array, n, values.length);
+            size = required;
+        }
+
+        // value 를 하나 뺀 새 배열. 없으면 null
+        Object[] without(Object value) {
+            int n = size;
+            Object[] array = elements;
+            for (int i = 0; i < n; i++) {
+                if (array[i].equals(value)) {
+                    Object[] remaining = new Object[n - 1];
+                    System.arraycopy(array, 0, remaining, 0, i);
+                    System.arraycopy(array, i + 1, remaining, i, n - i - 1);
+                    return remaining;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class ValuesView<V> extends AbstractList<V> implements RandomAccess {
+        private final Object[] elements;
+        private final int size;
+
+        ValuesView(Object[] elements, int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V get(int index) {
+            Objects.checkIndex(index, size);
+            return (V) elements[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
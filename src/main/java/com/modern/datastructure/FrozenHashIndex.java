@@ -0,0 +1,125 @@
+package com.modern.datastructure;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+final class FrozenHashIndex {
+    /**
+     * FrozenSet / FrozenMap 이 같이 쓰는 읽기 전용 해시 색인
+     *  키를 (섞은) 해시 순서로 정렬한 배열에 담고, 해시 상위 비트로 나눈 버킷의 시작 위치(offsets)를 따로 둔다.
+     *  버킷 수는 키 수의 1/2 ~ 1 배인 2의 거듭제곱이라 버킷 하나에 평균 1~2개의 키가 들어간다.
+     *
+     *  ● 조회 = 버킷 위치 2개 읽기 + 그 구간의 int 해시 비교 + 해시가 같을때만 equals
+     *  ● 키 하나당 참조 1개 + int 해시 1개 + 버킷 오프셋 1개 이하 (HashMap.Node 같은 객체가 없다)
+     *  ● 정렬은 (해시, 원래 위치)를 long 하나로 묶어 기본형 배열 정렬로 한다.
+     *  ● FrozenMap 의 값은 키와 같은 위치의 values 배열에 둔다. (FrozenSet 은 values 가 null)
+     * */
+
+    final Object[] keys;
+    final Object[] values;
+    final int[] hashes;
+    final int[] offsets;
+    final int shift;
+
+    private FrozenHashIndex(Object[] keys, Object[] values, int[] hashes, int[] offsets, int shift) {
+        this.keys = keys;
+        this.values = values;
+        this.hashes = hashes;
+        this.offsets = offsets;
+        this.shift = shift;
+    }
+
+    /**
+     * sourceValues 는 null 이거나 source 와 같은 길이다. (i 번째 키의 값 = sourceValues[i])
+     * 키나 값이 null 이면 NullPointerException
+     * 같은 키가 여러번 있으면 rejectDuplicates 가 true 일때 IllegalArgumentException, 아니면 처음 것만 남긴다.
+     * */
+    static FrozenHashIndex build(Object[] source, Object[] sourceValues, boolean rejectDuplicates) {
+        int n = source.length;
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            int h = hash(Objects.requireNonNull(source[i], "key"));
+            // 부호 비트를 뒤집어서 long 정렬이 부호 없는 해시 순서(= 버킷 순서)가 되도록 한다. 같은 해시면 원래 순서
+            packed[i] = ((h ^ Integer.MIN_VALUE) & 0xFFFF_FFFFL) << 32 | i;
+        }
+        Arrays.sort(packed);
+
+        Object[] keys = new Object[n];
+        Object[] values = sourceValues == null ? null : new Object[n];
+        int[] hashes = new int[n];
+        int size = 0;
+        int runStart = 0; // 같은 해시를 가진 구간의 시작 (중복 확인용)
+        for (long p : packed) {
+            int h = (int) (p >>> 32) ^ Integer.MIN_VALUE;
+            int index = (int) p;
+            Object key = source[index];
+            if (size > 0 && hashes[size - 1] != h) {
+                runStart = size;
+            }
+            if (containsInRun(keys, runStart, size, key)) {
+                if (rejectDuplicates) {
+                    throw new IllegalArgumentException("duplicate key: " + key);
+                }
+                continue;
+            }
+            keys[size] = key;
+            hashes[size] = h;
+            if (values != null) {
+                values[size] = Objects.requireNonNull(sourceValues[index], "value");
+            }
+            size++;
+        }
+        if (size < n) {
+            keys = Arrays.copyOf(keys, size);
+            hashes = Arrays.copyOf(hashes, size);
+            values = values == null ? null : Arrays.copyOf(values, size);
+        }
+
+        // 버킷 수는 size/2 이상 size 미만 -> 버킷당 평균 1~2개. 같은 버킷의 해시는 붙어있어서 캐시 라인 하나로 비교된다.
+        int bits = Math.max(1, 31 - Integer.numberOfLeadingZeros(Math.max(1, size - 1)));
+        int shift = 32 - bits;
+        int[] offsets = new int[(1 << bits) + 1];
+        for (int h : hashes) {
+            offsets[(h >>> shift) + 1]++;
+        }
+        for (int b = 1; b < offsets.length; b++) {
+            offsets[b] += offsets[b - 1];
+        }
+        return new FrozenHashIndex(keys, values, hashes, offsets, shift);
+    }
+
+    /* 키의 위치 (없으면 -1) */
+    int indexOf(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        int h = hash(key);
+        int b = h >>> shift;
+        int[] hashes = this.hashes;
+        for (int i = offsets[b], end = offsets[b + 1]; i < end; i++) {
+            if (hashes[i] == h && keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    // 상위 비트로 버킷을 고르므로 hashCode 의 하위 비트 차이를 상위 비트까지 퍼뜨린다. (피보나치 해싱)
+    static int hash(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) * 0x9E3779B9;
+    }
+
+    private static boolean containsInRun(Object[] keys, int from, int to, Object key) {
+        for (int i = from; i < to; i++) {
+            if (keys[i].equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
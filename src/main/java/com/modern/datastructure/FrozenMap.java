@@ -0,0 +1,156 @@
+package com.modern.datastructure;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+public final class FrozenMap<K, V> extends AbstractMap<K, V> {
+    /**
+     * 만든 뒤 바뀌지 않는 상수 조회용 Map (FrozenHashIndex + 값 배열)
+     *  Map.ofEntries / HashMap 대신 수십만개 항목의 조회 테이블을 적은 메모리로 들고 있을때 쓴다.
+     *  키는 FrozenSet 과 같은 해시 정렬 배열에 있고 값은 같은 위치의 Object[] 에 있다. 항목(Entry) 객체를 따로 만들지 않는다.
+     *
+     *  ● Map.ofEntries 처럼 null 키/값은 허용하지 않고, 같은 키가 두번 나오면 IllegalArgumentException 이다.
+     *  ● put / remove 는 UnsupportedOperationException 이다.
+     *  ● entrySet() 을 순회할때만 Entry 를 만든다. 전체를 볼때는 forEach(BiConsumer) 가 할당이 없다.
+     * */
+
+    private static final FrozenMap<Object, Object> EMPTY = new FrozenMap<>(new Object[0], new Object[0]);
+
+    private final FrozenHashIndex index;
+    private final Object[] values;
+    private Set<Entry<K, V>> entrySet;
+
+    private FrozenMap(Object[] keys, Object[] values) {
+        this.index = FrozenHashIndex.build(keys, values, true);
+        this.values = index.values;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> FrozenMap<K, V> of() {
+        return (FrozenMap<K, V>) EMPTY;
+    }
+
+    @SafeVarargs
+    public static <K, V> FrozenMap<K, V> ofEntries(Entry<? extends K, ? extends V>... entries) {
+        Object[] keys = new Object[entries.length];
+        Object[] values = new Object[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            keys[i] = entries[i].getKey();
+            values[i] = entries[i].getValue();
+        }
+        return new FrozenMap<>(keys, values);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> FrozenMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+        if (map instanceof FrozenMap<?, ?> frozen) {
+            return (FrozenMap<K, V>) frozen;
+        }
+        Object[] keys = new Object[map.size()];
+        Object[] values = new Object[keys.length];
+        int i = 0;
+        for (Entry<? extends K, ? extends V> e : map.entrySet()) {
+            keys[i] = e.getKey();
+            values[i++] = e.getValue();
+        }
+        return new FrozenMap<>(keys, values);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int i = index.indexOf(key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(Object key, V defaultValue) {
+        int i = index.indexOf(key);
+        return i < 0 ? defaultValue : (V) values[i];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return index.indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (Object v : values) {
+            if (v.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action, "action");
+        Object[] keys = index.keys;
+        for (int i = 0; i < keys.length; i++) {
+            action.accept((K) keys[i], (V) values[i]);
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        Set<Entry<K, V>> es = entrySet;
+        if (es == null) {
+            es = new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return values.length;
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    if (!(o instanceof Entry<?, ?> e)) {
+                        return false;
+                    }
+                    int i = index.indexOf(e.getKey());
+                    return i >= 0 && values[i].equals(e.getValue());
+                }
+            };
+            entrySet = es;
+        }
+        return es;
+    }
+
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+        private int next;
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<K, V> next() {
+            if (next >= values.length) {
+                throw new NoSuchElementException();
+            }
+            int i = next++;
+            return new SimpleImmutableEntry<>((K) index.keys[i], (V) values[i]);
+        }
+    }
+}
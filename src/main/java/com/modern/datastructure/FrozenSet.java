@@ -0,0 +1,125 @@
+package com.modern.datastructure;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+public final class FrozenSet<E> extends AbstractSet<E> {
+    /**
+     * 만든 뒤 바뀌지 않는 상수 조회용 Set (FrozenHashIndex)
+     *  new HashSet<>(Arrays.asList(...)) 는 요소마다 HashMap.Node(32 바이트 안팎)를 만들고,
+     *  Set.of 는 요소가 많아지면 선형 탐사 구간이 길어지고 탐사마다 equals 를 호출한다.
+     *  이 Set 은 해시 순으로 정렬한 배열 + int 해시 캐시 + 버킷 오프셋만 사용하고, 해시가 같을때만 equals 를 호출한다.
+     *
+     *  ● Set.of 처럼 null 요소는 허용하지 않고 add / remove 는 UnsupportedOperationException 이다.
+     *  ● copyOf 는 Set.copyOf 처럼 중복을 조용히 없애고, of 는 Set.of 처럼 중복이면 IllegalArgumentException 이다.
+     *  ● 순회 순서는 해시 순서다. (정해지지 않은 순서로 본다)
+     * */
+
+    private static final FrozenSet<Object> EMPTY = new FrozenSet<>(FrozenHashIndex.build(new Object[0], null, true));
+
+    private final FrozenHashIndex index;
+    private int hashCode; // 0 이면 아직 계산하지 않음 (String.hashCode 와 같은 방식)
+
+    private FrozenSet(FrozenHashIndex index) {
+        this.index = index;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> FrozenSet<E> of() {
+        return (FrozenSet<E>) EMPTY;
+    }
+
+    @SafeVarargs
+    public static <E> FrozenSet<E> of(E... elements) {
+        // 요소만 읽어서 Object[] 로 옮긴다. 배열 자체(실제 타입이 E[] 의 하위 타입일수 있다)는 밖으로 넘기지 않는다.
+        Object[] copy = new Object[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            copy[i] = elements[i];
+        }
+        return new FrozenSet<>(FrozenHashIndex.build(copy, null, true));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> FrozenSet<E> copyOf(Collection<? extends E> elements) {
+        if (elements instanceof FrozenSet<?> frozen) {
+            return (FrozenSet<E>) frozen;
+        }
+        return new FrozenSet<>(FrozenHashIndex.build(elements.toArray(), null, false));
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return index.indexOf(o) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < index.keys.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (next >= index.keys.length) {
+                    throw new NoSuchElementException();
+                }
+                return (E) index.keys[next++];
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action, "action");
+        for (Object key : index.keys) {
+            action.accept((E) key);
+        }
+    }
+
+    @Override
+    public Object[] toArray() {
+        return index.keys.clone();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(T[] a) {
+        int size = index.keys.length;
+        if (a.length < size) {
+            return (T[]) Arrays.copyOf(index.keys, size, a.getClass());
+        }
+        System.arraycopy(index.keys, 0, a, 0, size);
+        if (a.length > size) {
+            a[size] = null;
+        }
+        return a;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hashCode;
+        if (h == 0) {
+            for (Object key : index.keys) {
+                h += key.hashCode();
+            }
+            hashCode = h;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,206 @@
+package com.modern.datastructure;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+
+public class LongCounterMap {
+    /**
+     * String -> long 전용 카운터 맵 (오픈 어드레싱)
+     *  Map<String, Long>.merge(key, 1L, Long::sum) 은 증가할때마다 Long 을 박싱하고 새 항목이면 HashMap.Node 도 만든다.
+     *  이 클래스는 키(String[]), 값(long[]), 키 해시(int[]) 세 배열만 사용하고 선형 탐사(linear probing)로 충돌을 해결한다.
+     *  그래서 이미 있는 키에 대한 increment / addTo / get 은 객체를 하나도 만들지 않는다.
+     *
+     *  ● 값이 없는 키의 get 은 0 을 반환한다. (카운터이므로 getOrDefault(key, 0L) 과 같다)
+     *  ● null 키는 허용하지 않는다.
+     *  ● 스레드 안전하지 않다. 여러 스레드에서 세려면 StripedLongCounterMap 을 사용한다.
+     * */
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private String[] keys;
+    private long[] values;
+    private int[] hashes;
+    private int size;
+    private int mask;
+    private int resizeThreshold;
+
+    public LongCounterMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongCounterMap(int expectedSize) {
+        int capacity = tableSizeFor(Math.max(expectedSize, 1));
+        allocate(capacity);
+    }
+
+    public long increment(String key) {
+        return addTo(key, 1L);
+    }
+
+    /* key 의 값에 delta 를 더하고 더한 결과를 반환한다. 없던 키는 0 에서 시작한다. */
+    public long addTo(String key, long delta) {
+        int h = hash(key);
+        int i = h & mask;
+        String k;
+        while ((k = keys[i]) != null) {
+            if (hashes[i] == h && k.equals(key)) {
+                return values[i] += delta;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        hashes[i] = h;
+        values[i] = delta;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+        return delta;
+    }
+
+    public long get(String key) {
+        int i = indexOf(key);
+        return i < 0 ? 0L : values[i];
+    }
+
+    public boolean containsKey(String key) {
+        return indexOf(key) >= 0;
+    }
+
+    /* 삭제된 키의 값을 반환한다. (없으면 0) */
+    public long remove(String key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return 0L;
+        }
+        long removed = values[i];
+        shiftBack(i);
+        size--;
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, 0L);
+        size = 0;
+    }
+
+    /* 박싱 없이 (키, long 값)을 순회한다. 순서는 보장하지 않는다. */
+    public void forEach(ObjLongConsumer<String> action) {
+        String[] ks = keys;
+        for (int i = 0; i < ks.length; i++) {
+            if (ks[i] != null) {
+                action.accept(ks[i], values[i]);
+            }
+        }
+    }
+
+    /* other 의 값을 모두 더한다. (StripedLongCounterMap 이 스트라이프를 합칠때 사용) */
+    public void addAll(LongCounterMap other) {
+        other.forEach(this::addTo);
+    }
+
+    public Map<String, Long> toMap() {
+        Map<String, Long> map = new HashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+        forEach(map::put);
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((k, v) -> {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(k).append('=').append(v);
+        });
+        return sb.append('}').toString();
+    }
+
+    private int indexOf(String key) {
+        int h = hash(key);
+        int i = h & mask;
+        String k;
+        while ((k = keys[i]) != null) {
+            if (hashes[i] == h && k.equals(key)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    // 선형 탐사에서 삭제할때는 빈칸(tombstone)을 남기지 않고 뒤에 있는 항목들을 앞으로 당긴다.
+    private void shiftBack(int hole) {
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            String k = keys[i];
+            if (k == null) {
+                break;
+            }
+            int home = hashes[i] & mask;
+            // home 이 (hole, i] 구간 밖이면 i 의 항목을 hole 로 옮겨도 탐사 경로가 끊기지 않는다.
+            boolean movable = hole <= i ? (home <= hole || home > i) : (home <= hole && home > i);
+            if (movable) {
+                keys[hole] = k;
+                values[hole] = values[i];
+                hashes[hole] = hashes[i];
+                hole = i;
+            }
+        }
+        keys[hole] = null;
+        values[hole] = 0L;
+    }
+
+    private void rehash(int newCapacity) {
+        String[] oldKeys = keys;
+        long[] oldValues = values;
+        int[] oldHashes = hashes;
+        allocate(newCapacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != null) {
+                int i = oldHashes[j] & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+                hashes[i] = oldHashes[j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        values = new long[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    // String.hashCode 는 String 안에 캐시되므로 여기서는 상위비트만 섞어준다.
+    private static int hash(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        long needed = (long) Math.ceil(expectedSize / (double) LOAD_FACTOR) + 1;
+        if (needed > 1 << 30) {
+            throw new IllegalArgumentException("expectedSize too large: " + expectedSize);
+        }
+        return Math.max(DEFAULT_CAPACITY, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+}
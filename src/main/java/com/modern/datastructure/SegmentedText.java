@@ -0,0 +1,261 @@
+package com.modern.datastructure;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+public class SegmentedText implements CharSequence {
+    /**
+     * 조각(segment)들로 이루어진 텍스트 (piece table)
+     *  "머리말" + text, text.replaceAll(...) 처럼 String 을 고치면 단계마다 문서 전체가 복사된다.
+     *  단계가 N 개면 복사량과 가비지가 N x 문서 크기가 된다.
+     *
+     *  SegmentedText 는 텍스트를 (원본 String, 시작, 끝) 조각의 목록으로 가진다.
+     *  ● prepend / append : 조각을 하나 추가한다. 문서는 복사하지 않는다.
+     *  ● replace(target, replacement) : 리터럴 치환 (String.replace 와 같다. 정규식 아님)
+     *    일치한 곳을 기준으로 기존 조각을 잘라(원본은 그대로 공유) 사이에 replacement 조각을 끼운다.
+     *    일치가 조각 경계에 걸쳐 있어도 찾는다.
+     *  ● toString() 은 마지막에 정확한 크기로 한번만 String 을 만든다. (다시 고치기 전까지 캐시)
+     *  ● 같은 원본에서 이어지는 조각은 하나로 합친다.
+     *
+     *  조각의 원본은 String 만 받는다. (불변이므로 복사하지 않고 공유해도 안전하다)
+     *  스레드 안전하지 않다.
+     * */
+
+    private String[] sources;
+    private int[] starts;
+    private int[] ends;
+    private int count;
+    private int length;
+
+    private int[] offsets; // charAt 용 조각별 시작 위치 (고칠때마다 버린다)
+    private String flattened;
+
+    public SegmentedText() {
+        this(8);
+    }
+
+    public SegmentedText(String text) {
+        this(8);
+        Objects.requireNonNull(text, "text");
+        if (!text.isEmpty()) { // 재정의할수 있는 append 대신 private add 로 첫 조각을 넣는다.
+            add(text, 0, text.length());
+        }
+    }
+
+    private SegmentedText(int capacity) {
+        sources = new String[capacity];
+        starts = new int[capacity];
+        ends = new int[capacity];
+    }
+
+    public SegmentedText prepend(String text) {
+        Objects.requireNonNull(text, "text");
+        if (text.isEmpty()) {
+            return this;
+        }
+        ensureCapacity(count + 1);
+        System.arraycopy(sources, 0, sources, 1, count);
+        System.arraycopy(starts, 0, starts, 1, count);
+        System.arraycopy(ends, 0, ends, 1, count);
+        sources[0] = text;
+        starts[0] = 0;
+        ends[0] = text.length();
+        count++;
+        length += text.length();
+        changed();
+        return this;
+    }
+
+    public SegmentedText append(String text) {
+        Objects.requireNonNull(text, "text");
+        if (!text.isEmpty()) {
+            add(text, 0, text.length());
+            changed();
+        }
+        return this;
+    }
+
+    /**
+     * target 을 왼쪽부터 겹치지 않게 찾아 모두 replacement 로 바꾸고 바꾼 횟수를 반환한다.
+     * 문자는 복사하지 않고 조각 목록만 새로 만든다. (일치가 없으면 아무것도 바꾸지 않는다)
+     * */
+    public int replace(String target, String replacement) {
+        if (target == null || target.isEmpty()) {
+            throw new IllegalArgumentException("target must not be empty");
+        }
+        Objects.requireNonNull(replacement, "replacement");
+        if (length < target.length()) {
+            return 0;
+        }
+        SegmentedText out = null;
+        char first = target.charAt(0);
+        int seg = 0;
+        int off = starts[0];
+        int keepSeg = 0; // 아직 out 에 옮기지 않은 구간의 시작
+        int keepOff = off;
+        int replaced = 0;
+        while (seg < count) {
+            if (off == ends[seg]) {
+                if (++seg < count) {
+                    off = starts[seg];
+                }
+                continue;
+            }
+            if (sources[seg].charAt(off) != first || !matchesAt(seg, off, target)) {
+                off++;
+                continue;
+            }
+            if (out == null) {
+                out = new SegmentedText(count + 8);
+            }
+            out.copyFrom(this, keepSeg, keepOff, seg, off);
+            if (!replacement.isEmpty()) {
+                out.add(replacement, 0, replacement.length());
+            }
+            // target 길이만큼 커서를 옮긴다. (조각 경계를 넘을 수 있다)
+            int remaining = target.length();
+            while (true) {
+                int take = Math.min(remaining, ends[seg] - off);
+                off += take;
+                remaining -= take;
+                if (remaining == 0) {
+                    break;
+                }
+                off = starts[++seg];
+            }
+            keepSeg = seg;
+            keepOff = off;
+            replaced++;
+        }
+        if (replaced == 0) {
+            return 0;
+        }
+        out.copyFrom(this, keepSeg, keepOff, count, 0);
+        sources = out.sources;
+        starts = out.starts;
+        ends = out.ends;
+        count = out.count;
+        length = out.length;
+        changed();
+        return replaced;
+    }
+
+    public int segmentCount() {
+        return count;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        int seg = segmentAt(index);
+        return sources[seg].charAt(starts[seg] + index - offsets[seg]);
+    }
+
+    /* 조각만 잘라낸 SegmentedText (문자는 복사하지 않는다) */
+    @Override
+    public SegmentedText subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        SegmentedText sub = new SegmentedText();
+        if (start == end) {
+            return sub;
+        }
+        int seg = segmentAt(start);
+        int pos = offsets[seg];
+        for (; seg < count && pos < end; seg++) {
+            int segLength = ends[seg] - starts[seg];
+            int from = Math.max(start, pos) - pos;
+            int to = Math.min(end, pos + segLength) - pos;
+            sub.add(sources[seg], starts[seg] + from, starts[seg] + to);
+            pos += segLength;
+        }
+        return sub;
+    }
+
+    @Override
+    public String toString() {
+        if (flattened == null) {
+            StringBuilder sb = new StringBuilder(length);
+            for (int i = 0; i < count; i++) {
+                sb.append(sources[i], starts[i], ends[i]);
+            }
+            flattened = sb.toString();
+        }
+        return flattened;
+    }
+
+    private boolean matchesAt(int seg, int off, String target) {
+        for (int i = 0; i < target.length(); i++) {
+            while (off == ends[seg]) {
+                if (++seg == count) {
+                    return false;
+                }
+                off = starts[seg];
+            }
+            if (sources[seg].charAt(off++) != target.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // other 의 (fromSeg, fromOff) 부터 (toSeg, toOff) 직전까지를 조각으로 옮긴다. toSeg == other.count 면 끝까지
+    private void copyFrom(SegmentedText other, int fromSeg, int fromOff, int toSeg, int toOff) {
+        for (int s = fromSeg; s <= toSeg && s < other.count; s++) {
+            int a = s == fromSeg ? fromOff : other.starts[s];
+            int b = s == toSeg ? toOff : other.ends[s];
+            if (a < b) {
+                add(other.sources[s], a, b);
+            }
+        }
+    }
+
+    private void add(String source, int start, int end) {
+        int last = count - 1;
+        if (last >= 0 && sources[last] == source && ends[last] == start) { // 이어지는 조각은 합친다.
+            ends[last] = end;
+        } else {
+            ensureCapacity(count + 1);
+            sources[count] = source;
+            starts[count] = start;
+            ends[count] = end;
+            count++;
+        }
+        length += end - start;
+    }
+
+    private int segmentAt(int index) {
+        if (offsets == null) {
+            offsets = new int[count];
+            int pos = 0;
+            for (int i = 0; i < count; i++) {
+                offsets[i] = pos;
+                pos += ends[i] - starts[i];
+            }
+        }
+        int i = Arrays.binarySearch(offsets, index);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    private void changed() {
+        offsets = null;
+        flattened = null;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > sources.length) {
+            int newCapacity = Math.max(capacity, sources.length << 1);
+            sources = Arrays.copyOf(sources, newCapacity);
+            starts = Arrays.copyOf(starts, newCapacity);
+            ends = Arrays.copyOf(ends, newCapacity);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.modern.datastructure;
+
+import java.util.function.ObjLongConsumer;
+
+public class StripedLongCounterMap {
+    /**
+     * 여러 스레드가 동시에 세는 String -> long 카운터 맵
+     *  LongAdder 가 하나의 long 을 여러 셀(cell)로 나눠 각 스레드가 다른 셀을 증가시키는 것처럼
+     *  맵 전체를 여러 스트라이프(LongCounterMap)로 나누고 스레드마다 정해진 스트라이프에만 쓴다.
+     *  그래서 스레드끼리 같은 락이나 같은 캐시라인을 두고 다투는 일이 거의 없다.
+     *
+     *  ● 쓰기(increment / addTo) : 현재 스레드의 스트라이프 하나만 잠근다. 경합이 없으면 락 비용은 매우 작다.
+     *  ● 읽기(get / forEach / snapshot) : 모든 스트라이프의 값을 더한다. 읽기가 쓰기보다 드문 집계 용도에 맞다.
+     *  ● LongAdder.sum 과 마찬가지로 쓰기와 동시에 읽으면 그 순간의 정확한 스냅샷은 아니다.
+     * */
+
+    private final LongCounterMap[] stripes;
+    private final int mask;
+
+    public StripedLongCounterMap() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public StripedLongCounterMap(int stripeCount) {
+        int n = Integer.highestOneBit(Math.max(1, Math.min(stripeCount, 1 << 12)) * 2 - 1);
+        this.stripes = new LongCounterMap[n];
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new LongCounterMap();
+        }
+        this.mask = n - 1;
+    }
+
+    public long increment(String key) {
+        return addTo(key, 1L);
+    }
+
+    /* 현재 스레드 스트라이프의 값에 더한다. 반환값은 그 스트라이프의 부분합이다. */
+    public long addTo(String key, long delta) {
+        LongCounterMap stripe = stripeForCurrentThread();
+        synchronized (stripe) {
+            return stripe.addTo(key, delta);
+        }
+    }
+
+    public long get(String key) {
+        long sum = 0;
+        for (LongCounterMap stripe : stripes) {
+            synchronized (stripe) {
+                sum += stripe.get(key);
+            }
+        }
+        return sum;
+    }
+
+    /* 모든 스트라이프를 하나의 LongCounterMap 으로 합친다. */
+    public LongCounterMap snapshot() {
+        LongCounterMap merged = new LongCounterMap();
+        for (LongCounterMap stripe : stripes) {
+            synchronized (stripe) {
+                merged.addAll(stripe);
+            }
+        }
+        return merged;
+    }
+
+    public void forEach(ObjLongConsumer<String> action) {
+        snapshot().forEach(action);
+    }
+
+    public void clear() {
+        for (LongCounterMap stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    private LongCounterMap stripeForCurrentThread() {
+        long id = Thread.currentThread().threadId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+}
@@ -0,0 +1,245 @@
+package com.modern.dto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DishTable {
+    /**
+     * Dish 목록을 열(column) 단위 배열로 저장하는 테이블 (struct-of-arrays)
+     *  List<Dish> 는 요리마다 객체 하나 + String 참조를 가지고 스트림은 요소마다 포인터를 따라가야 한다.
+     *  DishTable 은 같은 속성끼리 배열에 모아 필터와 집계가 배열을 순서대로 훑기만 하면 되도록 한다.
+     *
+     *  ● calories : int[]
+     *  ● vegetarian : BitSet (요리 하나당 1비트)
+     *  ● type : byte[] (Dish.Type 의 ordinal)
+     *  ● name : 사전(dictionary) 인코딩. 서로 다른 이름은 한번만 저장하고 각 행은 int 코드만 가진다.
+     *
+     *  각 요리는 추가된 순서대로 0 부터 시작하는 id 를 가진다. (DishTagIndex 가 이 id 를 사용한다)
+     *  스레드 안전하지 않다. 다 채운 뒤 여러 스레드에서 읽기만 하는것은 괜찮다.
+     * */
+
+    private static final Dish.Type[] TYPES = Dish.Type.values();
+
+    private int size;
+    private int[] calories;
+    private byte[] types;
+    private int[] nameCodes;
+    private final BitSet vegetarian = new BitSet();
+
+    private final List<String> dictionary = new ArrayList<>();
+    private final Map<String, Integer> dictionaryIndex = new HashMap<>();
+
+    public DishTable() {
+        this(16);
+    }
+
+    public DishTable(int expectedSize) {
+        int capacity = Math.max(expectedSize, 1);
+        this.calories = new int[capacity];
+        this.types = new byte[capacity];
+        this.nameCodes = new int[capacity];
+    }
+
+    public static DishTable of(Collection<Dish> dishes) {
+        DishTable table = new DishTable(dishes.size());
+        dishes.forEach(table::add);
+        return table;
+    }
+
+    public int add(Dish dish) {
+        return add(dish.getName(), dish.isVegetarian(), dish.getCalories(), dish.getType());
+    }
+
+    /* 추가된 요리의 id 를 반환한다. */
+    public int add(String name, boolean isVegetarian, int cal, Dish.Type type) {
+        if (size == calories.length) {
+            int capacity = calories.length + (calories.length >> 1) + 1;
+            calories = Arrays.copyOf(calories, capacity);
+            types = Arrays.copyOf(types, capacity);
+            nameCodes = Arrays.copyOf(nameCodes, capacity);
+        }
+        int id = size++;
+        calories[id] = cal;
+        types[id] = (byte) type.ordinal();
+        nameCodes[id] = encode(name);
+        vegetarian.set(id, isVegetarian);
+        return id;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String name(int id) {
+        return dictionary.get(nameCodes[checkId(id)]);
+    }
+
+    public int calories(int id) {
+        return calories[checkId(id)];
+    }
+
+    public boolean isVegetarian(int id) {
+        return vegetarian.get(checkId(id));
+    }
+
+    public Dish.Type type(int id) {
+        return TYPES[types[checkId(id)]];
+    }
+
+    public Dish toDish(int id) {
+        return new Dish(name(id), isVegetarian(id), calories(id), type(id));
+    }
+
+    /* 서로 다른 이름의 개수 */
+    public int distinctNames() {
+        return dictionary.size();
+    }
+
+    /* calories > threshold 인 요리의 id (오름차순) */
+    public int[] idsWithCaloriesGreaterThan(int threshold) {
+        int[] cal = calories;
+        int n = size;
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (cal[i] > threshold) {
+                count++;
+            }
+        }
+        int[] ids = new int[count];
+        int j = 0;
+        for (int i = 0; i < n && j < count; i++) {
+            if (cal[i] > threshold) {
+                ids[j++] = i;
+            }
+        }
+        return ids;
+    }
+
+    /* menu.stream().filter(d -> d.getCalories() > threshold).map(Dish::getName) 과 같다. */
+    public List<String> namesWithCaloriesGreaterThan(int threshold) {
+        int[] ids = idsWithCaloriesGreaterThan(threshold);
+        List<String> names = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            names.add(dictionary.get(nameCodes[id]));
+        }
+        return names;
+    }
+
+    public long totalCalories() {
+        long sum = 0;
+        int[] cal = calories;
+        for (int i = 0; i < size; i++) {
+            sum += cal[i];
+        }
+        return sum;
+    }
+
+    /* Dish.Type ordinal 을 인덱스로 하는 칼로리 합계 */
+    public long[] sumCaloriesByTypeOrdinal() {
+        long[] sums = new long[TYPES.length];
+        int[] cal = calories;
+        byte[] t = types;
+        for (int i = 0; i < size; i++) {
+            sums[t[i]] += cal[i];
+        }
+        return sums;
+    }
+
+    public long[] countByTypeOrdinal() {
+        long[] counts = new long[TYPES.length];
+        byte[] t = types;
+        for (int i = 0; i < size; i++) {
+            counts[t[i]]++;
+        }
+        return counts;
+    }
+
+    /* groupingBy(Dish::getType, summingLong(Dish::getCalories)) 와 같다. 요리가 없는 타입은 빠진다. */
+    public Map<Dish.Type, Long> sumCaloriesByType() {
+        long[] sums = sumCaloriesByTypeOrdinal();
+        long[] counts = countByTypeOrdinal();
+        Map<Dish.Type, Long> result = new EnumMap<>(Dish.Type.class);
+        for (Dish.Type type : TYPES) {
+            if (counts[type.ordinal()] > 0) {
+                result.put(type, sums[type.ordinal()]);
+            }
+        }
+        return result;
+    }
+
+    /* groupingBy(Dish::getType, averagingInt(Dish::getCalories)) 와 같다. */
+    public Map<Dish.Type, Double> averageCaloriesByType() {
+        long[] sums = new long[TYPES.length];
+        long[] counts = new long[TYPES.length];
+        int[] cal = calories;
+        byte[] t = types;
+        for (int i = 0; i < size; i++) {
+            sums[t[i]] += cal[i];
+            counts[t[i]]++;
+        }
+        Map<Dish.Type, Double> result = new EnumMap<>(Dish.Type.class);
+        for (Dish.Type type : TYPES) {
+            long count = counts[type.ordinal()];
+            if (count > 0) {
+                result.put(type, (double) sums[type.ordinal()] / count);
+            }
+        }
+        return result;
+    }
+
+    /* 채식 요리의 id 비트셋 (복사본) */
+    public BitSet vegetarianIds() {
+        return (BitSet) vegetarian.clone();
+    }
+
+    public int vegetarianCount() {
+        return vegetarian.cardinality();
+    }
+
+    /* partitioningBy(Dish::isVegetarian, mapping(Dish::getName, toList())) 와 같다. */
+    public Map<Boolean, List<String>> partitionNamesByVegetarian() {
+        int vegetarianCount = vegetarian.cardinality();
+        List<String> veggie = new ArrayList<>(vegetarianCount);
+        List<String> others = new ArrayList<>(size - vegetarianCount);
+        for (int i = 0; i < size; i++) {
+            (vegetarian.get(i) ? veggie : others).add(dictionary.get(nameCodes[i]));
+        }
+        Map<Boolean, List<String>> result = new HashMap<>(4);
+        result.put(false, others);
+        result.put(true, veggie);
+        return result;
+    }
+
+    /* 채식 여부별 칼로리 합계. [0] = 채식 아님, [1] = 채식 */
+    public long[] sumCaloriesByVegetarian() {
+        long[] sums = new long[2];
+        int[] cal = calories;
+        for (int i = 0; i < size; i++) {
+            sums[vegetarian.get(i) ? 1 : 0] += cal[i];
+        }
+        return sums;
+    }
+
+    private int encode(String name) {
+        Integer code = dictionaryIndex.get(name);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.add(name);
+            dictionaryIndex.put(name, code);
+        }
+        return code;
+    }
+
+    private int checkId(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No dish with id " + id + ", size " + size);
+        }
+        return id;
+    }
+}
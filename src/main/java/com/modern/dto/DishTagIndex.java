@@ -0,0 +1,297 @@
+package com.modern.dto;
+
+import com.modern.datastructure.CompressedBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class DishTagIndex {
+    /**
+     * 태그 -> 요리 id 압축 비트맵 역색인(inverted index)
+     *  Dish.dishTags 는 요리 이름 -> 태그 목록이라 "salty 이면서 roasted 인 요리"를 찾으려면 모든 항목을 훑어야 한다.
+     *  태그마다 해당 태그를 가진 요리 id(DishTable 의 id)를 CompressedBitmap 으로 가지고 있으면
+     *  AND / OR / NOT 질의가 비트맵 연산 몇번으로 끝난다.
+     *
+     *  ● AND 는 카디널리티가 작은 태그부터 교집합을 구해 중간 결과를 최대한 작게 유지한다.
+     *  ● NOT 은 전체 요리 집합에서 빼는 방식이다.
+     *  ● 요리/태그가 추가되면 해당 비트맵만 갱신한다. (전체 재구성 없음)
+     *  ● 읽기는 여러 스레드에서 동시에 가능하고 갱신은 쓰기 락으로 직렬화한다.
+     *  ● 갱신할 때마다 version() 이 1씩 커진다. 질의 결과를 캐시하는 쪽(ResponseCache)은 이 값이 바뀌면 다시 계산한다.
+     *  ● 테이블은 밖으로 내주지 않는다. 테이블을 훑는 질의(select 등)는 모두 읽기 락 안에서 돈다.
+     * */
+
+    private final DishTable table;
+    private final Map<String, CompressedBitmap> postings = new HashMap<>();
+    private final CompressedBitmap allDishes = new CompressedBitmap();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile long version; // 쓰기 락 안에서만 증가시킨다.
+
+    // 테이블은 색인이 직접 만든다. 바깥에서 채운 테이블을 받으면 그 요리들의 태그가 색인되지 않는다.
+    private DishTagIndex(int expectedDishes) {
+        this.table = new DishTable(expectedDishes);
+    }
+
+    /* Dish.menu 와 Dish.dishTags 로 테이블과 색인을 함께 만든다. */
+    public static DishTagIndex of(List<Dish> menu, Map<String, List<String>> dishTags) {
+        DishTagIndex index = new DishTagIndex(menu.size());
+        for (Dish dish : menu) {
+            index.addDish(dish, dishTags.getOrDefault(dish.getName(), List.of()));
+        }
+        return index;
+    }
+
+    /**
+     * 색인이 바뀐 횟수
+     * 질의 전에 읽어둔 값과 지금 값이 같으면 그 사이에 바뀐 내용이 없다.
+     * */
+    public long version() {
+        return version;
+    }
+
+    /* 요리를 테이블에 추가하고 태그를 색인한다. 새 요리의 id 를 반환한다. */
+    public int addDish(Dish dish, Collection<String> tags) {
+        lock.writeLock().lock();
+        try {
+            int id = table.add(dish);
+            allDishes.add(id);
+            for (String tag : tags) {
+                postings.computeIfAbsent(tag, t -> new CompressedBitmap()).add(id);
+            }
+            version++;
+            return id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addTag(int dishId, String tag) {
+        lock.writeLock().lock();
+        try {
+            table.calories(dishId); // 존재하지 않는 id 면 IndexOutOfBoundsException
+            if (postings.computeIfAbsent(tag, t -> new CompressedBitmap()).add(dishId)) {
+                version++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean removeTag(int dishId, String tag) {
+        lock.writeLock().lock();
+        try {
+            CompressedBitmap bitmap = postings.get(tag);
+            if (bitmap == null || !bitmap.remove(dishId)) {
+                return false;
+            }
+            if (bitmap.isEmpty()) {
+                postings.remove(tag);
+            }
+            version++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /* 태그를 가진 요리 id (복사본) */
+    public CompressedBitmap dishesTagged(String tag) {
+        lock.readLock().lock();
+        try {
+            CompressedBitmap bitmap = postings.get(tag);
+            return bitmap == null ? new CompressedBitmap() : bitmap.copy();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* 모든 태그를 가진 요리 (AND) */
+    public CompressedBitmap allOf(String... tags) {
+        if (tags.length == 0) {
+            return all();
+        }
+        lock.readLock().lock();
+        try {
+            CompressedBitmap[] bitmaps = new CompressedBitmap[tags.length];
+            for (int i = 0; i < tags.length; i++) {
+                bitmaps[i] = postings.get(tags[i]);
+                if (bitmaps[i] == null) {
+                    return new CompressedBitmap();
+                }
+            }
+            Arrays.sort(bitmaps, Comparator.comparingInt(CompressedBitmap::cardinality));
+            CompressedBitmap result = bitmaps[0].copy();
+            for (int i = 1; i < bitmaps.length && !result.isEmpty(); i++) {
+                result = CompressedBitmap.and(result, bitmaps[i]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* 태그 중 하나라도 가진 요리 (OR) */
+    public CompressedBitmap anyOf(String... tags) {
+        lock.readLock().lock();
+        try {
+            return union(tags);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* 태그를 하나도 가지지 않은 요리 (NOT). 합집합과 차집합을 같은 읽기 락 안에서 구해서 그 사이의 갱신이 섞이지 않는다. */
+    public CompressedBitmap noneOf(String... tags) {
+        lock.readLock().lock();
+        try {
+            return CompressedBitmap.andNot(allDishes, union(tags));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 조건에 맞는 요리를 id 순서대로 반환한다. (null 인 조건은 보지 않는다)
+     * 읽기 락 안에서 테이블을 훑어 Dish 로 복사하므로 반환된 목록은 이후의 addDish 와 상관없다.
+     * */
+    public List<Dish> select(Boolean vegetarian, int minCalories, Dish.Type type) {
+        lock.readLock().lock();
+        try {
+            List<Dish> dishes = new ArrayList<>();
+            for (int id = 0; id < table.size(); id++) {
+                if ((vegetarian == null || table.isVegetarian(id) == vegetarian)
+                        && table.calories(id) >= minCalories
+                        && (type == null || table.type(id) == type)) {
+                    dishes.add(table.toDish(id));
+                }
+            }
+            return dishes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public CompressedBitmap all() {
+        lock.readLock().lock();
+        try {
+            return allDishes.copy();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> names(CompressedBitmap dishes) {
+        List<String> names = new ArrayList<>(dishes.cardinality());
+        lock.readLock().lock();
+        try {
+            dishes.forEach(id -> names.add(table.name(id)));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return names;
+    }
+
+    /**
+     * 결과 집합 안에서 칼로리가 높은 순서로 k 개의 id 를 반환한다.
+     * 크기 k 의 최소 힙(int[])을 유지하기 때문에 결과 집합 전체를 정렬하지 않고 박싱도 없다.
+     * */
+    public int[] topKByCalories(CompressedBitmap dishes, int k) {
+        if (k <= 0) {
+            return new int[0];
+        }
+        int[] heap = new int[k];
+        int[] size = new int[1];
+        lock.readLock().lock();
+        try {
+            dishes.forEach(id -> {
+                int cal = table.calories(id);
+                if (size[0] < k) {
+                    heap[size[0]] = id;
+                    siftUp(heap, size[0]++);
+                } else if (cal > table.calories(heap[0])) {
+                    heap[0] = id;
+                    siftDown(heap, size[0]);
+                }
+            });
+            int n = size[0];
+            int[] result = new int[n];
+            for (int i = n - 1; i >= 0; i--) { // 최소값부터 꺼내서 뒤에서부터 채운다.
+                result[i] = heap[0];
+                heap[0] = heap[--size[0]];
+                siftDown(heap, size[0]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> topKNamesByCalories(CompressedBitmap dishes, int k) {
+        int[] ids = topKByCalories(dishes, k);
+        List<String> names = new ArrayList<>(ids.length);
+        lock.readLock().lock();
+        try {
+            for (int id : ids) {
+                names.add(table.name(id));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return names;
+    }
+
+    // 읽기 락 안에서만 부른다.
+    private CompressedBitmap union(String... tags) {
+        CompressedBitmap result = new CompressedBitmap();
+        for (String tag : tags) {
+            CompressedBitmap bitmap = postings.get(tag);
+            if (bitmap != null) {
+                result = CompressedBitmap.or(result, bitmap);
+            }
+        }
+        return result;
+    }
+
+    private void siftUp(int[] heap, int i) {
+        int id = heap[i];
+        int cal = table.calories(id);
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (table.calories(heap[parent]) <= cal) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = id;
+    }
+
+    private void siftDown(int[] heap, int size) {
+        if (size == 0) {
+            return;
+        }
+        int i = 0;
+        int id = heap[0];
+        int cal = table.calories(id);
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && table.calories(heap[child + 1]) < table.calories(heap[child])) {
+                child++;
+            }
+            if (table.calories(heap[child]) >= cal) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = id;
+    }
+}
@@ -0,0 +1,143 @@
+package com.modern.exec;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class AdaptiveQueryExecutor implements AutoCloseable {
+    /**
+     * 작업량을 보고 순차/병렬 실행을 고르는 스트림 실행기
+     *  parallelStream() 은 요소가 9개뿐이어도 fork/join 으로 작업을 쪼개고 스레드에 나눠준다. 이 비용이 실제 작업보다 크다.
+     *  또 parallelStream() 은 ForkJoinPool.commonPool() 에서 실행되기 때문에 요청 스레드들과 같은 풀을 나눠쓰게 된다.
+     *
+     *  1. 요소 수(N) * 요소당 비용(Q) 이 parallelThreshold 보다 작으면 순차 스트림으로 실행한다. (흔히 말하는 NQ 모델)
+     *     Q 는 "단순 필터/매핑 하나 = 1" 정도의 상대값이다. 기본 임계값은 10,000 이다.
+     *  2. 병렬로 실행할때는 전용 ForkJoinPool 안에서 스트림을 실행한다.
+     *     ForkJoinPool 작업 안에서 시작한 병렬 스트림은 commonPool 이 아니라 그 풀의 워커를 사용한다.
+     *  3. 잘 쪼개지는 Spliterator 를 사용한다. 크기를 정확히 아는 RandomAccess 리스트(ArrayList 등)는 그대로 쓰고
+     *     LinkedList, HashSet 처럼 Iterator 로 쪼개지는 컬렉션은 배열 스냅샷으로 바꿔 반씩 균등하게 나눠지도록 한다.
+     * */
+
+    public static final long DEFAULT_PARALLEL_THRESHOLD = 10_000;
+
+    private static final class SharedHolder {
+        static final AdaptiveQueryExecutor SHARED = new AdaptiveQueryExecutor(
+                newPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), "adaptive-query"),
+                DEFAULT_PARALLEL_THRESHOLD, false);
+    }
+
+    private final ForkJoinPool pool;
+    private final long parallelThreshold;
+    private final boolean ownsPool;
+
+    /* parallelism 개의 워커를 가진 전용 풀을 만든다. close 하면 풀도 종료된다. */
+    public AdaptiveQueryExecutor(int parallelism) {
+        this(newPool(parallelism, "adaptive-query"), DEFAULT_PARALLEL_THRESHOLD, true);
+    }
+
+    /* 외부에서 관리하는 풀을 사용한다. close 해도 풀은 종료하지 않는다. */
+    public AdaptiveQueryExecutor(ForkJoinPool pool, long parallelThreshold) {
+        this(pool, parallelThreshold, false);
+    }
+
+    private AdaptiveQueryExecutor(ForkJoinPool pool, long parallelThreshold, boolean ownsPool) {
+        if (parallelThreshold < 0) {
+            throw new IllegalArgumentException("parallelThreshold must not be negative: " + parallelThreshold);
+        }
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+        this.ownsPool = ownsPool;
+    }
+
+    /* 프로세스 전체에서 같이 쓰는 기본 실행기 (commonPool 이 아닌 데몬 워커 풀) */
+    public static AdaptiveQueryExecutor shared() {
+        return SharedHolder.SHARED;
+    }
+
+    public static ForkJoinPool newPool(int parallelism, String namePrefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName(namePrefix + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * source 로 스트림을 만들어 query 를 적용한다.
+     * costPerElement 는 요소 하나를 처리하는 상대 비용이다. (단순 filter/map = 1, 정규식이나 해싱처럼 무거우면 더 크게)
+     * */
+    public <T, R> R query(Collection<T> source, int costPerElement, Function<Stream<T>, R> query) {
+        if (!shouldParallelize(source.size(), costPerElement)) {
+            return query.apply(source.stream()); // 순차 실행이면 스냅샷을 만들 필요가 없다.
+        }
+        return query(spliterator(source), source.size(), costPerElement, query);
+    }
+
+    public <T, R> R query(Spliterator<T> source, long estimatedSize, int costPerElement, Function<Stream<T>, R> query) {
+        if (!shouldParallelize(estimatedSize, costPerElement)) {
+            return query.apply(StreamSupport.stream(source, false));
+        }
+        return invoke(ForkJoinTask.adapt(() -> query.apply(StreamSupport.stream(source, true))));
+    }
+
+    /**
+     * task 를 이 실행기의 풀에서 실행하고 결과를 기다린다.
+     * 이미 이 풀의 워커 안이면 다시 submit 하지 않고 그 자리에서 실행한다. (워커가 자기 풀의 작업을 기다리며 막히지 않는다)
+     * */
+    public <T> T invoke(ForkJoinTask<T> task) {
+        if (ForkJoinTask.getPool() == pool) {
+            return task.invoke();
+        }
+        return pool.invoke(task);
+    }
+
+    public boolean shouldParallelize(long estimatedSize, int costPerElement) {
+        if (pool.getParallelism() < 2 || estimatedSize < 2) {
+            return false;
+        }
+        long work = estimatedSize > Long.MAX_VALUE / Math.max(1, costPerElement)
+                ? Long.MAX_VALUE
+                : estimatedSize * Math.max(1, costPerElement);
+        return work >= parallelThreshold;
+    }
+
+    /* 병렬 분할이 균등하게 되는 Spliterator 를 고른다. */
+    public static <T> Spliterator<T> spliterator(Collection<T> source) {
+        if (source instanceof List<T> list && list instanceof RandomAccess) {
+            Spliterator<T> spliterator = list.spliterator();
+            if (spliterator.hasCharacteristics(Spliterator.SUBSIZED)) {
+                return spliterator;
+            }
+        }
+        // Iterator 기반 Spliterator 는 앞에서부터 조금씩 떼어내는 방식이라 분할이 한쪽으로 치우친다.
+        // 참조 배열 스냅샷은 O(N) 복사지만 병렬로 돌릴만큼 큰 작업에서는 비용이 작고 항상 반씩 나눠진다.
+        int characteristics = source.spliterator().characteristics() & (Spliterator.ORDERED | Spliterator.DISTINCT);
+        return Spliterators.spliterator(source.toArray(), characteristics | Spliterator.IMMUTABLE);
+    }
+
+    public ForkJoinPool pool() {
+        return pool;
+    }
+
+    public long parallelThreshold() {
+        return parallelThreshold;
+    }
+
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package com.modern.exec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public class AsyncFeed implements DesignPatternReFactory.Subject, AutoCloseable {
+    /**
+     * 옵저버 패턴(Feed)의 비동기 버전
+     *  Feed.notifyObserver 는 트윗을 올린 스레드에서 옵저버를 하나씩 호출한다. 옵저버 하나가 느리면 모든 발행자가 같이 느려진다.
+     *  AsyncFeed 는 발행(notifyObserver)과 전달(Observer.notify)을 분리한다.
+     *
+     *  1. 옵저버는 그룹(ObserverGroup)에 속한다. 그룹마다 미리 할당한 링버퍼(ring buffer)와 소비자 스레드를 가진다.
+     *     느린 그룹은 자기 버퍼만 채우고 다른 그룹의 전달에는 영향을 주지 않는다.
+     *  2. 발행자는 AtomicLong 으로 순번을 받아 슬롯에 트윗을 쓰고 슬롯의 sequence 를 써서 공개한다. (락 없음, 할당 없음)
+     *  3. 그룹의 소비자 스레드는 모두 같은 슬롯들을 읽고, 각자 맡은 옵저버에게만 전달한다.
+     *     옵저버는 등록할때 소비자 하나에 배정되므로 옵저버마다 트윗이 발행 순서대로 전달된다.
+     *     등록할때의 발행 순번을 같이 기억해서 그 전에 발행되어 버퍼에 남아있던 트윗은 새 옵저버에게 전달하지 않는다.
+     *     마지막 소비자가 지나간 슬롯은 트윗 참조를 지운다. (다 전달한 트윗을 버퍼가 붙잡고 있지 않는다)
+     *     슬롯은 모든 소비자가 지나간 뒤에 재사용된다.
+     *  4. 소비자는 쌓인 트윗을 최대 MAX_BATCH 개씩 모아서 옵저버마다 한번에 전달한다. (BatchObserver 는 목록으로 받는다)
+     *  5. 버퍼가 꽉 찼을때는 BackpressurePolicy 에 따라
+     *     BLOCK : 자리가 날때까지 발행자가 기다린다. 소비자 스레드가 죽어서(옵저버의 Error 등) 자리가 날수 없으면 버린다.
+     *     DROP : 새 트윗을 버린다.
+     *     SAMPLE : 버퍼가 반 이상 차면 SAMPLE_RATE 개 중 하나만 받고 나머지는 버린다. 꽉 차면 버린다.
+     *  6. 옵저버에서 발생한 예외는 그 옵저버의 그 트윗(BatchObserver 는 그 배치) 전달만 실패시킨다.
+     *     같은 옵저버도 다음 트윗은 계속 받고 소비자 스레드도 계속 동작한다. (failedCount 는 실패한 호출 수)
+     *
+     * ※ 전달은 비동기이므로 notifyObserver 가 반환된 시점에 옵저버가 트윗을 받았다는 보장은 없다. 필요하면 flush() 를 호출한다.
+     * */
+
+    public enum BackpressurePolicy {
+        BLOCK,
+        DROP,
+        SAMPLE
+    }
+
+    /* 트윗을 목록으로 한번에 받는 옵저버. 옵저버마다 호출 비용이 큰 경우(네트워크, I/O) 사용한다. */
+    public interface BatchObserver extends DesignPatternReFactory.Observer {
+        void notifyBatch(List<String> tweets);
+
+        @Override
+        default void notify(String tweet) {
+            notifyBatch(Collections.singletonList(tweet));
+        }
+    }
+
+    public static final int DEFAULT_CAPACITY = 8192;
+    static final int MAX_BATCH = 256;
+    static final int SAMPLE_RATE = 8;
+
+    private final List<ObserverGroup> groups = new CopyOnWriteArrayList<>();
+    private final ObserverGroup defaultGroup;
+    private volatile boolean running = true;
+
+    public AsyncFeed() {
+        this(DEFAULT_CAPACITY, 1, BackpressurePolicy.BLOCK);
+    }
+
+    /* registerObserver 로 등록하는 옵저버들이 속하는 기본 그룹의 설정 */
+    public AsyncFeed(int capacity, int consumers, BackpressurePolicy policy) {
+        this.defaultGroup = addGroup("default", capacity, consumers, policy);
+    }
+
+    /* 버퍼와 소비자 스레드를 따로 가지는 옵저버 그룹을 만든다. */
+    public ObserverGroup newGroup(String name, int capacity, int consumers, BackpressurePolicy policy) {
+        return addGroup(name, capacity, consumers, policy);
+    }
+
+    // 생성자에서도 쓰므로 재정의할수 없는 private 메소드로 둔다.
+    private ObserverGroup addGroup(String name, int capacity, int consumers, BackpressurePolicy policy) {
+        if (!running) {
+            throw new IllegalStateException("AsyncFeed is closed");
+        }
+        ObserverGroup group = new ObserverGroup(name, capacity, consumers, policy);
+        groups.add(group);
+        return group;
+    }
+
+    @Override
+    public void registerObserver(DesignPatternReFactory.Observer o) {
+        defaultGroup.registerObserver(o);
+    }
+
+    @Override
+    public void notifyObserver(String tweet) {
+        for (ObserverGroup group : groups) {
+            group.publish(tweet);
+        }
+    }
+
+    public ObserverGroup defaultGroup() {
+        return defaultGroup;
+    }
+
+    public List<ObserverGroup> groups() {
+        return Collections.unmodifiableList(groups);
+    }
+
+    /* 모든 그룹에서 버리거나 샘플링에서 빠진 트윗 수의 합 */
+    public long droppedCount() {
+        long sum = 0;
+        for (ObserverGroup group : groups) {
+            sum += group.droppedCount();
+        }
+        return sum;
+    }
+
+    /* 지금까지 발행한 트윗이 모든 옵저버에게 전달될때까지 기다린다. */
+    public void flush() {
+        for (ObserverGroup group : groups) {
+            group.flush();
+        }
+    }
+
+    /* 남은 트윗을 모두 전달한 뒤 소비자 스레드를 종료한다. 전달이 끝날때까지 기다린다. (인터럽트되어도 기다리고 플래그만 되살린다) */
+    @Override
+    public void close() {
+        running = false;
+        for (ObserverGroup group : groups) {
+            group.close();
+        }
+    }
+
+    public final class ObserverGroup {
+        private final String name;
+        private final Slot[] slots;
+        private final int mask;
+        private final BackpressurePolicy policy;
+        private final AtomicLong next = new AtomicLong();
+        private final AtomicLong sampleTick = new AtomicLong();
+        private volatile long gate; // 모든 소비자가 지나간 순번 (캐시)
+        private final Consumer[] consumers;
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final AtomicLong registered = new AtomicLong();
+
+        private ObserverGroup(String name, int capacity, int consumerCount, BackpressurePolicy policy) {
+            if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+                throw new IllegalArgumentException("capacity must be a power of two >= 2: " + capacity);
+            }
+            if (consumerCount < 1) {
+                throw new IllegalArgumentException("consumers must be positive: " + consumerCount);
+            }
+            this.name = name;
+            this.slots = new Slot[capacity];
+            for (int i = 0; i < capacity; i++) {
+                slots[i] = new Slot();
+            }
+            this.mask = capacity - 1;
+            this.policy = policy;
+            this.consumers = new Consumer[consumerCount];
+            for (int i = 0; i < consumerCount; i++) {
+                consumers[i] = new Consumer("async-feed-" + name + "-" + i);
+            }
+            for (Consumer consumer : consumers) {
+                consumer.thread.start();
+            }
+        }
+
+        /**
+         * 옵저버를 소비자 하나에 배정한다. (순서대로 돌아가며 배정)
+         * 등록 이후에 발행된 트윗부터 받는다. 등록 전에 순번을 받은 트윗은 아직 버퍼에 있어도 건너뛴다.
+         * */
+        public void registerObserver(DesignPatternReFactory.Observer o) {
+            if (o == null) {
+                throw new IllegalArgumentException("observer must not be null");
+            }
+            Registration registration = new Registration(o, next.get());
+            consumers[(int) (registered.getAndIncrement() % consumers.length)].observers.add(registration);
+        }
+
+        public boolean unregisterObserver(DesignPatternReFactory.Observer o) {
+            for (Consumer consumer : consumers) {
+                for (Registration registration : consumer.observers) {
+                    if (registration.observer().equals(o) && consumer.observers.remove(registration)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /* 트윗을 버퍼에 넣는다. 버려지면 false */
+        public boolean publish(String tweet) {
+            long sequence = claim();
+            if (sequence < 0) {
+                dropped.increment();
+                return false;
+            }
+            Slot slot = slots[(int) sequence & mask];
+            slot.tweet = tweet;
+            if (consumers.length > 1) {
+                slot.pending.setPlain(consumers.length); // 아래 volatile 쓰기로 같이 공개된다.
+            }
+            slot.sequence = sequence; // volatile 쓰기 : tweet 을 소비자들에게 공개한다.
+            return true;
+        }
+
+        private long claim() {
+            if (!running) {
+                return -1;
+            }
+            int capacity = slots.length;
+            if (policy == BackpressurePolicy.BLOCK) {
+                long sequence = next.getAndIncrement();
+                while (sequence - gate >= capacity) { // 가장 느린 소비자가 한바퀴 따라올때까지 기다린다.
+                    if (sequence - refreshGate() < capacity) {
+                        break;
+                    }
+                    if (anyConsumerDead()) { // 죽은 소비자의 cursor 는 더 움직이지 않는다.
+                        return -1;
+                    }
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                }
+                return sequence;
+            }
+            while (true) {
+                long sequence = next.get();
+                long used = sequence - gate;
+                if (used >= (policy == BackpressurePolicy.SAMPLE ? capacity >> 1 : capacity)) {
+                    used = sequence - refreshGate(); // 캐시된 gate 가 오래됐을수 있다.
+                }
+                if (used >= capacity) {
+                    return -1;
+                }
+                if (policy == BackpressurePolicy.SAMPLE && used >= capacity >> 1
+                        && sampleTick.getAndIncrement() % SAMPLE_RATE != 0) {
+                    return -1;
+                }
+                if (next.compareAndSet(sequence, sequence + 1)) {
+                    return sequence;
+                }
+            }
+        }
+
+        private long refreshGate() {
+            long min = Long.MAX_VALUE;
+            for (Consumer consumer : consumers) {
+                min = Math.min(min, consumer.cursor);
+            }
+            gate = min;
+            return min;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public int capacity() {
+            return slots.length;
+        }
+
+        /* 아직 모든 소비자에게 전달되지 않은 트윗 수 (대략값) */
+        public long backlog() {
+            return Math.max(0, next.get() - refreshGate());
+        }
+
+        public long publishedCount() {
+            return next.get();
+        }
+
+        public long droppedCount() {
+            return dropped.sum();
+        }
+
+        /* 옵저버가 예외를 던진 횟수 */
+        public long failedCount() {
+            return failed.sum();
+        }
+
+        public void flush() {
+            long target = next.get();
+            while (refreshGate() < target && anyConsumerAlive()) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            }
+        }
+
+        private boolean anyConsumerAlive() {
+            for (Consumer consumer : consumers) {
+                if (consumer.thread.isAlive()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean anyConsumerDead() {
+            for (Consumer consumer : consumers) {
+                if (!consumer.thread.isAlive()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void close() {
+            for (Consumer consumer : consumers) {
+                LockSupport.unpark(consumer.thread);
+            }
+            boolean interrupted = false;
+            for (Consumer consumer : consumers) {
+                while (consumer.thread.isAlive()) {
+                    try {
+                        consumer.thread.join();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private final class Consumer implements Runnable {
+            final List<Registration> observers = new CopyOnWriteArrayList<>();
+            final Thread thread;
+            final String[] batch = new String[MAX_BATCH];
+            volatile long cursor;
+
+            Consumer(String threadName) {
+                this.thread = new Thread(this, threadName);
+                this.thread.setDaemon(true);
+            }
+
+            @Override
+            public void run() {
+                long idleNanos = TimeUnit.MICROSECONDS.toNanos(50);
+                while (true) {
+                    long from = cursor;
+                    int size = 0;
+                    Slot slot;
+                    while (size < MAX_BATCH && (slot = slots[(int) (from + size) & mask]).sequence == from + size) {
+                        batch[size++] = slot.tweet;
+                    }
+                    if (size > 0) {
+                        deliver(from, size);
+                        Arrays.fill(batch, 0, size, null);
+                        release(from, size);
+                        cursor = from + size; // 슬롯을 놓아준다.
+                        idleNanos = TimeUnit.MICROSECONDS.toNanos(50);
+                        continue;
+                    }
+                    if (!running && next.get() == from) {
+                        return;
+                    }
+                    LockSupport.parkNanos(idleNanos);
+                    idleNanos = Math.min(idleNanos * 2, TimeUnit.MILLISECONDS.toNanos(1));
+                }
+            }
+
+            // 옵저버 단위로 배치를 전달한다. (옵저버를 바꿔가며 트윗마다 호출하는것보다 옵저버 상태가 캐시에 남아있다)
+            private void deliver(long from, int size) {
+                List<String> tweets = null;
+                for (Registration registration : observers) {
+                    // 등록 전에 발행된 트윗은 건너뛴다. (배치 안에서 시작 위치)
+                    int start = (int) Math.min(size, Math.max(0, registration.from() - from));
+                    if (start == size) {
+                        continue;
+                    }
+                    if (registration.observer() instanceof BatchObserver batchObserver) {
+                        if (start == 0 && tweets == null) {
+                            tweets = copyOf(0, size);
+                        }
+                        try {
+                            batchObserver.notifyBatch(start == 0 ? tweets : copyOf(start, size));
+                        } catch (RuntimeException e) {
+                            failed.increment();
+                        }
+                    } else {
+                        for (int i = start; i < size; i++) { // 한 트윗의 실패가 같은 배치의 나머지 트윗을 막지 않도록 트윗마다 잡는다.
+                            try {
+                                registration.observer().notify(batch[i]);
+                            } catch (RuntimeException e) {
+                                failed.increment();
+                            }
+                        }
+                    }
+                }
+            }
+
+            private List<String> copyOf(int start, int end) {
+                return Collections.unmodifiableList(new ArrayList<>(Arrays.asList(batch).subList(start, end)));
+            }
+
+            // 마지막으로 지나가는 소비자가 슬롯의 트윗 참조를 지운다. cursor 를 옮기기 전이라 발행자가 아직 재사용하지 못한다.
+            private void release(long from, int size) {
+                boolean shared = consumers.length > 1;
+                for (int i = 0; i < size; i++) {
+                    Slot slot = slots[(int) (from + i) & mask];
+                    if (!shared || slot.pending.decrementAndGet() == 0) {
+                        slot.tweet = null;
+                    }
+                }
+            }
+        }
+    }
+
+    // 옵저버와 등록할때의 발행 순번. 이 순번부터 전달한다.
+    private record Registration(DesignPatternReFactory.Observer observer, long from) {
+    }
+
+    // 링버퍼 슬롯. sequence 쓰기/읽기로 tweet 이 공개된다. pending 은 아직 지나가지 않은 소비자 수 (소비자가 둘 이상일때만)
+    private static final class Slot {
+        volatile long sequence = -1;
+        String tweet;
+        final AtomicInteger pending = new AtomicInteger();
+    }
+}
@@ -0,0 +1,292 @@
+package com.modern.exec;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+public class BatchLoader<K, V> implements AutoCloseable {
+    /**
+     * 요청을 모아서 한번에 조회하는 로더 (DataLoader 방식) + TTL 니어캐시
+     *  OnlineBanking.processCustomer 는 고객 한명마다 Database.getCustomerWithId 를 호출한다. (N+1 조회)
+     *
+     *  1. load(key) 는 바로 조회하지 않고 키를 대기열에 넣는다.
+     *     대기열이 maxBatchSize 개가 되거나 첫 키가 들어온 뒤 window 가 지나면 batchFunction 으로 한번에 조회한다.
+     *  2. 이미 대기중이거나 조회중인 키를 다시 요청하면 같은 CompletableFuture 를 돌려준다. (중복 조회 없음)
+     *  3. 조회 결과는 ttl 동안 니어캐시(near-cache)에 두고 캐시에 있으면 대기열을 거치지 않는다.
+     *     만료된 항목은 조회할때 지우고, ttl 마다 한번씩 전체를 훑어서 지운다.
+     *  4. batchFunction 결과에 없는 키는 null 로 완료되고 캐시하지 않는다.
+     *     batchFunction 이 예외를 던지면 그 배치의 모든 future 가 예외로 완료된다.
+     *  5. 조회는 fetchExecutor 에서 실행한다. (느린 조회가 타이머 스레드를 막지 않도록)
+     *     fetchExecutor 가 배치를 받지 않으면(RejectedExecutionException) 그 배치의 future 들은 그 예외로 완료된다.
+     *  6. close() 뒤의 load 는 캐시에 없으면 IllegalStateException 으로 완료된 future 를 돌려준다. (대기열에 넣지 않는다)
+     * */
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+    public static final Duration DEFAULT_WINDOW = Duration.ofMillis(2);
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(30);
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private final Function<List<K>, Map<K, V>> batchFunction;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final long ttlNanos;
+    private final ScheduledExecutorService scheduler;
+    private final Executor fetchExecutor;
+    private final boolean ownsFetchExecutor;
+
+    private final Map<K, CacheEntry<V>> cache = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private final Map<K, CompletableFuture<V>> pending = new HashMap<>(); // 대기중이거나 조회중인 키
+    private List<K> queue = new ArrayList<>();
+    private ScheduledFuture<?> timer;
+    private boolean closed; // lock 으로 보호
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder keysFetched = new LongAdder();
+
+    public BatchLoader(Function<List<K>, Map<K, V>> batchFunction) {
+        this(batchFunction, DEFAULT_MAX_BATCH_SIZE, DEFAULT_WINDOW, DEFAULT_TTL);
+    }
+
+    /* 조회 스레드를 직접 만든다. close 하면 같이 종료된다. */
+    public BatchLoader(Function<List<K>, Map<K, V>> batchFunction, int maxBatchSize, Duration window, Duration ttl) {
+        this(batchFunction, maxBatchSize, window, ttl, null);
+    }
+
+    /* 외부에서 관리하는 executor 에서 조회한다. close 해도 executor 는 종료하지 않는다. */
+    public BatchLoader(Function<List<K>, Map<K, V>> batchFunction, int maxBatchSize, Duration window, Duration ttl,
+                       Executor fetchExecutor) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+        }
+        if (window.isNegative() || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("window must not be negative and ttl must be positive");
+        }
+        this.batchFunction = Objects.requireNonNull(batchFunction, "batchFunction");
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = window.toNanos();
+        this.ttlNanos = ttl.toNanos();
+        int id = SEQUENCE.incrementAndGet();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemon("batch-loader-" + id + "-timer"));
+        this.ownsFetchExecutor = fetchExecutor == null;
+        this.fetchExecutor = fetchExecutor != null ? fetchExecutor
+                : Executors.newCachedThreadPool(daemon("batch-loader-" + id + "-fetch"));
+        long purgeNanos = Math.max(ttlNanos, TimeUnit.MILLISECONDS.toNanos(100));
+        scheduler.scheduleWithFixedDelay(this::purgeExpired, purgeNanos, purgeNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public CompletableFuture<V> load(K key) {
+        Objects.requireNonNull(key, "key");
+        CacheEntry<V> cached = cache.get(key);
+        if (cached != null) {
+            if (cached.expiresAt - System.nanoTime() > 0) {
+                cacheHits.increment();
+                return CompletableFuture.completedFuture(cached.value);
+            }
+            cache.remove(key, cached);
+        }
+        List<K> batch = null;
+        CompletableFuture<V> future;
+        synchronized (lock) {
+            future = pending.get(key);
+            if (future != null) {
+                coalesced.increment();
+                return future;
+            }
+            if (closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException("BatchLoader is closed"));
+            }
+            future = new CompletableFuture<>();
+            pending.put(key, future);
+            queue.add(key);
+            if (queue.size() >= maxBatchSize) {
+                batch = takeQueue();
+            } else if (timer == null) {
+                timer = scheduler.schedule(this::dispatchQueued, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (batch != null) {
+            dispatch(batch);
+        }
+        return future;
+    }
+
+    /* 요청한 순서대로의 결과 (결과가 없는 키는 null 값) */
+    public CompletableFuture<Map<K, V>> loadMany(Collection<? extends K> keys) {
+        Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        for (K key : keys) {
+            futures.computeIfAbsent(key, this::load);
+        }
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    Map<K, V> result = new LinkedHashMap<>();
+                    futures.forEach((key, future) -> result.put(key, future.join()));
+                    return result;
+                });
+    }
+
+    /* load(key).join() */
+    public V get(K key) {
+        return load(key).join();
+    }
+
+    /* 대기중인 키를 기다리지 않고 바로 조회한다. */
+    public void flush() {
+        List<K> batch;
+        synchronized (lock) {
+            batch = takeQueue();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    public void invalidate(K key) {
+        cache.remove(key);
+    }
+
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    public long cacheHitCount() {
+        return cacheHits.sum();
+    }
+
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long batchCount() {
+        return batches.sum();
+    }
+
+    public long fetchedKeyCount() {
+        return keysFetched.sum();
+    }
+
+    public double averageBatchSize() {
+        long b = batches.sum();
+        return b == 0 ? 0 : (double) keysFetched.sum() / b;
+    }
+
+    public int cachedSize() {
+        return cache.size();
+    }
+
+    /* 대기중인 키는 조회를 보내고 닫는다. 이미 보낸 조회는 끝까지 실행된다. */
+    @Override
+    public void close() {
+        List<K> batch;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            batch = takeQueue();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+        scheduler.shutdown();
+        if (ownsFetchExecutor) {
+            ((ExecutorService) fetchExecutor).shutdown();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BatchLoader[cached=%d, cacheHits=%d, coalesced=%d, batches=%d, keys=%d, avgBatch=%.1f]",
+                cachedSize(), cacheHitCount(), coalescedCount(), batchCount(), fetchedKeyCount(), averageBatchSize());
+    }
+
+    private void dispatchQueued() {
+        flush();
+    }
+
+    // lock 을 잡은 상태에서 호출한다.
+    private List<K> takeQueue() {
+        List<K> batch = queue;
+        queue = new ArrayList<>();
+        if (timer != null) {
+            timer.cancel(false);
+            timer = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(List<K> keys) {
+        batches.increment();
+        keysFetched.add(keys.size());
+        try {
+            fetchExecutor.execute(() -> fetch(keys));
+        } catch (RejectedExecutionException e) {
+            for (K key : keys) {
+                removePending(key).completeExceptionally(e);
+            }
+        }
+    }
+
+    private void fetch(List<K> keys) {
+        Map<K, V> result;
+        try {
+            result = batchFunction.apply(keys);
+        } catch (Throwable e) {
+            for (K key : keys) {
+                removePending(key).completeExceptionally(e);
+            }
+            return;
+        }
+        long expiresAt = System.nanoTime() + ttlNanos;
+        for (K key : keys) {
+            V value = result == null ? null : result.get(key);
+            if (value != null) { // 캐시에 먼저 넣고 대기 목록에서 뺀다. (그 사이 load 는 둘 중 하나를 본다)
+                cache.put(key, new CacheEntry<>(value, expiresAt));
+            }
+            removePending(key).complete(value);
+        }
+    }
+
+    private CompletableFuture<V> removePending(K key) {
+        synchronized (lock) {
+            return pending.remove(key);
+        }
+    }
+
+    private void purgeExpired() {
+        long now = System.nanoTime();
+        cache.values().removeIf(entry -> entry.expiresAt - now <= 0);
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record CacheEntry<V>(V value, long expiresAt) {
+    }
+}
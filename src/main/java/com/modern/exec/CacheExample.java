@@ -1,29 +1,42 @@
 package com.modern.exec;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import com.modern.metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class CacheExample {
 
-    private MessageDigest messageDigest;
+    // 여러 스레드에서 공유해도 안전하고 크기가 제한된 캐시 (HashMap + 공유 MessageDigest 대체)
+    private final DigestCache digestCache;
 
-    public static void main(String[] args) {
-        new CacheExample().main();
+    /**
+     * 인자가 없으면 예제 문장 3개를 해싱하고,
+     * 파일 경로를 넘기면 FileDigestPipeline 으로 파일의 모든 행을 스트리밍 해싱한 뒤 처리량(MB/s)을 출력한다.
+     * */
+    public static void main(String[] args) throws IOException {
+        DigestCache digestCache = new DigestCache(100_000);
+        digestCache.bindTo(MetricsRegistry.shared(), "cache.digest"); // 적중률 등을 공용 지표로 노출
+        CacheExample example = new CacheExample(digestCache);
+        if (args.length > 0) {
+            example.hashFile(Path.of(args[0]));
+        } else {
+            example.main();
+        }
     }
 
     public CacheExample() {
-        try {
-            messageDigest = MessageDigest.getInstance("SHA-256");
-        }
-        catch (NoSuchAlgorithmException e) {
-            e.printStackTrace();
-        }
+        this(new DigestCache(100_000));
+    }
+
+    /* 지표 등록은 캐시를 만든 쪽이 한다. (인스턴스마다 같은 이름으로 공용 레지스트리를 덮어쓰지 않도록) */
+    public CacheExample(DigestCache digestCache) {
+        this.digestCache = digestCache;
     }
 
     /**
@@ -33,6 +46,9 @@ public class CacheExample {
      *  3. compute : 제공된 키로 새 값을 계산하고 맵에 저장한다.
      *  정보를 캐시할때 computeIfAbsent를 활용 할수 이;ㅆ다. 파일 집합의 각 행을 파싱행  SHA-256(해시 알고리즘)을 계산한다고
      *  가정했을때 기존에 이미 데이터를 처리했다면 이 값을 다시 계산할 필요가 없다.
+     *
+     *  ※ HashMap 과 MessageDigest 는 둘다 스레드 안전하지 않고 HashMap 은 크기 제한도 없다.
+     *  그래서 실제 캐시는 같은 computeIfAbsent 의미를 유지하면서 세그먼트 락 + LRU 로 크기를 제한하는 DigestCache 를 사용한다.
      * */
     private void main() {
         List<String> lines = Arrays.asList(
@@ -40,17 +56,39 @@ public class CacheExample {
                 "mi  ritrovai in una  selva oscura",
                 " che la  dritta via era   smarrita "
         );
-        Map<String, byte[]> dataToHash = new HashMap<>();
 
         lines.forEach(line ->
-                dataToHash.computeIfAbsent(line, this::calculateDigest));
-        dataToHash.forEach((line, hash) ->
-                System.out.printf("%s -> %s%n", line,
-                        new String(hash).chars().map(i -> i & 0xff).mapToObj(String::valueOf).collect(Collectors.joining(", ", "[", "]"))));
+                System.out.printf("%s -> %s%n", line, toUnsignedString(digestCache.computeIfAbsent(line))));
+        System.out.println(digestCache);
+    }
+
+    public FileDigestPipeline.Result hashFile(Path file) throws IOException {
+        FileDigestPipeline.Result result = new FileDigestPipeline(digestCache).hash(file);
+        System.out.println(file + " : " + result);
+        System.out.println(digestCache);
+        return result;
+    }
+
+    /**
+     * 재시작해도 다시 계산하지 않는 다이제스트 저장소 예제
+     * 파일이 있으면 매핑해서 이어쓰고, 없는 행만 계산한 뒤 다시 파일로 내려쓴다.
+     * */
+    public OffHeapDigestStore warmStore(Path storeFile, List<String> lines) throws IOException {
+        OffHeapDigestStore store = Files.exists(storeFile) ? OffHeapDigestStore.load(storeFile) : new OffHeapDigestStore();
+        lines.forEach(line -> store.computeIfAbsent(line, digestCache::digest));
+        store.flush(storeFile);
+        return store;
+    }
+
+    public DigestCache getDigestCache() {
+        return digestCache;
     }
 
-    private byte[] calculateDigest(String key) {
-        return messageDigest.digest(key.getBytes(StandardCharsets.UTF_8));
+    private static String toUnsignedString(byte[] hash) {
+        return IntStream.range(0, hash.length)
+                .map(i -> hash[i] & 0xff)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(", ", "[", "]"));
     }
 
 }
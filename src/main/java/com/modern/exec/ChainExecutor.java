@@ -0,0 +1,278 @@
+package com.modern.exec;
+
+import com.modern.metrics.LatencyHistogram;
+import com.modern.metrics.MetricsRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+public class ChainExecutor<T> {
+    /**
+     * 의무체인(ProcessingObject)을 평평한 배열로 컴파일한 실행기
+     *  ProcessingObject.handle 은 successor 를 재귀로 호출한다. 체인이 길면 스택이 깊어지고,
+     *  어떤 단계가 있는지 들여다볼 수 없고, 입력을 하나씩만 처리할 수 있다.
+     *
+     *  1. compile(head) 는 successor 를 따라가며 단계들을 배열에 담는다. 실행은 배열을 도는 반복문 하나다. (스택 깊이 1)
+     *     컴파일한 뒤에 setSuccessor 로 체인을 바꿔도 실행기에는 반영되지 않는다. (스냅샷)
+     *     각 단계의 handleWork 만 호출하므로 handle 을 오버라이드한 단계는 그 동작이 무시된다.
+     *  2. handle(List) 는 단계 단위로 배치 전체를 처리한다. (단계 하나가 배치 전체를 돌고 다음 단계로)
+     *     같은 단계 코드가 연속으로 실행되고 시간 측정도 단계당 한번이다.
+     *  3. 단계마다 처리 건수, 누적 시간, 실패 횟수를 LongAdder 로 센다. stats() 로 어느 단계가 지연을 차지하는지 본다.
+     *     측정이 필요 없는 경로는 instrumented = false 로 컴파일하면 System.nanoTime 호출도 하지 않는다.
+     *     지연시간 분포는 단계마다 LatencyHistogram 두개에 기록하고 exportTo 로 MetricsRegistry 에 등록할 수 있다.
+     *     latency 는 handle(T) 한번의 항목 하나 시간, batchLatency 는 handle(List) 한번의 배치 전체 시간이다. (배치당 샘플 하나)
+     *  4. 여러 스레드에서 동시에 실행해도 된다. (단계 자체가 스레드 안전하다면)
+     * */
+
+    private final Stage<T>[] stages;
+    private final boolean instrumented;
+
+    private ChainExecutor(Stage<T>[] stages, boolean instrumented) {
+        this.stages = stages;
+        this.instrumented = instrumented;
+    }
+
+    public static <T> ChainExecutor<T> compile(DesignPatternReFactory.ProcessingObject<T> head) {
+        return compile(head, true);
+    }
+
+    public static <T> ChainExecutor<T> compile(DesignPatternReFactory.ProcessingObject<T> head, boolean instrumented) {
+        Objects.requireNonNull(head, "head");
+        List<Stage<T>> stages = new ArrayList<>();
+        Set<DesignPatternReFactory.ProcessingObject<T>> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (DesignPatternReFactory.ProcessingObject<T> p = head; p != null; p = p.successor) {
+            if (!seen.add(p)) { // 재귀 handle 이라면 스택이 넘칠때까지 돌았을 체인
+                throw new IllegalArgumentException("Processing chain has a cycle at " + p.getClass().getSimpleName());
+            }
+            stages.add(new Stage<>(p.getClass().getSimpleName(), p::handleWork));
+        }
+        return new ChainExecutor<>(toArray(stages), instrumented);
+    }
+
+    /* 람다(UnaryOperator)로 만든 체인도 같은 방식으로 실행/측정한다. (jobChainLamda 의 andThen 대신) */
+    @SafeVarargs
+    public static <T> ChainExecutor<T> of(boolean instrumented, NamedStage<T>... stages) {
+        List<Stage<T>> list = new ArrayList<>(stages.length);
+        for (NamedStage<T> stage : stages) {
+            list.add(new Stage<>(stage.name(), stage.work()));
+        }
+        return new ChainExecutor<>(toArray(list), instrumented);
+    }
+
+    public static <T> NamedStage<T> stage(String name, UnaryOperator<T> work) {
+        return new NamedStage<>(name, work);
+    }
+
+    public T handle(T input) {
+        T r = input;
+        for (Stage<T> stage : stages) {
+            if (!instrumented) {
+                r = stage.work.apply(r);
+                continue;
+            }
+            long start = System.nanoTime();
+            try {
+                r = stage.work.apply(r);
+            } catch (RuntimeException e) {
+                stage.failures.increment();
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                stage.nanos.add(elapsed);
+                stage.latency.recordNanos(elapsed);
+            }
+            stage.items.increment();
+        }
+        return r;
+    }
+
+    /**
+     * 입력 순서대로 결과를 반환한다. (크기가 고정된 리스트)
+     * 어떤 단계에서 예외가 나면 배치 전체가 중단된다.
+     * */
+    @SuppressWarnings("unchecked")
+    public List<T> handle(List<T> inputs) {
+        Object[] batch = inputs.toArray();
+        if (batch.length == 0) {
+            return Collections.emptyList();
+        }
+        for (Stage<T> stage : stages) {
+            UnaryOperator<T> work = stage.work;
+            if (!instrumented) {
+                for (int i = 0; i < batch.length; i++) {
+                    batch[i] = work.apply((T) batch[i]);
+                }
+                continue;
+            }
+            long start = System.nanoTime();
+            try {
+                for (int i = 0; i < batch.length; i++) {
+                    batch[i] = work.apply((T) batch[i]);
+                }
+            } catch (RuntimeException e) {
+                stage.failures.increment();
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                stage.nanos.add(elapsed);
+                stage.batchLatency.recordNanos(elapsed);
+            }
+            stage.items.add(batch.length);
+        }
+        return (List<T>) Arrays.asList(batch);
+    }
+
+    public int stageCount() {
+        return stages.length;
+    }
+
+    public List<String> stageNames() {
+        List<String> names = new ArrayList<>(stages.length);
+        for (Stage<T> stage : stages) {
+            names.add(stage.name);
+        }
+        return names;
+    }
+
+    public boolean isInstrumented() {
+        return instrumented;
+    }
+
+    /* 단계 순서대로의 측정값 스냅샷 */
+    public List<StageStats> stats() {
+        List<StageStats> stats = new ArrayList<>(stages.length);
+        for (Stage<T> stage : stages) {
+            stats.add(new StageStats(stage.name, stage.items.sum(), stage.nanos.sum(), stage.failures.sum()));
+        }
+        return stats;
+    }
+
+    /* 누적 시간이 가장 큰 단계 (측정값이 없으면 null) */
+    public StageStats slowestStage() {
+        StageStats slowest = null;
+        for (StageStats s : stats()) {
+            if (s.totalNanos() > 0 && (slowest == null || s.totalNanos() > slowest.totalNanos())) {
+                slowest = s;
+            }
+        }
+        return slowest;
+    }
+
+    /* i 번째 단계의 항목당 지연시간 분포 (handle(T)) */
+    public LatencyHistogram stageLatency(int i) {
+        return stages[i].latency;
+    }
+
+    /* i 번째 단계의 배치당 지연시간 분포 (handle(List)) */
+    public LatencyHistogram stageBatchLatency(int i) {
+        return stages[i].batchLatency;
+    }
+
+    /**
+     * 단계마다 prefix.단계이름.latency / .batchLatency 히스토그램과 .items / .failures 게이지를 등록한다.
+     * 같은 이름의 단계가 여러개면 두번째부터 "#순번"을 붙인다.
+     * 같은 이름의 지표가 이미 있으면(같은 prefix 로 내보낸 이전 체인) 히스토그램은 replace 로, 게이지는 새 함수로 바꾼다.
+     * 그래서 네 지표 모두 이 체인을 가리키고 이전 체인은 레지스트리가 더 이상 잡고 있지 않는다.
+     * */
+    public void exportTo(MetricsRegistry registry, String prefix) {
+        Set<String> used = new HashSet<>();
+        for (int i = 0; i < stages.length; i++) {
+            Stage<T> stage = stages[i];
+            String name = prefix + '.' + stage.name;
+            if (!used.add(name)) {
+                name = name + '#' + i;
+            }
+            registry.replace(name + ".latency", stage.latency);
+            registry.replace(name + ".batchLatency", stage.batchLatency);
+            registry.gauge(name + ".items", stage.items::sum);
+            registry.gauge(name + ".failures", stage.failures::sum);
+        }
+    }
+
+    public void resetStats() {
+        for (Stage<T> stage : stages) {
+            stage.items.reset();
+            stage.nanos.reset();
+            stage.failures.reset();
+            stage.latency.reset();
+            stage.batchLatency.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ChainExecutor[");
+        List<StageStats> stats = stats();
+        long total = 0;
+        for (StageStats s : stats) {
+            total += s.totalNanos();
+        }
+        for (int i = 0; i < stats.size(); i++) {
+            StageStats s = stats.get(i);
+            sb.append(i == 0 ? "" : " -> ").append(s);
+            if (total > 0) {
+                sb.append(String.format(" (%.0f%%)", 100.0 * s.totalNanos() / total));
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    private static <T> Stage<T>[] toArray(List<Stage<T>> stages) {
+        @SuppressWarnings("unchecked") // Stage<?>[] 에는 이 리스트의 Stage<T> 만 담긴다.
+        Stage<T>[] array = (Stage<T>[]) new Stage<?>[stages.size()];
+        return stages.toArray(array);
+    }
+
+    public record NamedStage<T>(String name, UnaryOperator<T> work) {
+
+        public NamedStage {
+            Objects.requireNonNull(name, "name");
+            Objects.requireNonNull(work, "work");
+        }
+    }
+
+    /**
+     * 단계 하나의 측정값
+     *  items 는 처리에 성공한 입력 수, totalNanos 는 실패한 호출을 포함한 누적 시간이다.
+     * */
+    public record StageStats(String name, long items, long totalNanos, long failures) {
+
+        public double averageNanos() {
+            return items == 0 ? 0 : (double) totalNanos / items;
+        }
+
+        public double itemsPerSecond() {
+            return totalNanos == 0 ? 0 : items / (totalNanos / 1_000_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %,d items, %.1f ms, %.0f ns/item, %.0f items/s, %d failures",
+                    name, items, totalNanos / 1_000_000.0, averageNanos(), itemsPerSecond(), failures);
+        }
+    }
+
+    // 단계 하나 = 작업 + 측정값
+    private static final class Stage<T> {
+        private final String name;
+        private final UnaryOperator<T> work;
+        private final LongAdder items = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LatencyHistogram batchLatency = new LatencyHistogram();
+
+        private Stage(String name, UnaryOperator<T> work) {
+            this.name = name;
+            this.work = work;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.modern.exec;
 
+import com.modern.datastructure.FrozenSet;
+
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -63,4 +65,14 @@ public class CollectionFactory {
         Set<String> friends = Set.of("Raphel","Olival","Thibaut");
         return friends;
     }
+
+    /**
+     * FrozenSet.of() => Set.of()처럼 변하지 않는 Set 이지만 수십만개의 상수를 담는 조회 테이블용이다.
+     * 요소마다 노드 객체를 만들지 않고 해시순으로 정렬한 배열과 int 해시 캐시만 사용한다.
+     * Set.of()와 같이 중복된 값이나 null 을 넣으면 예외가 발생하고, FrozenSet.copyOf()는 중복을 없애준다.
+     * */
+    public Set<String> friendsFrozenSet() {
+        Set<String> friends = FrozenSet.of("Raphel","Olival","Thibaut");
+        return friends;
+    }
 }
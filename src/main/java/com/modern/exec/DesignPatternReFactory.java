@@ -1,9 +1,18 @@
 package com.modern.exec;
 
+import com.modern.datastructure.SegmentedText;
+import com.modern.metrics.LatencyHistogram;
+import com.modern.metrics.MetricsRegistry;
+
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -56,15 +65,17 @@ public class DesignPatternReFactory {
         boolean execute(String s);
     }
     // ValidationStrategy인터페이스를 구현한 조건 클래스 구현 [오직 소문자로만 이루어지는 조건]
+    // s.matches("[a-z]+") 는 호출할때마다 정규식을 컴파일하므로 미리 컴파일한 검증기(문자 검사)를 사용한다.
     class IsAllLowerCase implements ValidationStrategy {
         public boolean execute(String s){
-            return s.matches("[a-z]+");
+            return ValidationEngine.ALL_LOWER_CASE.execute(s);
         }
     }
     // ValidationStrategy인터페이스를 구현한 조건 클래스 구현 [오직 숫자만 되야하는 조건]
+    // s.matches("\\d+") 와 같다.
     class IsNumeric implements ValidationStrategy{
         public boolean execute(String s) {
-            return s.matches("\\d+");
+            return ValidationEngine.NUMERIC.execute(s);
         }
     }
 
@@ -81,6 +92,14 @@ public class DesignPatternReFactory {
         boolean b3 = va3.validate("aaaaa");
         DesignPatternReFactory va4 = new DesignPatternReFactory((String s)->s.matches("\\d+"));
         boolean b4 = va4.validate("bbbbb");
+
+        // 전략끼리 조합(and/or/not)하고 한번만 컴파일해서 재사용한다. 조합된 규칙도 입력을 한번만 훑는다.
+        ValidationEngine.CompiledValidator lowerOrNumeric = ValidationEngine.compile(
+                ValidationEngine.Rule.allOf(ValidationEngine.CharClass.LOWER)
+                        .or(ValidationEngine.Rule.allOf(ValidationEngine.CharClass.DIGIT)));
+        DesignPatternReFactory va5 = new DesignPatternReFactory(lowerOrNumeric);
+        boolean b5 = va5.validate("12345");
+        BitSet passed = lowerOrNumeric.validate(List.of("aaaaa", "12345", "aa11")); // {0, 1}
     }
 
     /**
@@ -117,6 +136,19 @@ public class DesignPatternReFactory {
             Customer c = Database.getCustomerWithId(id);
             makeCustomerHappy.accept(c);
         }
+
+        // 고객마다 가상 스레드 하나로 처리한다. (동시에 최대 DEFAULT_MAX_CONCURRENCY 명)
+        // 한 고객이라도 실패하면 나머지는 취소되고 ExecutionException 이 발생한다.
+        public VirtualTaskRunner.Result processCustomers(Collection<Integer> ids, Consumer<Customer> makeCustomerHappy)
+                throws ExecutionException, InterruptedException {
+            return processCustomers(ids, makeCustomerHappy, new VirtualTaskRunner(VirtualTaskRunner.DEFAULT_MAX_CONCURRENCY));
+        }
+
+        public VirtualTaskRunner.Result processCustomers(Collection<Integer> ids, Consumer<Customer> makeCustomerHappy,
+                                                         VirtualTaskRunner runner)
+                throws ExecutionException, InterruptedException {
+            return runner.runAll(ids, (Integer id) -> processCustomer(id, makeCustomerHappy));
+        }
     }
 
     static private class Customer{} // 예제용 dumy 클래스
@@ -138,6 +170,67 @@ public class DesignPatternReFactory {
         new lamdaOnlineBanking().processCustomer(1337,(Customer c)-> System.out.println("Hello "));
     }
 
+    public void templateMethodVirtualThreads() throws ExecutionException, InterruptedException {
+        // 야간 보너스 지급처럼 I/O 를 기다리는 고객 처리를 수만명 단위로 동시에 처리한다.
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 0; id < 10_000; id++) {
+            ids.add(id);
+        }
+        VirtualTaskRunner runner = new VirtualTaskRunner(500, Duration.ofSeconds(1)); // 동시에 500명, 한명당 1초
+        VirtualTaskRunner.Result result = new lamdaOnlineBanking().processCustomers(ids, (Customer c) -> {
+            try {
+                Thread.sleep(10); // 외부 시스템 호출을 흉내낸다.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, runner);
+        System.out.println(result);
+    }
+
+    // 고객마다 DB 를 조회하는 대신(N+1) 동시에 들어온 요청을 모아서 한번에 조회하고 결과는 잠깐 캐시한다.
+    class BatchedOnlineBanking {
+        private final BatchLoader<Integer, Customer> customers;
+
+        BatchedOnlineBanking(BatchLoader<Integer, Customer> customers) {
+            this.customers = customers;
+        }
+
+        public void processCustomer(int id, Consumer<Customer> makeCustomerHappy) {
+            makeCustomerHappy.accept(customers.get(id));
+        }
+
+        public void processCustomers(List<Integer> ids, Consumer<Customer> makeCustomerHappy) {
+            customers.loadMany(ids).join().values().forEach(makeCustomerHappy);
+        }
+    }
+
+    public void templateMethodBatched() {
+        // 조회 한번에 2ms 가 걸리는 DB 를 흉내낸다.
+        InMemoryDatabase<Integer, Customer> database = new InMemoryDatabase<>(Duration.ofMillis(2), Duration.ZERO);
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 0; id < 500; id++) {
+            database.put(id, new Customer());
+            ids.add(id);
+        }
+
+        long start = System.nanoTime();
+        ids.forEach(id -> database.get(id)); // 고객 한명마다 조회
+        System.out.printf("one by one : %d round trips, %.1f ms%n",
+                database.roundTripCount(), (System.nanoTime() - start) / 1_000_000.0);
+
+        database.resetStats();
+        try (BatchLoader<Integer, Customer> loader = new BatchLoader<>(database::getAll)) {
+            BatchedOnlineBanking banking = new BatchedOnlineBanking(loader);
+            start = System.nanoTime();
+            banking.processCustomers(ids, (Customer c) -> {});
+            System.out.printf("batched    : %d round trips, %.1f ms%n",
+                    database.roundTripCount(), (System.nanoTime() - start) / 1_000_000.0);
+            banking.processCustomer(1337, (Customer c) -> System.out.println("Hello " + c)); // 없는 고객은 null
+            banking.processCustomer(7, (Customer c) -> System.out.println("Hello again")); // 캐시에서
+            System.out.println(loader);
+        }
+    }
+
     /**
      * ===================================================
      *  3. 옵저버
@@ -194,18 +287,23 @@ public class DesignPatternReFactory {
         void notifyObserver(String tweet);
     }
 
+    static final LatencyHistogram FEED_DISPATCH = MetricsRegistry.shared().histogram("feed.dispatch");
+
     // 주제는 registerObserver 메서드로 새로운 옵저를 등록하고 notifyObserver메서드로 트윗의 옵저버에 이를 알린다.
     class Feed implements Subject {
         // 이제 Feed는 트윗을 받았을때 알림을 보낼 옵저버 리스트를 유지한다.
         // 이제 이렇게 구성함으로서 주제와 옵저버를 연결하는 데모 애플리케이션을 만들수있다.
-        private final List<Observer> observerList = new ArrayList<>();
+        // 알림 도중에 다른 스레드가 옵저버를 등록해도 안전하도록 CopyOnWriteArrayList 를 사용한다. (등록은 드물고 알림은 잦다)
+        private final List<Observer> observerList = new CopyOnWriteArrayList<>();
 
         public void registerObserver(Observer o) {
             this.observerList.add(o);
         }
 
         public void notifyObserver(String tweet) {
+            long start = System.nanoTime();
             observerList.forEach(o->o.notify(tweet));
+            FEED_DISPATCH.recordSince(start); // 트윗 하나를 모든 옵저버에게 전달하는데 걸린 시간
         }
     }
 
@@ -244,6 +342,33 @@ public class DesignPatternReFactory {
         // 여러 메서드를 정의하는 복잡한 구조가된다고하면 이러한 람다표현식 보다 클래스 구현방식이 더 현명하다.
     }
 
+    public void KeywordObserverUseMethod() {
+        // 옵저버마다 tweet.contains(keyword) 를 하는 대신 키워드로 구독한다.
+        // 트윗은 한번만 훑고(Aho-Corasick) 키워드가 들어있는 옵저버에게만 전달된다.
+        KeywordFeed feed = new KeywordFeed();
+        feed.registerObserver("money", tweet -> System.out.println("Breaking news in Ny" + tweet));
+        feed.registerObserver("queen", tweet -> System.out.println("Breaking news in Guardian" + tweet));
+        feed.registerObserver("wine", tweet -> System.out.println("Breaking news in LeMond" + tweet));
+        feed.notifyObserver("The queen said her Favourite book is Modern Java In Action");
+    }
+
+    public void AsyncObserverUseMethod() {
+        // 초당 수만건의 트윗을 발행하는 경우 옵저버 하나가 느리면 발행자 전체가 느려진다.
+        // AsyncFeed 는 발행한 트윗을 링버퍼에 넣기만 하고 전달은 그룹별 소비자 스레드가 한다.
+        try (AsyncFeed feed = new AsyncFeed()) {
+            feed.registerObserver(new NYTimes());
+            feed.registerObserver(new Guardian());
+            // 느린 옵저버는 별도 그룹으로 분리한다. 버퍼가 차면 샘플링해서 발행자를 막지 않는다.
+            AsyncFeed.ObserverGroup archive = feed.newGroup("archive", 1024, 1, AsyncFeed.BackpressurePolicy.SAMPLE);
+            archive.registerObserver((AsyncFeed.BatchObserver) tweets -> System.out.println("archived " + tweets.size()));
+            archive.registerObserver(new LeMond());
+
+            feed.notifyObserver("The queen said her Favourite book is Modern Java In Action");
+            feed.notifyObserver("Inflation: money is losing value");
+            feed.flush();
+        }
+    }
+
 
     /**
      * ===================================================
@@ -302,6 +427,18 @@ public class DesignPatternReFactory {
             return text.replaceAll("labda","lambda");
         }
     }
+    // 큰 문서용 : 단계마다 문서 전체를 복사하지 않고 조각(segment)만 고친다. String 은 마지막에 한번만 만든다.
+    class HeaderSegmentProcessing extends ProcessingObject<SegmentedText> {
+        public SegmentedText handleWork(SegmentedText text) {
+            return text.prepend("From Raoul , Mario and Alan: ");
+        }
+    }
+    class SpellCheckerSegmentProcessing extends ProcessingObject<SegmentedText> {
+        public SegmentedText handleWork(SegmentedText text) {
+            text.replace("labda", "lambda"); // replaceAll 의 정규식이 리터럴이므로 리터럴 치환과 같다.
+            return text;
+        }
+    }
     public void jobChain(){
         ProcessingObject<String> p1 = new HeaderTextProcessing();
         ProcessingObject<String> p2 = new SpellCheckerProcessing();
@@ -310,6 +447,26 @@ public class DesignPatternReFactory {
         System.out.println(result);
     }
 
+    public void jobChainCompiled(){
+        // 재귀 handle 대신 체인을 배열로 펼쳐서 실행하고 단계별 시간/처리량을 잰다.
+        ProcessingObject<String> p1 = new HeaderTextProcessing();
+        p1.setSuccessor(new SpellCheckerProcessing());
+        ChainExecutor<String> chain = ChainExecutor.compile(p1);
+        List<String> results = chain.handle(List.of("Aren't labdas really sexy?!!", "labdas everywhere"));
+        System.out.println(results);
+        System.out.println(chain); // HeaderTextProcessing: ... -> SpellCheckerProcessing: ... (단계별 비율)
+        System.out.println(chain.slowestStage());
+        chain.exportTo(MetricsRegistry.shared(), "chain.text"); // 단계별 지연시간 분포를 공용 지표로 노출
+        System.out.println(chain.stageBatchLatency(1).snapshot()); // SpellCheckerProcessing 배치당 p50/p99 ...
+    }
+
+    public void jobChainSegmented(){
+        ProcessingObject<SegmentedText> p1 = new HeaderSegmentProcessing();
+        p1.setSuccessor(new SpellCheckerSegmentProcessing());
+        String result = p1.handle(new SegmentedText("Aren't labdas really sexy?!!")).toString();
+        System.out.println(result);
+    }
+
     /**
      * 위에 jobChain메서드를 람다표현식으로 리팩터링
      * 해당 패턴은 함수체인(함수조합)과 비슷하다.
@@ -378,6 +535,11 @@ public class DesignPatternReFactory {
             }
             throw new RuntimeException("No such product " + name);
         }
+
+        // 4. 번호로 생성 (switch 도 해시 조회도 없다)
+        public static Product createProduct(int ordinal) {
+            return productRegistry.create(ordinal);
+        }
     }
 
     // 3. LamDa를 이용한 방식
@@ -390,6 +552,13 @@ public class DesignPatternReFactory {
         p3map.put("bond",Bond::new);
     }
 
+    // 4. 번호(ordinal)로 생성하는 방식
+    // Bond 는 생성 비용이 크다고 가정하고 최대 64개까지 재사용 풀에 둔다.
+    final static ProductRegistry<Product> productRegistry = new ProductRegistry<>();
+    final static int LOAN = productRegistry.register("loan", Loan::new);
+    final static int STOCK = productRegistry.register("Stock", Stock::new);
+    final static int BOND = productRegistry.registerPooled("bond", Bond::new, null, 64);
+
     public void FactoryMainMethod(){
         // ProductFactory 클래스를 통해 생성자와 설정을 외부로 노출하지 않음으로
         // 클라이언트가 단순하게 원하는 상품만 명시해주면 return으로 해당상품을 생산가능하다.
@@ -403,6 +572,13 @@ public class DesignPatternReFactory {
         
         // 3. LamDa를 이용한 방식
         Product p3 = ProductFactory.createProductRamda("loan");
+
+        // 4. 이름은 번호로 한번만 바꾸고 이후에는 배열 인덱스로 생성한다. 풀을 쓰는 상품은 꺼내 쓰고 돌려놓는다.
+        int loan = productRegistry.ordinalOf("loan");
+        Product p4 = ProductFactory.createProduct(loan);
+        Product p5 = productRegistry.acquire(BOND);
+        productRegistry.release(BOND, p5);
+        System.out.println(productRegistry.stats(BOND));
     }
 
 }
@@ -0,0 +1,206 @@
+package com.modern.exec;
+
+import com.modern.metrics.MetricsRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class DigestCache {
+    /**
+     * CacheExample 의 HashMap + 공유 MessageDigest 조합을 대체하는 스레드 안전 다이제스트 캐시
+     *  1. MessageDigest 는 스레드 안전하지 않다. 그래서 ThreadLocal 로 스레드마다 하나씩 가지도록 한다.
+     *  2. 키 공간을 여러 세그먼트(스트라이프)로 나누고 세그먼트마다 락을 둔다. 전역 락 하나로 모든 요청 스레드를 줄세우지 않는다.
+     *  3. 각 세그먼트는 접근순서(accessOrder) LinkedHashMap 이다. 가장 오래 사용되지 않은 항목부터 축출(LRU)하고
+     *     전체 크기는 maximumSize 를 넘지 않는다.
+     *  4. 다이제스트 계산은 락 밖에서 한다. 같은 키를 두 스레드가 동시에 계산할수는 있지만 결과가 같으니 먼저 넣은 값을 쓴다.
+     *  5. hit / miss / eviction 횟수는 경합이 적은 LongAdder 로 센다.
+     *
+     * ※ 반환되는 byte[] 는 캐시가 들고있는 배열 그대로다. 호출자는 내용을 수정하면 안된다.
+     * */
+
+    public static final String DEFAULT_ALGORITHM = "SHA-256";
+
+    private final ThreadLocal<MessageDigest> digests;
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public DigestCache(long maximumSize) {
+        this(DEFAULT_ALGORITHM, maximumSize, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    public DigestCache(String algorithm, long maximumSize, int concurrencyLevel) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        newDigest(algorithm); // 존재하지 않는 알고리즘이면 생성 시점에 바로 실패시킨다.
+        this.digests = ThreadLocal.withInitial(() -> newDigest(algorithm));
+
+        int segmentCount = Integer.highestOneBit(Math.max(1, Math.min(concurrencyLevel, 1 << 16)) * 2 - 1);
+        while (segmentCount > 1 && segmentCount > maximumSize) {
+            segmentCount >>>= 1;
+        }
+        int perSegment = (int) Math.min(Integer.MAX_VALUE, (maximumSize + segmentCount - 1) / segmentCount);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+        this.segmentMask = segmentCount - 1;
+    }
+
+    private static MessageDigest newDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("No such digest algorithm " + algorithm, e);
+        }
+    }
+
+    /**
+     * 캐시에 값이 있으면 그대로 반환하고 없으면 다이제스트를 계산해 저장한 뒤 반환한다.
+     * Map.computeIfAbsent(key, this::calculateDigest) 와 같은 의미다.
+     * */
+    public byte[] computeIfAbsent(String key) {
+        Segment segment = segmentFor(key);
+        byte[] cached = segment.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        byte[] digest = digest(key);
+        return segment.putIfAbsent(key, digest);
+    }
+
+    public byte[] getIfPresent(String key) {
+        byte[] cached = segmentFor(key).get(key);
+        if (cached != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return cached;
+    }
+
+    /* 캐시를 거치지 않고 현재 스레드의 MessageDigest 로 바로 계산한다. */
+    public byte[] digest(String key) {
+        return digests.get().digest(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 1.0 : (double) h / total;
+    }
+
+    /* prefix.hits, prefix.misses, prefix.evictions 누적 카운터와 prefix.hitRate, prefix.size 게이지를 등록한다. */
+    public void bindTo(MetricsRegistry registry, String prefix) {
+        registry.functionCounter(prefix + ".hits", this::hitCount);
+        registry.functionCounter(prefix + ".misses", this::missCount);
+        registry.functionCounter(prefix + ".evictions", this::evictionCount);
+        registry.gauge(prefix + ".hitRate", this::hitRate);
+        registry.gauge(prefix + ".size", this::size);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DigestCache[size=%d, hits=%d, misses=%d, evictions=%d, hitRate=%.3f]",
+                size(), hitCount(), missCount(), evictionCount(), hitRate());
+    }
+
+    private Segment segmentFor(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16); // HashMap 과 같은 방식으로 상위비트를 섞는다.
+        return segments[h & segmentMask];
+    }
+
+    // 세그먼트 하나 = 락 하나 + LRU 맵 하나
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, byte[]> entries;
+
+        Segment(int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        byte[] get(String key) {
+            lock.lock();
+            try {
+                return entries.get(key); // accessOrder 라서 get 도 LRU 순서를 갱신한다.
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        byte[] putIfAbsent(String key, byte[] value) {
+            lock.lock();
+            try {
+                byte[] previous = entries.putIfAbsent(key, value);
+                return previous != null ? previous : value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                entries.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
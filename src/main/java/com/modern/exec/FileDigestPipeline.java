@@ -0,0 +1,190 @@
+package com.modern.exec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+public class FileDigestPipeline {
+    /**
+     * 여러 GB 짜리 행(line) 단위 파일을 해싱하는 파이프라인
+     *  1. 파일 전체를 List<String> 으로 읽지 않고 FileChannel.map 으로 메모리 매핑한다. (데이터는 힙이 아닌 페이지 캐시에 있다)
+     *  2. 파일을 chunkSize 근처에서 개행문자('\n') 기준으로 잘라 청크의 경계가 항상 행의 경계와 일치하도록 한다.
+     *  3. 청크들은 코어 수만큼의 스레드에서 병렬로 처리한다.
+     *  4. 각 행은 DigestCache.computeIfAbsent 를 거치기 때문에 이미 본 행은 다시 계산하지 않는다.
+     *  캐시 크기가 제한되어 있고 청크는 힙 밖에 매핑되므로 파일 크기와 상관없이 힙 사용량은 일정하게 유지된다.
+     * */
+
+    public static final long DEFAULT_CHUNK_SIZE = 64L << 20; // 64MB
+
+    private static final long MIN_CHUNK_SIZE = 1L << 20; // 1MB
+    private static final int BOUNDARY_SCAN_SIZE = 8 * 1024;
+
+    private final DigestCache cache;
+    private final long chunkSize;
+    private final int parallelism;
+
+    public FileDigestPipeline(DigestCache cache) {
+        this(cache, DEFAULT_CHUNK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    public FileDigestPipeline(DigestCache cache, long chunkSize, int parallelism) {
+        if (chunkSize <= 0 || chunkSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("chunkSize must be in (0, Integer.MAX_VALUE]: " + chunkSize);
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.cache = cache;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    public Result hash(Path file) throws IOException {
+        return hash(file, null);
+    }
+
+    /**
+     * lineSink 가 null 이 아니면 행마다 (행, 다이제스트)를 전달한다.
+     * 여러 스레드에서 동시에 호출되므로 lineSink 는 스레드 안전해야 한다.
+     * */
+    public Result hash(Path file, BiConsumer<String, byte[]> lineSink) throws IOException {
+        long start = System.nanoTime();
+        long hitsBefore = cache.hitCount();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<long[]> chunks = split(channel);
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, chunks.size())));
+            try {
+                List<Future<Long>> futures = new ArrayList<>(chunks.size());
+                for (long[] chunk : chunks) {
+                    futures.add(executor.submit(() -> hashChunk(channel, chunk[0], chunk[1], lineSink)));
+                }
+                long lines = 0;
+                for (Future<Long> future : futures) {
+                    lines += future.get();
+                }
+                return new Result(channel.size(), lines, cache.hitCount() - hitsBefore, System.nanoTime() - start);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while hashing " + file, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof UncheckedIOException io) {
+                    throw io.getCause();
+                }
+                throw new IOException("Failed to hash " + file, e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    // 파일을 [start, end) 청크로 나눈다. end 는 항상 '\n' 바로 다음 위치(또는 파일 끝)이다.
+    private List<long[]> split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        // 작은 파일도 모든 코어를 쓰도록 스레드당 청크가 4개 정도 나오게 줄인다. (너무 잘게 쪼개지지는 않게 1MB 하한)
+        long effectiveChunkSize = Math.min(chunkSize, Math.max(MIN_CHUNK_SIZE, size / (parallelism * 4L)));
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer scan = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(start + effectiveChunkSize, size);
+            end = nextLineStart(channel, end, size, scan);
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IOException("Line starting near offset " + start + " is longer than " + Integer.MAX_VALUE + " bytes");
+            }
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer scan) throws IOException {
+        if (position >= size) {
+            return size;
+        }
+        // position 바로 앞 바이트가 개행이면 이미 행 경계다.
+        long from = position - 1;
+        while (from < size) {
+            scan.clear();
+            int read = channel.read(scan, from);
+            if (read <= 0) {
+                return size;
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return from + i + 1;
+                }
+            }
+            from += read;
+        }
+        return size;
+    }
+
+    private long hashChunk(FileChannel channel, long start, long end, BiConsumer<String, byte[]> lineSink) {
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int limit = buffer.limit();
+        byte[] scratch = new byte[256];
+        long lines = 0;
+        int lineStart = 0;
+        for (int i = 0; i <= limit; i++) {
+            if (i < limit && buffer.get(i) != '\n') {
+                continue;
+            }
+            int lineEnd = i;
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            if (i < limit || lineEnd > lineStart) { // 마지막 개행 뒤 빈 행은 행으로 세지 않는다.
+                int length = lineEnd - lineStart;
+                if (scratch.length < length) {
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                }
+                buffer.get(lineStart, scratch, 0, length);
+                String line = new String(scratch, 0, length, StandardCharsets.UTF_8);
+                byte[] digest = cache.computeIfAbsent(line);
+                if (lineSink != null) {
+                    lineSink.accept(line, digest);
+                }
+                lines++;
+            }
+            lineStart = i + 1;
+        }
+        return lines;
+    }
+
+    /**
+     * 해싱 결과
+     *  cacheHits 는 이미 캐시에 있어서 계산을 건너뛴 행 수다. (같은 캐시를 동시에 쓰는 다른 작업이 있으면 그 값도 섞인다)
+     * */
+    public record Result(long bytes, long lines, long cacheHits, long elapsedNanos) {
+
+        public double megabytesPerSecond() {
+            if (elapsedNanos == 0) {
+                return 0;
+            }
+            return (bytes / (1024.0 * 1024.0)) / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d bytes, %,d lines (%,d cached) in %.1f ms -> %.1f MB/s",
+                    bytes, lines, cacheHits, elapsedNanos / 1_000_000.0, megabytesPerSecond());
+        }
+    }
+}
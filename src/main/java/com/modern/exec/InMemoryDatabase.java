@@ -0,0 +1,83 @@
+package com.modern.exec;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public class InMemoryDatabase<K, V> {
+    /**
+     * 지연시간을 흉내내는 메모리 DB (예제용 Database 대신)
+     *  조회 한번(round trip)마다 roundTripLatency, 키 하나마다 perKeyLatency 만큼 기다린다.
+     *  실제 저장소처럼 키 하나씩 N 번 조회하면 round trip 이 N 번이고, getAll 로 한번에 조회하면 한번이다.
+     *  BatchLoader 를 붙였을때 얼마나 빨라지는지 로컬에서 재볼 수 있다.
+     * */
+
+    private final Map<K, V> rows = new ConcurrentHashMap<>();
+    private final long roundTripNanos;
+    private final long perKeyNanos;
+    private final LongAdder roundTrips = new LongAdder();
+    private final LongAdder keysRead = new LongAdder();
+
+    public InMemoryDatabase(Duration roundTripLatency, Duration perKeyLatency) {
+        if (roundTripLatency.isNegative() || perKeyLatency.isNegative()) {
+            throw new IllegalArgumentException("latency must not be negative");
+        }
+        this.roundTripNanos = roundTripLatency.toNanos();
+        this.perKeyNanos = perKeyLatency.toNanos();
+    }
+
+    public void put(K key, V value) {
+        rows.put(key, value);
+    }
+
+    /* 없는 키는 null */
+    public V get(K key) {
+        simulateLatency(1);
+        return rows.get(key);
+    }
+
+    /* 한번의 round trip 으로 여러 키를 조회한다. 없는 키는 결과에 들어가지 않는다. */
+    public Map<K, V> getAll(Collection<? extends K> keys) {
+        simulateLatency(keys.size());
+        Map<K, V> result = new HashMap<>();
+        for (K key : keys) {
+            V value = rows.get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public long roundTripCount() {
+        return roundTrips.sum();
+    }
+
+    public long keysReadCount() {
+        return keysRead.sum();
+    }
+
+    public void resetStats() {
+        roundTrips.reset();
+        keysRead.reset();
+    }
+
+    private void simulateLatency(int keys) {
+        roundTrips.increment();
+        keysRead.add(keys);
+        long deadline = System.nanoTime() + roundTripNanos + perKeyNanos * keys;
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(10)));
+        }
+    }
+}
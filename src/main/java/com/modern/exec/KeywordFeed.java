@@ -0,0 +1,164 @@
+package com.modern.exec;
+
+import com.modern.datastructure.AhoCorasick;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class KeywordFeed implements DesignPatternReFactory.Subject {
+    /**
+     * 키워드로 구독하는 Feed
+     *  NYTimes, Guardian, LeMond 처럼 옵저버마다 tweet.contains(keyword) 를 하면 트윗 하나당 비용이 옵저버 수에 비례한다.
+     *  KeywordFeed 는 구독한 키워드 전체로 Aho-Corasick 오토마톤을 만들어 트윗을 한번만 훑고
+     *  일치한 키워드를 구독한 옵저버에게만 전달한다.
+     *
+     *  ● registerObserver(keyword, o) : 트윗에 keyword 가 들어있을때만 전달된다.
+     *  ● registerObserver(o) : 키워드 없이 모든 트윗을 받는다. (기존 Feed 와 같다)
+     *  ● 여러 키워드가 한 트윗에 나와도 옵저버 하나에는 한번만 전달한다.
+     *  ● 이미 있는 키워드에 옵저버를 추가/삭제하면 구독자 목록만 바뀐다. 새 키워드가 생기거나 키워드가 없어질때만
+     *    오토마톤이 바뀌고, 링크 재계산은 다음 트윗에서 한번만 한다. (구독을 몰아서 해도 재계산은 한번)
+     *  ● 트윗 알림은 읽기 락으로 여러 스레드에서 동시에 가능하고 구독 변경만 쓰기 락을 잡는다.
+     *    키워드 id 찾기와 id -> 구독자 조회는 같은 읽기 락 안에서 한다. (그 사이에 해지된 id 가 다른 키워드에 재사용될수 있다)
+     * */
+
+    private final AhoCorasick automaton = new AhoCorasick();
+    private final List<List<DesignPatternReFactory.Observer>> subscribers = new ArrayList<>(); // 키워드 id -> 옵저버
+    private final List<DesignPatternReFactory.Observer> allTweets = new CopyOnWriteArrayList<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /* 모든 트윗을 받는 옵저버 */
+    @Override
+    public void registerObserver(DesignPatternReFactory.Observer o) {
+        allTweets.add(o);
+    }
+
+    public void registerObserver(String keyword, DesignPatternReFactory.Observer o) {
+        if (o == null) {
+            throw new IllegalArgumentException("observer must not be null");
+        }
+        lock.writeLock().lock();
+        try {
+            int id = automaton.add(keyword);
+            while (subscribers.size() <= id) {
+                subscribers.add(null);
+            }
+            List<DesignPatternReFactory.Observer> observers = subscribers.get(id);
+            if (observers == null) {
+                observers = new CopyOnWriteArrayList<>();
+                subscribers.set(id, observers);
+            }
+            observers.add(o);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /* 키워드의 마지막 구독자가 빠지면 키워드도 오토마톤에서 지운다. */
+    public boolean unregisterObserver(String keyword, DesignPatternReFactory.Observer o) {
+        lock.writeLock().lock();
+        try {
+            int id = automaton.idOf(keyword);
+            if (id < 0 || !subscribers.get(id).remove(o)) {
+                return false;
+            }
+            if (subscribers.get(id).isEmpty()) {
+                subscribers.set(id, null);
+                automaton.remove(keyword);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean unregisterObserver(DesignPatternReFactory.Observer o) {
+        return allTweets.remove(o);
+    }
+
+    @Override
+    public void notifyObserver(String tweet) {
+        allTweets.forEach(o -> o.notify(tweet));
+        if (tweet == null) {
+            return;
+        }
+        for (DesignPatternReFactory.Observer observer : matchingObservers(tweet)) {
+            observer.notify(tweet);
+        }
+    }
+
+    /* tweet 에 들어있는 키워드를 구독한 옵저버들 (중복 없음, 키워드 없이 등록한 옵저버는 제외) */
+    public List<DesignPatternReFactory.Observer> matchingObservers(String tweet) {
+        lockBuilt();
+        try {
+            int[] ids = automaton.matchIds(tweet);
+            if (ids.length == 0) {
+                return Collections.emptyList();
+            }
+            if (ids.length == 1) {
+                List<DesignPatternReFactory.Observer> observers = subscribers.get(ids[0]);
+                return observers == null ? Collections.emptyList() : Collections.unmodifiableList(observers);
+            }
+            Set<DesignPatternReFactory.Observer> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            List<DesignPatternReFactory.Observer> result = new ArrayList<>();
+            for (int id : ids) {
+                List<DesignPatternReFactory.Observer> observers = subscribers.get(id);
+                if (observers != null) {
+                    for (DesignPatternReFactory.Observer observer : observers) {
+                        if (seen.add(observer)) {
+                            result.add(observer);
+                        }
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* tweet 에 들어있는 구독 키워드들 */
+    public List<String> matchingKeywords(String tweet) {
+        lockBuilt();
+        try {
+            int[] ids = automaton.matchIds(tweet);
+            List<String> result = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                result.add(automaton.keyword(id));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int keywordCount() {
+        lock.readLock().lock();
+        try {
+            return automaton.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 링크가 계산된 오토마톤의 읽기 락을 잡고 돌아온다. 호출한 쪽에서 readLock().unlock() 한다.
+    private void lockBuilt() {
+        lock.readLock().lock();
+        if (!automaton.isDirty()) {
+            return;
+        }
+        lock.readLock().unlock();
+        // 구독이 바뀐 뒤 첫 트윗 : 쓰기 락을 잡고 링크를 다시 계산한다.
+        lock.writeLock().lock();
+        try {
+            automaton.build();
+            lock.readLock().lock(); // 쓰기 락을 놓기 전에 읽기 락으로 내려간다. (그 사이에 구독이 바뀌지 않는다)
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
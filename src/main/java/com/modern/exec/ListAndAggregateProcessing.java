@@ -1,5 +1,7 @@
 package com.modern.exec;
 
+import com.modern.datastructure.ChunkedConcurrentList;
+
 import javax.sql.rowset.spi.TransactionalWriter;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -53,6 +55,20 @@ public class ListAndAggregateProcessing {
         list.removeIf(s-> Character.isDigit(s.charAt(0)));
     }
 
+    /**
+     * 여러 스레드가 같이 쓰는 리스트라면 ChunkedConcurrentList 를 사용한다.
+     * iterator 는 만들때의 버전(스냅샷)을 순회하기 때문에 for-each 안에서 list.remove 를 호출해도 예외가 발생하지 않는다.
+     * CopyOnWriteArrayList 와 같은 방식이지만 쓸때마다 배열 전체가 아니라 바뀌는 청크(최대 64개)만 복사한다.
+     * */
+    public void concurrentReferenceRemove() {
+        List<String> list = new ChunkedConcurrentList<>(Arrays.asList("1","a","2","b","3"));
+        for (String s : list) {
+            if (Character.isDigit(s.charAt(0))) {
+                list.remove(s); // 순회중인 스냅샷은 그대로고 리스트에서만 지워진다.
+            }
+        }
+    }
+
     public void listReplaceAll() {
         // replaceAll메서드를 이용해 요소를 바꿀수있다.
         List<String> referenceCodes = Arrays.asList("a12", "C14", "b13");
@@ -73,4 +89,21 @@ public class ListAndAggregateProcessing {
         /* 간단하게 replaceAll사용 */
         referenceCodes.replaceAll(r-> Character.toUpperCase(r.charAt(0)) + r.substring(1));
     }
+
+    /**
+     * 요소가 수천만개인 ArrayList 나 기본형 배열은 ParallelBulkOps 로 같은 작업을 여러 코어에서 제자리 처리한다.
+     * 스트림처럼 결과를 새 컬렉션에 모으지 않으므로 복사본이 생기지 않는다. (작은 리스트는 그냥 한 스레드에서 처리한다)
+     * amounts 는 앞쪽으로 당겨지므로 남은 개수를 반환한다. (amounts[0 ~ 반환값) 이 결과)
+     * */
+    public int parallelBulkProcessing(List<String> referenceCodes, int[] amounts) {
+        ParallelBulkOps bulk = new ParallelBulkOps(AdaptiveQueryExecutor.shared());
+        bulk.removeIf(referenceCodes, s -> Character.isDigit(s.charAt(0)));
+        bulk.replaceAll(referenceCodes, r -> Character.toUpperCase(r.charAt(0)) + r.substring(1));
+        bulk.sort(referenceCodes, null);
+
+        int length = bulk.removeIf(amounts, amount -> amount <= 0); // amounts[0 ~ length) 에 남는다
+        bulk.replaceAll(amounts, 0, length, amount -> amount * 2);
+        bulk.sort(amounts, 0, length);
+        return length;
+    }
 }
@@ -1,5 +1,9 @@
 package com.modern.exec;
 
+import com.modern.datastructure.ConcurrentMultimap;
+import com.modern.datastructure.FrozenMap;
+import com.modern.datastructure.LongCounterMap;
+
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -57,6 +61,19 @@ public class MapProcess {
         System.out.println(movies.getOrDefault("JavaKing","Matrix"));
     }
 
+    /**
+     * 항목이 수십만개인 상수 조회 테이블은 FrozenMap 으로 만든다.
+     * Map.ofEntries 와 같은 방식으로 만들고 getOrDefault 도 같지만, 항목 객체 없이 정렬된 배열만 사용해서 메모리가 적고
+     * 조회할때 int 해시를 먼저 비교하기 때문에 equals 호출이 적다.
+     * */
+    public void frozenGetOrDefaultMethod(){
+        Map<String,String> movies = FrozenMap.ofEntries(entry("Raphael","Star Wars"),
+                entry("Cristina","Matrix"),
+                entry("Olivia","James Bond"));
+        System.out.println(movies.getOrDefault("Olivia","Matrix"));
+        System.out.println(movies.getOrDefault("JavaKing","Matrix"));
+    }
+
     public void calculatePattern () throws NoSuchAlgorithmException {
         /**
          * 계산패턴 (CacheExample클래스 참조)
@@ -80,6 +97,13 @@ public class MapProcess {
         friendsToMovies.computeIfAbsent("Raphael",name -> new ArrayList<>())
                 .add("Star Wars");
         // 반대로 computeIfPresent 현재 키와 관련된값(내가 지정한 키값)이 맵에 존재하면 null이 아닌경우만 새값을 계산한다.
+
+        // ※ HashMap + ArrayList 조합은 스레드 안전하지 않고 값이 몇개 안되는 키에도 ArrayList 를 하나씩 만든다.
+        // 여러 스레드에서 수백만 키를 모은다면 ConcurrentMultimap 을 사용한다. (get 은 복사하지 않는 읽기 전용 뷰)
+        ConcurrentMultimap<String, String> friendsToMovies2 = new ConcurrentMultimap<>();
+        friendsToMovies2.put("Raphael", "Star Wars");
+        friendsToMovies2.putAll("Raphael", List.of("Matrix", "James Bond"));
+        List<String> raphaelMovies = friendsToMovies2.get("Raphael");
     }
 
     public void removePattern() {
@@ -168,6 +192,13 @@ public class MapProcess {
         // 두번째 인수 1L -> 자바독에 따르면 해당 인수는 키와 연관된 기존 값에 합쳐질 널이 아닌 값 또는 값이 없거나 null값이 연관되어 있다면
         // 해당 값을 key와 연결한다. (즉,간단히 말에 moviesName라는 키값이 존재하지않으면 2번째 인수로 매핑시킨다는 말이다.초기화라 봐도 된다. )
         // 만얌 moviesName라는 키값이 존재한다면 중복이니 value값을 cnt + 1로 초기화 한다는 의미다.
+
+        // ※ merge 로 세는 방식은 증가할때마다 Long 을 박싱한다. 수십억번 세야한다면 long 전용 맵을 사용한다.
+        // (여러 스레드에서 동시에 센다면 StripedLongCounterMap)
+        LongCounterMap moviesToCount2 = new LongCounterMap();
+        moviesToCount2.increment(moviesName);
+        moviesToCount2.addTo(moviesName, 1L);
+        moviesToCount2.forEach((movie, cnt) -> System.out.println(movie + " : " + cnt));
         
     }
 
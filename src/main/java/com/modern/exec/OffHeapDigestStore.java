@@ -0,0 +1,404 @@
+package com.modern.exec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+public class OffHeapDigestStore implements AutoCloseable {
+    /**
+     * 고정 길이(기본 32바이트) 다이제스트를 힙 밖(off-heap)에 빽빽하게 저장하는 저장소
+     *  HashMap<String, byte[]> 는 항목마다 HashMap.Node + String + byte[] 객체가 생긴다. 수천만 건이 되면 객체 헤더와
+     *  참조만으로도 메모리를 크게 차지하고 GC 가 살아있는 객체를 계속 훑어야 한다.
+     *
+     *  1. 레코드는 direct ByteBuffer 슬랩(slab)에 [키 길이(int)][키 UTF-8 바이트][다이제스트] 형태로 이어서 쓴다.
+     *  2. 키 인덱스는 오픈 어드레싱(선형 탐사) 테이블이다. 레코드 주소(long[])와 키 해시(int[]) 두 배열뿐이라 항목당 객체가 없다.
+     *  3. flush 로 슬랩 내용을 파일에 쓰고 load 로 파일을 다시 메모리 매핑한다.
+     *     다이제스트는 다시 계산하지 않고 가벼운 키 해시로 인덱스만 재구성하기 때문에 재시작한 노드가 따뜻한(warm) 상태로 시작한다.
+     *     매핑된 슬랩은 읽기 전용이고 이후 추가되는 레코드는 새 direct 슬랩에 쓴다.
+     *  4. close() 뒤에는 모든 조회/추가/flush 가 IllegalStateException 을 던진다.
+     * */
+
+    public static final int DEFAULT_DIGEST_LENGTH = 32;
+    public static final int DEFAULT_SLAB_SIZE = 16 << 20; // 16MB
+
+    private static final int MAGIC = 0x44494753; // "DIGS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 8; // magic, version, digestLength, slabCount, recordCount
+    private static final int INITIAL_INDEX_CAPACITY = 1 << 10;
+
+    private final int digestLength;
+    private final int slabSize;
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private ByteBuffer current; // 쓰기 가능한 마지막 슬랩
+    private long[] addresses;   // (슬랩 번호 << 32 | 오프셋) + 1, 0 이면 빈 칸
+    private int[] hashes;
+    private long size;
+    private boolean closed;
+
+    public OffHeapDigestStore() {
+        this(DEFAULT_DIGEST_LENGTH, DEFAULT_SLAB_SIZE);
+    }
+
+    public OffHeapDigestStore(int digestLength, int slabSize) {
+        if (digestLength <= 0) {
+            throw new IllegalArgumentException("digestLength must be positive: " + digestLength);
+        }
+        if (slabSize < 4 + digestLength) {
+            throw new IllegalArgumentException("slabSize too small: " + slabSize);
+        }
+        this.digestLength = digestLength;
+        this.slabSize = slabSize;
+        this.addresses = new long[INITIAL_INDEX_CAPACITY];
+        this.hashes = new int[INITIAL_INDEX_CAPACITY];
+    }
+
+    /**
+     * flush 로 저장한 파일을 매핑해서 저장소를 복구한다.
+     * 파일은 READ_ONLY 로 매핑되기 때문에 반환된 저장소가 살아있는 동안 파일을 덮어쓰면 안된다. (flush 는 임시파일 후 교체로 처리)
+     * 헤더나 레코드가 파일 크기와 맞지 않으면 IOException
+     * */
+    public static OffHeapDigestStore load(Path file) throws IOException {
+        return load(file, DEFAULT_SLAB_SIZE);
+    }
+
+    public static OffHeapDigestStore load(Path file, int slabSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a digest store file: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported digest store version " + version + ": " + file);
+            }
+            int digestLength = header.getInt();
+            int slabCount = header.getInt();
+            long recordCount = header.getLong();
+            long fileSize = channel.size();
+            // 레코드 하나는 최소 4 + digestLength 바이트다. 헤더가 깨졌으면 인덱스를 만들기 전에 걸러낸다.
+            if (digestLength <= 0 || slabCount < 0 || recordCount < 0
+                    || recordCount > (fileSize - HEADER_SIZE) / (4L + digestLength)) {
+                throw new IOException("Corrupt digest store header: " + file);
+            }
+
+            OffHeapDigestStore store = new OffHeapDigestStore(digestLength, Math.max(slabSize, 4 + digestLength));
+            store.ensureIndexCapacity(recordCount);
+            long position = HEADER_SIZE;
+            ByteBuffer length = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            for (int slab = 0; slab < slabCount; slab++) {
+                length.clear();
+                readFully(channel, length, position);
+                int used = length.flip().getInt();
+                position += 4;
+                if (used < 0 || position + used > fileSize) {
+                    throw new IOException("Corrupt digest store, slab " + slab + " runs past the end of " + file);
+                }
+                ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, used)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                position += used;
+                store.slabs.add(mapped);
+                store.reindex(slab, mapped, used);
+            }
+            if (store.size != recordCount) {
+                throw new IOException("Corrupt digest store, expected " + recordCount + " records but found " + store.size);
+            }
+            return store;
+        }
+    }
+
+    public int digestLength() {
+        return digestLength;
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            return find(keyBytes, hash(keyBytes)) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* 다이제스트를 dst[offset..] 에 복사한다. 키가 없으면 false (새 배열을 만들지 않는 조회) */
+    public boolean get(String key, byte[] dst, int offset) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            int slot = find(keyBytes, hash(keyBytes));
+            if (slot < 0) {
+                return false;
+            }
+            copyDigest(addresses[slot] - 1, keyBytes.length, dst, offset);
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public byte[] get(String key) {
+        byte[] digest = new byte[digestLength];
+        return get(key, digest, 0) ? digest : null;
+    }
+
+    /* 키가 이미 있으면 아무것도 하지 않고 false 를 반환한다. */
+    public boolean putIfAbsent(String key, byte[] digest) {
+        if (digest.length != digestLength) {
+            throw new IllegalArgumentException("Expected a " + digestLength + " byte digest but got " + digest.length);
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int h = hash(keyBytes);
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            if (find(keyBytes, h) >= 0) {
+                return false;
+            }
+            long address = append(keyBytes, digest);
+            ensureIndexCapacity(size + 1);
+            insert(address, h);
+            size++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Map.computeIfAbsent 와 같은 의미.
+     * 다이제스트 계산은 락 밖에서 하므로 같은 키를 동시에 계산할수는 있지만 먼저 저장된 값이 유지된다.
+     * */
+    public byte[] computeIfAbsent(String key, Function<String, byte[]> digestFunction) {
+        byte[] cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        byte[] digest = digestFunction.apply(key);
+        return putIfAbsent(key, digest) ? digest : get(key);
+    }
+
+    /**
+     * 저장소 내용을 파일로 쓴다.
+     * 같은 디렉터리의 임시파일에 쓰고 교체하기 때문에 중간에 죽어도 이전 파일이 깨지지 않는다.
+     * */
+    public void flush(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(digestLength).putInt(slabs.size()).putLong(size).flip();
+                writeFully(channel, header);
+                ByteBuffer length = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+                for (ByteBuffer slab : slabs) {
+                    int used = used(slab);
+                    length.clear();
+                    length.putInt(used).flip();
+                    writeFully(channel, length);
+                    writeFully(channel, slab.duplicate().position(0).limit(used));
+                }
+                channel.force(true);
+            } catch (IOException e) {
+                Files.deleteIfExists(tmp);
+                throw e;
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* direct 버퍼와 매핑은 GC 때 해제되므로 참조만 끊는다. 두번 불러도 된다. */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            closed = true;
+            slabs.clear();
+            current = null;
+            addresses = new long[INITIAL_INDEX_CAPACITY];
+            hashes = new int[INITIAL_INDEX_CAPACITY];
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.readLock().lock();
+        try {
+            return closed ? "OffHeapDigestStore[closed]" : "OffHeapDigestStore[size=" + size + ", slabs=" + slabs.size() + "]";
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("OffHeapDigestStore is closed");
+        }
+    }
+
+    private int find(byte[] keyBytes, int h) {
+        int mask = addresses.length - 1;
+        for (int i = h & mask; ; i = (i + 1) & mask) {
+            long address = addresses[i];
+            if (address == 0) {
+                return -1;
+            }
+            if (hashes[i] == h && keyEquals(address - 1, keyBytes)) {
+                return i;
+            }
+        }
+    }
+
+    private void insert(long address, int h) {
+        int mask = addresses.length - 1;
+        int i = h & mask;
+        while (addresses[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        addresses[i] = address + 1;
+        hashes[i] = h;
+    }
+
+    // 적재율(load factor)을 0.5 이하로 유지한다. 재배치는 저장된 해시를 쓰므로 키를 다시 읽지 않는다.
+    private void ensureIndexCapacity(long expected) {
+        if (expected * 2 <= addresses.length) {
+            return;
+        }
+        long capacity = addresses.length;
+        while (expected * 2 > capacity) {
+            capacity <<= 1;
+        }
+        if (capacity > 1 << 30) {
+            throw new IllegalStateException("Digest store index is full: " + expected);
+        }
+        long[] oldAddresses = addresses;
+        int[] oldHashes = hashes;
+        addresses = new long[(int) capacity];
+        hashes = new int[(int) capacity];
+        for (int i = 0; i < oldAddresses.length; i++) {
+            if (oldAddresses[i] != 0) {
+                insert(oldAddresses[i] - 1, oldHashes[i]);
+            }
+        }
+    }
+
+    private void reindex(int slabIndex, ByteBuffer slab, int used) throws IOException {
+        int offset = 0;
+        while (offset < used) {
+            int keyLength = used - offset >= 4 ? slab.getInt(offset) : -1;
+            if (keyLength < 0 || keyLength > used - offset - 4 - digestLength) {
+                throw new IOException("Corrupt digest store record at slab " + slabIndex + ", offset " + offset);
+            }
+            long address = ((long) slabIndex << 32) | offset;
+            ensureIndexCapacity(size + 1);
+            insert(address, hash(slab, offset + 4, keyLength));
+            size++;
+            offset += 4 + keyLength + digestLength;
+        }
+    }
+
+    private long append(byte[] keyBytes, byte[] digest) {
+        int recordLength = 4 + keyBytes.length + digestLength;
+        if (current == null || current.remaining() < recordLength) {
+            current = ByteBuffer.allocateDirect(Math.max(slabSize, recordLength)).order(ByteOrder.LITTLE_ENDIAN);
+            slabs.add(current);
+        }
+        long address = ((long) (slabs.size() - 1) << 32) | current.position();
+        current.putInt(keyBytes.length).put(keyBytes).put(digest);
+        return address;
+    }
+
+    private boolean keyEquals(long address, byte[] keyBytes) {
+        ByteBuffer slab = slabs.get((int) (address >>> 32));
+        int offset = (int) address;
+        if (slab.getInt(offset) != keyBytes.length) {
+            return false;
+        }
+        int base = offset + 4;
+        for (int i = 0; i < keyBytes.length; i++) {
+            if (slab.get(base + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void copyDigest(long address, int keyLength, byte[] dst, int offset) {
+        ByteBuffer slab = slabs.get((int) (address >>> 32));
+        slab.get((int) address + 4 + keyLength, dst, offset, digestLength);
+    }
+
+    private int used(ByteBuffer slab) {
+        return slab == current ? current.position() : slab.isReadOnly() ? slab.capacity() : slab.position();
+    }
+
+    // FNV-1a 후 상위비트를 섞는다. 힙 키(byte[])와 슬랩 키(ByteBuffer)가 같은 값을 내야 한다.
+    private static int hash(byte[] bytes) {
+        int h = 0x811c9dc5;
+        for (byte b : bytes) {
+            h = (h ^ b) * 0x01000193;
+        }
+        return mix(h);
+    }
+
+    private static int hash(ByteBuffer buffer, int offset, int length) {
+        int h = 0x811c9dc5;
+        for (int i = 0; i < length; i++) {
+            h = (h ^ buffer.get(offset + i)) * 0x01000193;
+        }
+        return mix(h);
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of digest store file");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
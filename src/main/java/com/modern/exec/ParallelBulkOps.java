@@ -0,0 +1,365 @@
+package com.modern.exec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+public class ParallelBulkOps {
+    /**
+     * removeIf / replaceAll / sort 를 fork/join 으로 나눠서 제자리(in-place)에서 처리한다.
+     *  List.removeIf, replaceAll (ListAndAggregateProcessing) 은 한 스레드에서 돈다.
+     *  스트림으로 병렬 처리하면 filter/map 결과를 새 컬렉션에 모으느라 요소 수만큼 복사본이 생긴다.
+     *
+     *  1. removeIf : 병렬로 지울 요소를 비트(long[], 요소당 1비트)에 표시한 뒤, 한번의 순차 패스로 남길 요소를 앞으로 당긴다.
+     *     구간 경계를 64의 배수로 맞춰서 비트 배열의 한 long 을 두 스레드가 같이 쓰지 않는다.
+     *     표시하는 동안에는 원본을 건드리지 않으므로 predicate 가 예외를 던지면 리스트/배열은 그대로다.
+     *     (당기는 패스는 앞쪽 구간의 쓰기가 뒤쪽 구간의 읽기를 덮을수 있어서 병렬로 하지 않는다. 메모리 대역폭이 한계인 작업이다)
+     *  2. replaceAll : 인덱스 구간을 나눠서 각 워커가 자기 구간에만 쓴다.
+     *  3. sort : 기본형 배열은 Arrays.parallelSort 를 이 풀 안에서 실행한다. (parallelSort 의 fork 는 호출한 풀로 간다)
+     *     List 는 List.sort 처럼 배열로 꺼내 정렬한 뒤 제자리에 다시 쓴다. (ArrayList 내부 배열에는 접근할수 없다)
+     *  4. 작업량이 작으면(AdaptiveQueryExecutor.shouldParallelize) 같은 코드를 호출한 스레드에서 그대로 실행한다.
+     *
+     *  List 는 ArrayList 일때만 병렬로 처리하고, 나머지는 그 리스트의 removeIf / replaceAll / sort 를 호출한다.
+     *  (RandomAccess 만으로는 부족하다. CopyOnWriteArrayList 는 set 마다 배열 전체를 복사해서 O(n^2) 가 되고,
+     *   Arrays.asList 는 크기가 고정이라 당긴 뒤 꼬리를 잘라낼때 예외가 나서 리스트가 반쯤 바뀐채로 남는다)
+     *  처리하는 동안 다른 스레드가 리스트/배열을 바꾸면 안된다. (ConcurrentModificationException 검사도 하지 않는다)
+     *  배열은 (array, from, to) 로 일부 구간만 처리할수 있다. removeIf 로 줄인 배열은 돌려받은 길이까지만 넘긴다.
+     * */
+
+    static final int MIN_CHUNK_SIZE = 1 << 13; // 64 의 배수
+
+    private final AdaptiveQueryExecutor executor;
+
+    public ParallelBulkOps(AdaptiveQueryExecutor executor) {
+        this.executor = Objects.requireNonNull(executor, "executor");
+    }
+
+    /* ------------------------------ List ------------------------------ */
+
+    /* 지운 요소 수를 반환한다. */
+    public <E> int removeIf(List<E> list, Predicate<? super E> filter) {
+        Objects.requireNonNull(filter, "filter");
+        int n = list.size();
+        if (!isArrayList(list) || !executor.shouldParallelize(n, 1)) {
+            return removeIfSequential(list, filter);
+        }
+        long[] removed = new long[words(n)];
+        run(n, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                if (filter.test(list.get(i))) {
+                    removed[i >>> 6] |= 1L << i;
+                }
+            }
+        });
+        int dst = firstMarked(removed, n);
+        if (dst < 0) {
+            return 0;
+        }
+        for (int i = dst + 1; i < n; i++) {
+            if ((removed[i >>> 6] & (1L << i)) == 0) {
+                list.set(dst++, list.get(i));
+            }
+        }
+        list.subList(dst, n).clear(); // ArrayList 는 꼬리를 한번에 잘라낸다. (removeRange)
+        return n - dst;
+    }
+
+    public <E> void replaceAll(List<E> list, UnaryOperator<E> operator) {
+        Objects.requireNonNull(operator, "operator");
+        if (!isArrayList(list) || !executor.shouldParallelize(list.size(), 1)) {
+            list.replaceAll(operator);
+            return;
+        }
+        run(list.size(), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                list.set(i, operator.apply(list.get(i)));
+            }
+        });
+    }
+
+    /* comparator 가 null 이면 자연 순서 (List.sort 와 같다) */
+    @SuppressWarnings("unchecked")
+    public <E> void sort(List<E> list, Comparator<? super E> comparator) {
+        if (!isArrayList(list) || !executor.shouldParallelize(list.size(), 1)) {
+            list.sort(comparator);
+            return;
+        }
+        Object[] a = list.toArray();
+        Comparator<Object> c = (Comparator<Object>) (comparator != null ? comparator : Comparator.naturalOrder());
+        inPool(() -> Arrays.parallelSort(a, c));
+        ListIterator<E> it = list.listIterator();
+        for (Object e : a) {
+            it.next();
+            it.set((E) e);
+        }
+    }
+
+    /* ------------------------------ int[] ------------------------------ */
+
+    /**
+     * 남길 요소를 배열 앞쪽으로 당기고 남은 요소 수(새 길이)를 반환한다.
+     * 새 길이 뒤의 값은 정해지지 않는다. (C++ 의 std::remove_if 와 같다)
+     * */
+    public int removeIf(int[] array, IntPredicate filter) {
+        return removeIf(array, 0, array.length, filter);
+    }
+
+    /* [from, to) 구간만 처리한다. 남길 요소를 from 부터 당기고 새 끝 위치(from + 남은 수)를 반환한다. */
+    public int removeIf(int[] array, int from, int to, IntPredicate filter) {
+        Objects.requireNonNull(filter, "filter");
+        Objects.checkFromToIndex(from, to, array.length);
+        int n = to - from;
+        long[] removed = new long[words(n)];
+        run(n, (lo, hi) -> {
+            for (int i = lo; i < hi; i++) {
+                if (filter.test(array[from + i])) {
+                    removed[i >>> 6] |= 1L << i;
+                }
+            }
+        });
+        int dst = firstMarked(removed, n);
+        if (dst < 0) {
+            return to;
+        }
+        for (int i = dst + 1; i < n; i++) {
+            if ((removed[i >>> 6] & (1L << i)) == 0) {
+                array[from + dst++] = array[from + i];
+            }
+        }
+        return from + dst;
+    }
+
+    public void replaceAll(int[] array, IntUnaryOperator operator) {
+        replaceAll(array, 0, array.length, operator);
+    }
+
+    /* [from, to) 구간만 바꾼다. */
+    public void replaceAll(int[] array, int from, int to, IntUnaryOperator operator) {
+        Objects.requireNonNull(operator, "operator");
+        Objects.checkFromToIndex(from, to, array.length);
+        run(to - from, (lo, hi) -> {
+            for (int i = from + lo, end = from + hi; i < end; i++) {
+                array[i] = operator.applyAsInt(array[i]);
+            }
+        });
+    }
+
+    public void sort(int[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /* [from, to) 구간만 정렬한다. (Arrays.sort(array, from, to) 와 같다) */
+    public void sort(int[] array, int from, int to) {
+        Objects.checkFromToIndex(from, to, array.length);
+        if (!executor.shouldParallelize(to - from, 1)) {
+            Arrays.sort(array, from, to);
+            return;
+        }
+        inPool(() -> Arrays.parallelSort(array, from, to));
+    }
+
+    /* ------------------------------ long[] ------------------------------ */
+
+    /* removeIf(int[], IntPredicate) 와 같다. */
+    public int removeIf(long[] array, LongPredicate filter) {
+        return removeIf(array, 0, array.length, filter);
+    }
+
+    public int removeIf(long[] array, int from, int to, LongPredicate filter) {
+        Objects.requireNonNull(filter, "filter");
+        Objects.checkFromToIndex(from, to, array.length);
+        int n = to - from;
+        long[] removed = new long[words(n)];
+        run(n, (lo, hi) -> {
+            for (int i = lo; i < hi; i++) {
+                if (filter.test(array[from + i])) {
+                    removed[i >>> 6] |= 1L << i;
+                }
+            }
+        });
+        int dst = firstMarked(removed, n);
+        if (dst < 0) {
+            return to;
+        }
+        for (int i = dst + 1; i < n; i++) {
+            if ((removed[i >>> 6] & (1L << i)) == 0) {
+                array[from + dst++] = array[from + i];
+            }
+        }
+        return from + dst;
+    }
+
+    public void replaceAll(long[] array, LongUnaryOperator operator) {
+        replaceAll(array, 0, array.length, operator);
+    }
+
+    public void replaceAll(long[] array, int from, int to, LongUnaryOperator operator) {
+        Objects.requireNonNull(operator, "operator");
+        Objects.checkFromToIndex(from, to, array.length);
+        run(to - from, (lo, hi) -> {
+            for (int i = from + lo, end = from + hi; i < end; i++) {
+                array[i] = operator.applyAsLong(array[i]);
+            }
+        });
+    }
+
+    public void sort(long[] array) {
+        sort(array, 0, array.length);
+    }
+
+    public void sort(long[] array, int from, int to) {
+        Objects.checkFromToIndex(from, to, array.length);
+        if (!executor.shouldParallelize(to - from, 1)) {
+            Arrays.sort(array, from, to);
+            return;
+        }
+        inPool(() -> Arrays.parallelSort(array, from, to));
+    }
+
+    /* ------------------------------ double[] ------------------------------ */
+
+    /* removeIf(int[], IntPredicate) 와 같다. */
+    public int removeIf(double[] array, DoublePredicate filter) {
+        return removeIf(array, 0, array.length, filter);
+    }
+
+    public int removeIf(double[] array, int from, int to, DoublePredicate filter) {
+        Objects.requireNonNull(filter, "filter");
+        Objects.checkFromToIndex(from, to, array.length);
+        int n = to - from;
+        long[] removed = new long[words(n)];
+        run(n, (lo, hi) -> {
+            for (int i = lo; i < hi; i++) {
+                if (filter.test(array[from + i])) {
+                    removed[i >>> 6] |= 1L << i;
+                }
+            }
+        });
+        int dst = firstMarked(removed, n);
+        if (dst < 0) {
+            return to;
+        }
+        for (int i = dst + 1; i < n; i++) {
+            if ((removed[i >>> 6] & (1L << i)) == 0) {
+                array[from + dst++] = array[from + i];
+            }
+        }
+        return from + dst;
+    }
+
+    public void replaceAll(double[] array, DoubleUnaryOperator operator) {
+        replaceAll(array, 0, array.length, operator);
+    }
+
+    public void replaceAll(double[] array, int from, int to, DoubleUnaryOperator operator) {
+        Objects.requireNonNull(operator, "operator");
+        Objects.checkFromToIndex(from, to, array.length);
+        run(to - from, (lo, hi) -> {
+            for (int i = from + lo, end = from + hi; i < end; i++) {
+                array[i] = operator.applyAsDouble(array[i]);
+            }
+        });
+    }
+
+    /* Arrays.sort(double[]) 와 같은 순서 (-0.0 < 0.0, NaN 은 맨 뒤) */
+    public void sort(double[] array) {
+        sort(array, 0, array.length);
+    }
+
+    public void sort(double[] array, int from, int to) {
+        Objects.checkFromToIndex(from, to, array.length);
+        if (!executor.shouldParallelize(to - from, 1)) {
+            Arrays.sort(array, from, to);
+            return;
+        }
+        inPool(() -> Arrays.parallelSort(array, from, to));
+    }
+
+    /* ------------------------------------------------------------------ */
+
+    // [from, to) 구간을 처리하는 작업 (run 에 넘긴 0 ~ n 기준 위치)
+    @FunctionalInterface
+    private interface RangeBody {
+        void apply(int from, int to);
+    }
+
+    // 작업량이 작으면 호출한 스레드에서 한번에, 크면 64 의 배수 크기 구간으로 나눠 풀에서 실행한다.
+    private void run(int n, RangeBody body) {
+        if (!executor.shouldParallelize(n, 1)) {
+            body.apply(0, n);
+            return;
+        }
+        int parallelism = executor.pool().getParallelism();
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, (n / (parallelism * 4) + 63) & ~63);
+        executor.invoke(new RangeTask(body, 0, n, chunkSize));
+    }
+
+    private void inPool(Runnable action) {
+        executor.invoke(ForkJoinTask.adapt(action));
+    }
+
+    // 하위 클래스는 set / subList 를 바꿨을수 있으므로 ArrayList 그 자체만
+    private static boolean isArrayList(List<?> list) {
+        return list.getClass() == ArrayList.class;
+    }
+
+    private static <E> int removeIfSequential(List<E> list, Predicate<? super E> filter) {
+        int before = list.size();
+        list.removeIf(filter);
+        return before - list.size();
+    }
+
+    private static int words(int n) {
+        return (n + 63) >>> 6;
+    }
+
+    // 처음으로 표시된 위치 (없으면 -1). 그 앞의 요소는 움직일 필요가 없다.
+    private static int firstMarked(long[] marks, int n) {
+        for (int w = 0; w < marks.length; w++) {
+            if (marks[w] != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(marks[w]);
+                return i < n ? i : -1;
+            }
+        }
+        return -1;
+    }
+
+    // 구간을 반씩 나누되, 나누는 위치는 64 의 배수로 맞춘다. (비트 배열의 long 하나를 한 작업만 쓰도록)
+    @SuppressWarnings("serial")
+    private static final class RangeTask extends RecursiveAction {
+        private final RangeBody body;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        private RangeTask(RangeBody body, int from, int to, int chunkSize) {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                body.apply(from, to);
+                return;
+            }
+            int mid = (from + ((to - from) >>> 1)) & ~63; // to - from > chunkSize >= MIN_CHUNK_SIZE 라서 mid > from
+            invokeAll(new RangeTask(body, from, mid, chunkSize), new RangeTask(body, mid, to, chunkSize));
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.modern.exec;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class ProductRegistry<P> {
+    /**
+     * 팩토리 패턴용 상품 레지스트리
+     *  createProduct 는 호출할때마다 문자열 switch 를, createProductRamda 는 p3map 해시 조회를 하고
+     *  둘 다 매번 새 상품을 만든다.
+     *
+     *  1. register(이름, 생성자) 는 이름마다 0 부터 빽빽한 번호(ordinal)를 준다.
+     *     이름 -> 번호는 ordinalOf 로 한번만 풀고 이후 create(번호) 는 배열 인덱스로 생성자를 찾는다.
+     *  2. registerPooled 로 등록한 상품은 재사용 풀을 쓴다. (생성 비용이 큰 상품만 선택)
+     *     acquire(번호) 는 풀에서 꺼내고 없으면 새로 만든다. release(번호, 상품) 는 reset 한 뒤 풀에 돌려놓는다.
+     *     풀은 상품마다 하나씩 모든 스레드가 같이 쓰는 슬롯 배열이고 슬롯마다 CAS 로 꺼내고 넣는다. (락 없음)
+     *     스레드에 묶이지 않으므로 요청마다 새로 생기는 가상 스레드에서도 재사용되고,
+     *     전체 크기가 capacity 로 제한되어 스레드 수만큼 상품이 쌓이지 않는다.
+     *     스레드마다 다른 슬롯부터 찾기 시작해서 CAS 경합을 줄인다. 풀이 가득 차면 돌려받은 상품은 버린다.
+     *     release 한 상품을 계속 쓰면 안된다. (다른 acquire 가 같은 객체를 받는다)
+     *  3. 풀의 hit / miss / release / discard 횟수는 LongAdder 로 센다.
+     *  4. 등록은 드물고(시작할때) 조회는 잦다. 등록은 synchronized 로 배열을 복사해서 교체하고 조회는 락이 없다.
+     * */
+
+    private volatile Entry<P>[] entries = newEntries(0);
+    private volatile Map<String, Integer> ordinals = Map.of();
+
+    public int register(String name, Supplier<? extends P> factory) {
+        return register(name, factory, null, 0);
+    }
+
+    /* reset 은 release 할때 상품을 처음 상태로 되돌린다. (null 이면 하지 않음) capacity 는 풀에 둘수 있는 최대 상품 수 */
+    public int registerPooled(String name, Supplier<? extends P> factory, Consumer<? super P> reset, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        return register(name, factory, reset, capacity);
+    }
+
+    private synchronized int register(String name, Supplier<? extends P> factory, Consumer<? super P> reset, int capacity) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(factory, "factory");
+        if (ordinals.containsKey(name)) {
+            throw new IllegalArgumentException("Product already registered " + name);
+        }
+        int ordinal = entries.length;
+        Entry<P>[] grown = Arrays.copyOf(entries, ordinal + 1);
+        grown[ordinal] = new Entry<>(name, factory, reset, capacity);
+        Map<String, Integer> names = new HashMap<>(ordinals);
+        names.put(name, ordinal);
+        entries = grown;
+        ordinals = names;
+        return ordinal;
+    }
+
+    /* 이름 -> 번호. 등록되지 않은 이름이면 createProduct 처럼 RuntimeException */
+    public int ordinalOf(String name) {
+        Integer ordinal = ordinals.get(name);
+        if (ordinal == null) {
+            throw new RuntimeException("No such product " + name);
+        }
+        return ordinal;
+    }
+
+    public String nameOf(int ordinal) {
+        return entry(ordinal).name;
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    public boolean isPooled(int ordinal) {
+        return entry(ordinal).pool != null;
+    }
+
+    /* 항상 새 상품 */
+    public P create(int ordinal) {
+        return entry(ordinal).factory.get();
+    }
+
+    public P create(String name) {
+        return create(ordinalOf(name));
+    }
+
+    /* 풀을 쓰는 상품이면 풀에서 꺼내고, 아니면 create 와 같다. */
+    public P acquire(int ordinal) {
+        Entry<P> entry = entry(ordinal);
+        if (entry.pool == null) {
+            return entry.factory.get();
+        }
+        @SuppressWarnings("unchecked")
+        P product = (P) entry.pool.poll();
+        if (product != null) {
+            entry.hits.increment();
+            return product;
+        }
+        entry.misses.increment();
+        return entry.factory.get();
+    }
+
+    /* 풀을 쓰지 않는 상품이면 아무것도 하지 않는다. (GC 가 회수) */
+    public void release(int ordinal, P product) {
+        Entry<P> entry = entry(ordinal);
+        if (entry.pool == null || product == null) {
+            return;
+        }
+        if (entry.reset != null) {
+            entry.reset.accept(product);
+        }
+        entry.releases.increment();
+        if (!entry.pool.offer(product)) {
+            entry.discards.increment();
+        }
+    }
+
+    public PoolStats stats(int ordinal) {
+        Entry<P> entry = entry(ordinal);
+        return new PoolStats(entry.name, entry.hits.sum(), entry.misses.sum(), entry.releases.sum(), entry.discards.sum());
+    }
+
+    public void resetStats() {
+        for (Entry<P> entry : entries) {
+            entry.hits.reset();
+            entry.misses.reset();
+            entry.releases.reset();
+            entry.discards.reset();
+        }
+    }
+
+    /* 모든 풀을 비운다. (풀에 있던 상품은 GC 가 회수) */
+    public void clearPools() {
+        for (Entry<P> entry : entries) {
+            if (entry.pool != null) {
+                entry.pool.clear();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ProductRegistry[");
+        Entry<P>[] snapshot = entries;
+        for (int i = 0; i < snapshot.length; i++) {
+            sb.append(i == 0 ? "" : ", ").append(i).append('=').append(snapshot[i].name);
+            if (snapshot[i].pool != null) {
+                sb.append(String.format("(pooled, hitRate=%.3f)", stats(i).hitRate()));
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    private Entry<P> entry(int ordinal) {
+        Entry<P>[] snapshot = entries;
+        if (ordinal < 0 || ordinal >= snapshot.length) {
+            throw new RuntimeException("No such product ordinal " + ordinal);
+        }
+        return snapshot[ordinal];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <P> Entry<P>[] newEntries(int size) {
+        return (Entry<P>[]) new Entry<?>[size];
+    }
+
+    /**
+     * 풀 하나의 측정값 (모든 스레드 합계)
+     *  hitRate 는 acquire 중 풀에서 꺼낸 비율이다.
+     * */
+    public record PoolStats(String name, long hits, long misses, long releases, long discards) {
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: hits=%d, misses=%d, releases=%d, discards=%d, hitRate=%.3f",
+                    name, hits, misses, releases, discards, hitRate());
+        }
+    }
+
+    private static final class Entry<P> {
+        private final String name;
+        private final Supplier<? extends P> factory;
+        private final Consumer<? super P> reset;
+        private final Pool pool; // null 이면 풀을 쓰지 않는다.
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder releases = new LongAdder();
+        private final LongAdder discards = new LongAdder();
+
+        private Entry(String name, Supplier<? extends P> factory, Consumer<? super P> reset, int capacity) {
+            this.name = name;
+            this.factory = factory;
+            this.reset = reset;
+            this.pool = capacity > 0 ? new Pool(capacity) : null;
+        }
+    }
+
+    // 상품 하나의 공유 풀. 빈 슬롯은 null 이고 꺼내기/넣기는 슬롯 하나에 대한 CAS 다.
+    private static final class Pool {
+        private final AtomicReferenceArray<Object> slots;
+
+        private Pool(int capacity) {
+            slots = new AtomicReferenceArray<>(capacity);
+        }
+
+        // 찾지 못하면 null
+        Object poll() {
+            int n = slots.length();
+            int start = start(n);
+            for (int i = 0; i < n; i++) {
+                int index = (start + i) % n;
+                Object item = slots.get(index);
+                if (item != null && slots.compareAndSet(index, item, null)) {
+                    return item;
+                }
+            }
+            return null;
+        }
+
+        // 빈 슬롯이 없으면 false
+        boolean offer(Object item) {
+            int n = slots.length();
+            int start = start(n);
+            for (int i = 0; i < n; i++) {
+                int index = (start + i) % n;
+                if (slots.get(index) == null && slots.compareAndSet(index, null, item)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void clear() {
+            for (int i = 0; i < slots.length(); i++) {
+                slots.set(i, null);
+            }
+        }
+
+        // 스레드마다 다른 슬롯에서 시작한다. 같은 스레드는 방금 돌려놓은 슬롯을 다시 먼저 본다.
+        private static int start(int n) {
+            long id = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+            return (int) ((id >>> 33) % n);
+        }
+    }
+}
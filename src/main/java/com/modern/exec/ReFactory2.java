@@ -1,6 +1,8 @@
 package com.modern.exec;
 
 import com.modern.dto.Dish;
+import com.modern.logging.DeferredLogger;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
@@ -26,6 +28,13 @@ public class ReFactory2 {
                 .map(Dish::getName)
                 .collect(Collectors.toList());
 
+        // ※ 하지만 요소가 9개뿐인 menu 를 병렬로 돌리면 작업을 쪼개고 합치는 비용이 실제 작업보다 크고
+        // commonPool 을 요청 스레드들과 나눠쓰게 된다. 작업량을 보고 순차/병렬을 고르고 전용 풀에서 실행한다.
+        List<String> dishNames2 = AdaptiveQueryExecutor.shared()
+                .query(Dish.menu, 1, menu -> menu
+                        .filter(d -> d.getCalories()>300)
+                        .map(Dish::getName)
+                        .collect(Collectors.toList()));
     }
 
     /**
@@ -42,5 +51,16 @@ public class ReFactory2 {
         }
 
         logger.log(Level.FINER,"Problem: ");
+
+        // 위 두 방식 모두 로그가 꺼져 있어도 메시지 문자열은 호출하는 쪽에서 이미 만들어진다.
+        // DeferredLogger 는 레벨 확인을 캐시하고 Supplier 나 "{}" 파라미터로 메시지 생성을 레벨이 켜져있을때까지 미룬다.
+        // 켜진 로그는 비동기 링버퍼로 넘어가기 때문에 출력(I/O)을 기다리지 않는다.
+        DeferredLogger deferredLogger = DeferredLogger.getLogger("ReFactory2");
+        deferredLogger.finer(() -> "Problem: " + generateDiagnostic());
+        deferredLogger.log(Level.FINER, "Problem: {} ({} dishes)", "menu", Dish.menu.size());
+    }
+
+    private String generateDiagnostic() {
+        return Dish.menu.toString();
     }
 }
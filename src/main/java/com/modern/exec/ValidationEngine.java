@@ -0,0 +1,273 @@
+package com.modern.exec;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+public class ValidationEngine {
+    /**
+     * ValidationStrategy(전략 패턴)용 검증 엔진
+     *  String.matches(regex) 는 호출할때마다 Pattern.compile 을 한다. 또 전략끼리 조합할 방법이 없다.
+     *
+     *  1. 규칙(Rule)은 한번만 컴파일(compile)해서 재사용한다.
+     *  2. 자주 쓰는 문자 클래스(소문자, 숫자, 영숫자 ...)는 정규식 대신 직접 작성한 문자 검사로 처리한다.
+     *     "모든 문자가 클래스에 속하고 한글자 이상" (= "[a-z]+", "\\d+") 형태의 규칙이 해당된다.
+     *  3. and / or / not 으로 조합한 규칙도 입력을 한번만 훑는다.
+     *     문자 클래스 규칙마다 비트를 하나씩 주고, 문자마다 "이 문자가 속한 클래스들"의 비트마스크를 AND 해 나간다.
+     *     다 훑은 뒤 남은 비트로 조합식(and/or/not)을 계산한다.
+     *  4. 문자 클래스로 표현할수 없는 규칙은 미리 컴파일한 Pattern 으로 처리한다. (필요할때만 평가)
+     *  5. 목록/스트림 일괄 검증은 결과를 BitSet 으로 반환한다. (i 번째 입력이 통과하면 i 번째 비트가 1)
+     * */
+
+    // 정규식의 [a-z], \d, \s 처럼 ASCII 범위만 본다.
+    public enum CharClass {
+        LOWER, UPPER, ALPHA, DIGIT, ALNUM, WHITESPACE;
+
+        public boolean matches(char c) {
+            switch (this) {
+                case LOWER:
+                    return c >= 'a' && c <= 'z';
+                case UPPER:
+                    return c >= 'A' && c <= 'Z';
+                case ALPHA:
+                    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+                case DIGIT:
+                    return c >= '0' && c <= '9';
+                case ALNUM:
+                    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+                case WHITESPACE:
+                    return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+                default:
+                    throw new IllegalStateException("Unknown char class " + this);
+            }
+        }
+    }
+
+    public static final CompiledValidator ALL_LOWER_CASE = compile(Rule.allOf(CharClass.LOWER));
+    public static final CompiledValidator NUMERIC = compile(Rule.allOf(CharClass.DIGIT));
+
+    private ValidationEngine() {
+    }
+
+    public static CompiledValidator compile(Rule rule) {
+        return new CompiledValidator(rule);
+    }
+
+    /**
+     * 검증 규칙 (불변)
+     *  allOf(클래스) : 한글자 이상이고 모든 문자가 클래스에 속한다.
+     *  matches(정규식) : 정규식 전체 일치 (String.matches 와 같다)
+     * */
+    public abstract static class Rule {
+
+        private Rule() {
+        }
+
+        public static Rule allOf(CharClass charClass) {
+            return new ClassRule(Objects.requireNonNull(charClass));
+        }
+
+        public static Rule matches(String regex) {
+            return new RegexRule(Pattern.compile(regex));
+        }
+
+        public Rule and(Rule other) {
+            return new AndRule(this, other);
+        }
+
+        public Rule or(Rule other) {
+            return new OrRule(this, other);
+        }
+
+        public Rule negate() {
+            return new NotRule(this);
+        }
+
+        public static Rule not(Rule rule) {
+            return rule.negate();
+        }
+
+        abstract boolean evaluate(long alive, String input);
+
+        abstract void bind(Map<CharClass, Integer> bits);
+    }
+
+    private static final class ClassRule extends Rule {
+        final CharClass charClass;
+        long bit;
+
+        ClassRule(CharClass charClass) {
+            this.charClass = charClass;
+        }
+
+        @Override
+        boolean evaluate(long alive, String input) {
+            return (alive & bit) != 0;
+        }
+
+        @Override
+        void bind(Map<CharClass, Integer> bits) {
+            bit = 1L << bits.computeIfAbsent(charClass, c -> bits.size());
+        }
+    }
+
+    private static final class RegexRule extends Rule {
+        final Pattern pattern;
+
+        RegexRule(Pattern pattern) {
+            this.pattern = pattern;
+        }
+
+        @Override
+        boolean evaluate(long alive, String input) {
+            return pattern.matcher(input).matches();
+        }
+
+        @Override
+        void bind(Map<CharClass, Integer> bits) {
+        }
+    }
+
+    private static final class AndRule extends Rule {
+        final Rule left;
+        final Rule right;
+
+        AndRule(Rule left, Rule right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean evaluate(long alive, String input) {
+            return left.evaluate(alive, input) && right.evaluate(alive, input);
+        }
+
+        @Override
+        void bind(Map<CharClass, Integer> bits) {
+            left.bind(bits);
+            right.bind(bits);
+        }
+    }
+
+    private static final class OrRule extends Rule {
+        final Rule left;
+        final Rule right;
+
+        OrRule(Rule left, Rule right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean evaluate(long alive, String input) {
+            return left.evaluate(alive, input) || right.evaluate(alive, input);
+        }
+
+        @Override
+        void bind(Map<CharClass, Integer> bits) {
+            left.bind(bits);
+            right.bind(bits);
+        }
+    }
+
+    private static final class NotRule extends Rule {
+        final Rule rule;
+
+        NotRule(Rule rule) {
+            this.rule = rule;
+        }
+
+        @Override
+        boolean evaluate(long alive, String input) {
+            return !rule.evaluate(alive, input);
+        }
+
+        @Override
+        void bind(Map<CharClass, Integer> bits) {
+            rule.bind(bits);
+        }
+    }
+
+    /**
+     * 컴파일된 검증기. 불변이라 여러 스레드에서 같이 써도 된다.
+     * DesignPatternReFactory 의 ValidationStrategy 를 구현하므로 그대로 전략으로 넘길수 있다.
+     * */
+    public static final class CompiledValidator implements DesignPatternReFactory.ValidationStrategy {
+        private final Rule rule;
+        private final long allBits;
+        private final long[] asciiMasks = new long[128]; // 문자 -> 그 문자가 속한 클래스 비트들
+
+        private CompiledValidator(Rule rule) {
+            Rule copy = copyOf(rule); // 다른 검증기와 비트 번호가 섞이지 않도록 규칙 트리를 복사해서 바인딩한다.
+            Map<CharClass, Integer> bits = new LinkedHashMap<>();
+            copy.bind(bits);
+            if (bits.size() > Long.SIZE) {
+                throw new IllegalArgumentException("Too many char classes in one rule: " + bits.size());
+            }
+            this.rule = copy;
+            long all = 0;
+            for (Map.Entry<CharClass, Integer> entry : bits.entrySet()) {
+                long bit = 1L << entry.getValue();
+                all |= bit;
+                for (char c = 0; c < 128; c++) {
+                    if (entry.getKey().matches(c)) {
+                        asciiMasks[c] |= bit;
+                    }
+                }
+            }
+            this.allBits = all;
+        }
+
+        @Override
+        public boolean execute(String s) {
+            long alive = s.isEmpty() ? 0 : allBits;
+            for (int i = 0, n = s.length(); i < n && alive != 0; i++) {
+                char c = s.charAt(i);
+                alive &= c < 128 ? asciiMasks[c] : 0L;
+            }
+            return rule.evaluate(alive, s);
+        }
+
+        public BitSet validate(List<String> inputs) {
+            BitSet result = new BitSet(inputs.size());
+            for (int i = 0, n = inputs.size(); i < n; i++) {
+                if (execute(inputs.get(i))) {
+                    result.set(i);
+                }
+            }
+            return result;
+        }
+
+        public BitSet validate(Stream<String> inputs) {
+            BitSet result = new BitSet();
+            int[] index = new int[1];
+            inputs.sequential().forEachOrdered(s -> {
+                if (execute(s)) {
+                    result.set(index[0]);
+                }
+                index[0]++;
+            });
+            return result;
+        }
+
+        private static Rule copyOf(Rule rule) {
+            if (rule instanceof ClassRule r) {
+                return new ClassRule(r.charClass);
+            }
+            if (rule instanceof AndRule r) {
+                return new AndRule(copyOf(r.left), copyOf(r.right));
+            }
+            if (rule instanceof OrRule r) {
+                return new OrRule(copyOf(r.left), copyOf(r.right));
+            }
+            if (rule instanceof NotRule r) {
+                return new NotRule(copyOf(r.rule));
+            }
+            return rule; // RegexRule 은 상태가 없다.
+        }
+    }
+}
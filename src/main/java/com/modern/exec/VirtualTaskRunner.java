@@ -0,0 +1,227 @@
+package com.modern.exec;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+public class VirtualTaskRunner {
+    /**
+     * 항목마다 가상 스레드(virtual thread) 하나로 처리하는 실행기
+     *  processCustomer 는 호출한 스레드에서 고객을 한명씩 처리한다. I/O 를 기다리는 동안 스레드가 놀고 있다.
+     *
+     *  1. runAll(items, task) 는 항목마다 가상 스레드를 하나씩 띄운다. 호출 안에서 만든 executor 를 닫으면서
+     *     모든 작업이 끝날때까지 기다린다. (구조적 동시성 : 작업은 runAll 호출보다 오래 살지 않는다)
+     *     StructuredTaskScope 는 Java 21 에서 아직 preview 라서 같은 동작을 직접 구현했다.
+     *  2. maxConcurrency 개 이상은 동시에 돌지 않는다. 호출 스레드가 Semaphore 를 얻은 뒤에 작업을 띄우므로
+     *     항목이 수백만개여도 대기중인 작업은 최대 maxConcurrency 개다. (DB 커넥션 수 같은 한계를 지킨다)
+     *  3. 작업 하나가 perTaskTimeout 을 넘기면 인터럽트하고 TimeoutException 으로 실패 처리한다.
+     *  4. 작업 하나가 실패하면 (예외 또는 타임아웃) 실행중인 다른 작업을 모두 취소(인터럽트)하고
+     *     남은 항목은 시작하지 않는다. runAll 은 첫번째 실패를 ExecutionException 으로 던진다. (ShutdownOnFailure 와 같다)
+     *  5. 호출 스레드가 인터럽트되면 실행중인 작업을 모두 취소하고 InterruptedException 을 던진다.
+     * */
+
+    public static final int DEFAULT_MAX_CONCURRENCY = 1000;
+
+    // 타임아웃 타이머. 작업이 먼저 끝나면 타이머를 취소하고 큐에서도 바로 지운다. (항목이 수백만개여도 쌓이지 않는다)
+    private static final ScheduledThreadPoolExecutor TIMEOUTS = newTimeoutScheduler();
+
+    private final int maxConcurrency;
+    private final long timeoutNanos; // 0 이면 타임아웃 없음
+
+    public VirtualTaskRunner(int maxConcurrency) {
+        this(maxConcurrency, Duration.ZERO);
+    }
+
+    public VirtualTaskRunner(int maxConcurrency, Duration perTaskTimeout) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+        if (perTaskTimeout.isNegative()) {
+            throw new IllegalArgumentException("perTaskTimeout must not be negative: " + perTaskTimeout);
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.timeoutNanos = perTaskTimeout.toNanos();
+    }
+
+    public <T> Result runAll(Iterable<? extends T> items, Consumer<? super T> task)
+            throws ExecutionException, InterruptedException {
+        Objects.requireNonNull(task, "task");
+        Scope<T> scope = new Scope<>(task);
+        long start = System.nanoTime();
+        boolean interrupted = false;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (T item : items) {
+                if (scope.failure.get() != null) {
+                    break;
+                }
+                try {
+                    scope.permits.acquire();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    scope.cancelAll();
+                    break;
+                }
+                if (scope.failure.get() != null) {
+                    scope.permits.release();
+                    break;
+                }
+                scope.start(executor, item);
+            }
+        } // close() 는 띄운 작업이 모두 끝날때까지 기다린다. 기다리다 인터럽트되면 작업을 인터럽트하고 끝난 뒤 인터럽트 상태만 다시 켠다.
+        if (interrupted || Thread.interrupted()) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedException("Interrupted after " + scope.completed.sum() + " completed tasks");
+        }
+        Failure<T> failure = scope.failure.get();
+        if (failure != null) {
+            throw new ExecutionException("Task failed for " + failure.item, failure.cause);
+        }
+        return new Result(scope.completed.sum(), System.nanoTime() - start);
+    }
+
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public Duration perTaskTimeout() {
+        return Duration.ofNanos(timeoutNanos);
+    }
+
+    private static ScheduledThreadPoolExecutor newTimeoutScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "virtual-task-timeouts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    public record Result(long completed, long elapsedNanos) {
+
+        public double tasksPerSecond() {
+            return elapsedNanos == 0 ? 0 : completed / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d tasks in %.1f ms -> %.0f tasks/s",
+                    completed, elapsedNanos / 1_000_000.0, tasksPerSecond());
+        }
+    }
+
+    private record Failure<T>(T item, Throwable cause) {
+    }
+
+    // runAll 호출 한번의 상태
+    private final class Scope<T> {
+        private final Consumer<? super T> task;
+        private final Semaphore permits = new Semaphore(maxConcurrency);
+        private final Set<Task> running = ConcurrentHashMap.newKeySet();
+        private final AtomicReference<Failure<T>> failure = new AtomicReference<>();
+        private final LongAdder completed = new LongAdder();
+
+        private Scope(Consumer<? super T> task) {
+            this.task = task;
+        }
+
+        private void start(ExecutorService executor, T item) {
+            Task t = new Task(item);
+            running.add(t);
+            if (timeoutNanos > 0) {
+                t.timeout = TIMEOUTS.schedule(t::timeOut, timeoutNanos, TimeUnit.NANOSECONDS);
+            }
+            try {
+                executor.execute(t);
+            } catch (RuntimeException e) { // 스레드를 만들지 못했으면 run() 이 불리지 않으므로 여기서 돌려준다.
+                running.remove(t);
+                permits.release();
+                throw e;
+            }
+        }
+
+        private void fail(T item, Throwable cause) {
+            if (failure.compareAndSet(null, new Failure<>(item, cause))) {
+                cancelAll();
+            }
+        }
+
+        private void cancelAll() {
+            for (Task t : running) {
+                t.cancel(true);
+            }
+        }
+
+        /**
+         * 작업 하나. 끝나면 done() 에서 결과를 정리하고, permit 은 run() 이 끝날때 돌려준다.
+         * cancel(true) 는 done() 을 바로 부르지만 인터럽트를 무시하는 작업 본문은 계속 돌고 있을수 있다.
+         * done() 에서 permit 을 돌려주면 그 사이에 다음 작업이 시작되어 maxConcurrency 를 넘게 된다.
+         * (시작 전에 취소된 작업도 가상 스레드에서 run() 은 불리므로 permit 은 항상 돌아온다)
+         * */
+        private final class Task extends FutureTask<Void> {
+            private final T item;
+            private volatile boolean timedOut;
+            private volatile ScheduledFuture<?> timeout;
+
+            private Task(T item) {
+                super(() -> {
+                    task.accept(item);
+                    return null;
+                });
+                this.item = item;
+            }
+
+            private void timeOut() {
+                timedOut = true;
+                cancel(true);
+            }
+
+            @Override
+            public void run() {
+                try {
+                    super.run();
+                } finally {
+                    permits.release();
+                }
+            }
+
+            @Override
+            protected void done() {
+                ScheduledFuture<?> t = timeout;
+                if (t != null) {
+                    t.cancel(false);
+                }
+                running.remove(this);
+                if (isCancelled()) {
+                    if (timedOut) {
+                        fail(item, new TimeoutException("Task for " + item + " timed out after "
+                                + Duration.ofNanos(timeoutNanos)));
+                    }
+                    return; // 다른 작업의 실패나 호출 스레드의 인터럽트로 취소됨
+                }
+                try {
+                    get();
+                    completed.increment();
+                } catch (ExecutionException e) {
+                    fail(item, e.getCause());
+                } catch (InterruptedException | CancellationException e) {
+                    // 완료된 작업이므로 발생하지 않는다.
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.modern.logging;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+public class AsyncAppender implements AutoCloseable {
+    /**
+     * 미리 할당한 링버퍼(ring buffer)에 로그 이벤트를 쌓고 전용 스레드 하나가 꺼내서 쓰는 비동기 출력기
+     *  1. 슬롯(LogEvent)은 생성할때 모두 만들어두고 계속 재사용한다. 로그 한건마다 이벤트 객체를 만들지 않는다.
+     *  2. 생산자(로그를 남기는 스레드)는 AtomicLong 으로 순번을 받아 슬롯을 채우고 슬롯의 sequence 를 써서 공개한다.
+     *     메시지 포맷팅("{}" 치환)과 I/O 는 모두 소비자 스레드에서 일어난다.
+     *  3. 소비자는 순번대로 슬롯을 읽고 모아서(batch) 쓴 다음 큐가 비었을때만 flush 한다.
+     *  4. 버퍼가 꽉 찼을때는 OverflowPolicy 에 따라 기다리거나(BLOCK) 버린다(DROP).
+     *     생산자는 빈 슬롯이 있을때만 순번을 받으므로, 기다리다 포기해도 소비자가 기다릴 빈 순번이 생기지 않는다.
+     *  5. 소비자는 큐가 비면 잠깐씩 늘려가며 쉬다가(최대 1ms) 그래도 비어 있으면 park 로 잠든다.
+     *     잠들기 전에 parked 를 켜고 슬롯을 한번 더 확인하며, 생산자는 슬롯을 공개한 뒤 parked 가 켜져 있으면 깨운다.
+     *  6. close() 뒤에 남긴 로그는 정책과 상관없이 버린다. (소비자 스레드가 없으니 BLOCK 이어도 기다리지 않는다)
+     *     close() 는 그 전에 남긴 로그를 모두 쓰고 flush 한 다음 돌아온다.
+     *
+     * ※ 인자는 소비자 스레드에서 문자열로 바뀐다. 로그를 남긴 뒤에 값이 바뀌는 가변 객체는 인자로 넘기지 말것.
+     * */
+
+    public enum OverflowPolicy {
+        BLOCK,
+        DROP
+    }
+
+    private static final int MAX_BATCH = 256;
+
+    private final LogEvent[] slots;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+    private volatile long consumed;
+    private volatile boolean running = true;
+    private volatile boolean parked;
+
+    private final OverflowPolicy overflowPolicy;
+    private final Writer out;
+    private final Thread consumer;
+    private final StringBuilder line = new StringBuilder(256);
+    private final LongAdder dropped = new LongAdder();
+
+    public AsyncAppender(int capacity, Writer out, OverflowPolicy overflowPolicy) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two >= 2: " + capacity);
+        }
+        this.slots = new LogEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new LogEvent();
+        }
+        this.mask = capacity - 1;
+        this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out, 64 * 1024);
+        this.overflowPolicy = overflowPolicy;
+        this.consumer = new Thread(this::drainLoop, "async-appender");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    public static AsyncAppender stdout() {
+        return new AsyncAppender(8192, new OutputStreamWriter(System.out, StandardCharsets.UTF_8), OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * 슬롯 하나를 채워 공개한다. DROP 정책에서 버퍼가 꽉 찼거나 close() 뒤라서 버렸으면 false
+     * numericMask 의 i 번째 비트가 켜져 있으면 i 번째 인자는 argI 대신 numI 다. (박싱하지 않은 정수 인자, 0 번과 1 번만)
+     * */
+    boolean append(Level level, String loggerName, String message, Object[] args, int argCount,
+                   Object arg0, Object arg1, Object arg2, int numericMask, long num0, long num1, Throwable thrown) {
+        long sequence = claim();
+        if (sequence < 0) {
+            dropped.increment();
+            return false;
+        }
+        LogEvent event = slots[(int) sequence & mask];
+        event.timestamp = System.currentTimeMillis();
+        event.level = level;
+        event.loggerName = loggerName;
+        event.threadName = Thread.currentThread().getName();
+        event.message = message;
+        event.args = args;
+        event.argCount = argCount;
+        event.arg0 = arg0;
+        event.arg1 = arg1;
+        event.arg2 = arg2;
+        event.numericMask = numericMask;
+        event.num0 = num0;
+        event.num1 = num1;
+        event.thrown = thrown;
+        event.sequence = sequence; // volatile 쓰기 : 위의 필드들을 소비자에게 공개한다.
+        if (parked) { // sequence 쓰기 뒤에 읽으므로, 소비자가 이 슬롯을 못 보고 잠들었다면 여기서 반드시 보인다.
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    /* 지금까지 남긴 로그가 모두 쓰일때까지 기다린다. */
+    public void flush() {
+        long target = next.get();
+        while (consumed < target && consumer.isAlive()) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+    }
+
+    /* 더 받지 않고, 이미 받은 로그를 모두 쓰고 flush 할때까지 기다린다. (인터럽트되어도 끝까지 기다린 뒤 인터럽트 상태를 되돌린다) */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(consumer);
+        boolean interrupted = false;
+        while (consumer.isAlive()) {
+            try {
+                consumer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 빈 슬롯이 있을때만 순번을 받는다. 버려야 하면 -1
+    private long claim() {
+        while (true) {
+            if (!running) {
+                return -1;
+            }
+            long sequence = next.get();
+            if (sequence - consumed >= slots.length) {
+                if (overflowPolicy == OverflowPolicy.DROP || !consumer.isAlive()) {
+                    return -1;
+                }
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50)); // 소비자가 한바퀴 따라올때까지 기다린다.
+                continue;
+            }
+            if (next.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+    }
+
+    private void drainLoop() {
+        long cursor = 0;
+        long idleNanos = TimeUnit.MICROSECONDS.toNanos(50);
+        while (true) {
+            int batch = 0;
+            LogEvent event;
+            while (batch < MAX_BATCH && (event = slots[(int) cursor & mask]).sequence == cursor) {
+                writeQuietly(event);
+                event.clear();
+                cursor++;
+                batch++;
+            }
+            if (batch > 0) {
+                consumed = cursor;
+                idleNanos = TimeUnit.MICROSECONDS.toNanos(50);
+                continue;
+            }
+            flushQuietly();
+            if (!running && next.get() == cursor) {
+                return;
+            }
+            if (idleNanos < TimeUnit.MILLISECONDS.toNanos(1)) {
+                LockSupport.parkNanos(idleNanos);
+                idleNanos *= 2;
+            } else {
+                parkUntilPublished(cursor);
+            }
+        }
+    }
+
+    // 생산자가 cursor 슬롯을 공개하거나 close() 할때까지 잠든다. (가짜로 깨어나도 바깥 루프가 다시 확인한다)
+    private void parkUntilPublished(long cursor) {
+        parked = true;
+        if (running && slots[(int) cursor & mask].sequence != cursor) {
+            LockSupport.park();
+        }
+        parked = false;
+    }
+
+    private void write(LogEvent event) {
+        line.setLength(0);
+        line.append(Instant.ofEpochMilli(event.timestamp)).append(' ')
+                .append(event.level.getName()).append(" [")
+                .append(event.threadName).append("] ")
+                .append(event.loggerName).append(" - ");
+        event.formatMessage(line);
+        line.append(System.lineSeparator());
+        try {
+            out.append(line);
+            if (event.thrown != null) {
+                PrintWriter printer = new PrintWriter(out);
+                event.thrown.printStackTrace(printer);
+                printer.flush();
+            }
+        } catch (IOException e) {
+            dropped.increment();
+        }
+    }
+
+    // 인자의 toString 이 예외를 던져도 소비자 스레드가 죽지 않도록 한다. (죽으면 BLOCK 생산자가 멈춘다)
+    private void writeQuietly(LogEvent event) {
+        try {
+            write(event);
+        } catch (RuntimeException e) {
+            dropped.increment();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            out.flush();
+        } catch (IOException ignored) {
+            // 출력 대상이 닫혔으면 더 할수 있는게 없다.
+        }
+    }
+
+    // 링버퍼 슬롯. sequence 만 volatile 이고 나머지는 sequence 쓰기/읽기로 공개된다.
+    static final class LogEvent {
+        volatile long sequence = -1;
+        long timestamp;
+        Level level;
+        String loggerName;
+        String threadName;
+        String message;
+        Object[] args;
+        int argCount;
+        Object arg0;
+        Object arg1;
+        Object arg2;
+        int numericMask;
+        long num0;
+        long num1;
+        Throwable thrown;
+
+        private void appendArg(StringBuilder sb, int i) {
+            if ((numericMask & (1 << i)) != 0) {
+                sb.append(i == 0 ? num0 : num1);
+            } else if (args != null) {
+                sb.append(args[i]);
+            } else {
+                sb.append(i == 0 ? arg0 : i == 1 ? arg1 : arg2);
+            }
+        }
+
+        // "{}" 를 차례대로 인자로 치환한다. 인자가 남으면 무시하고 모자라면 "{}" 를 그대로 둔다.
+        void formatMessage(StringBuilder sb) {
+            String pattern = message;
+            if (argCount == 0 || pattern == null) {
+                sb.append(pattern);
+                return;
+            }
+            int argIndex = 0;
+            int from = 0;
+            int at;
+            while (argIndex < argCount && (at = pattern.indexOf("{}", from)) >= 0) {
+                sb.append(pattern, from, at);
+                appendArg(sb, argIndex++);
+                from = at + 2;
+            }
+            sb.append(pattern, from, pattern.length());
+        }
+
+        void clear() {
+            message = null;
+            args = null;
+            arg0 = null;
+            arg1 = null;
+            arg2 = null;
+            numericMask = 0;
+            thrown = null;
+        }
+    }
+}
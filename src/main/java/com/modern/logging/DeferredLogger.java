@@ -0,0 +1,169 @@
+package com.modern.logging;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class DeferredLogger {
+    /**
+     * 조건부 연기 실행(ReFactory2.conditionalDeferredExecution)을 로거 자체에 넣은 로깅 파사드
+     *  1. 레벨 확인 : java.util.logging 의 실효 레벨(부모까지 따라간 레벨)을 생성할때 int 로 캐시한다.
+     *     비활성 레벨의 호출은 int 비교 한번으로 끝나고 아무것도 할당하지 않는다. (설정을 바꾸면 refreshLevel)
+     *  2. Supplier<String> : 레벨이 켜져 있을때만 메시지를 만든다.
+     *  3. "{}" 파라미터 메시지 : 인자 3개까지는 가변인자 배열 없이 받는다. 문자열 조립은 AsyncAppender 스레드가 한다.
+     *     정수 인자는 long 오버로드(앞쪽 인자 2개까지)로 받아서 Integer / Long 으로 박싱하지 않는다.
+     *  4. 활성 이벤트는 AsyncAppender 링버퍼로 넘어가기 때문에 I/O 지연이 호출 스레드에 걸리지 않는다.
+     *
+     * ※ 람다가 지역변수를 캡처하면 레벨 확인 전에 람다 객체가 만들어진다. 가장 뜨거운 경로에서는 파라미터 메시지를 쓴다.
+     * */
+
+    private static final Map<String, DeferredLogger> LOGGERS = new ConcurrentHashMap<>();
+    private static volatile AsyncAppender defaultAppender;
+
+    private final String name;
+    private final AsyncAppender appender;
+    private volatile int threshold;
+
+    public DeferredLogger(String name, AsyncAppender appender) {
+        this.name = name;
+        this.appender = appender;
+        this.threshold = effectiveLevel(name);
+    }
+
+    /* 이름별로 하나씩 만들어 재사용한다. 출력은 표준출력으로 가는 공용 AsyncAppender (JVM 종료 훅에서 닫힌다) */
+    public static DeferredLogger getLogger(String name) {
+        return LOGGERS.computeIfAbsent(name, n -> new DeferredLogger(n, defaultAppender()));
+    }
+
+    public static DeferredLogger getLogger(Class<?> type) {
+        return getLogger(type.getName());
+    }
+
+    private static AsyncAppender defaultAppender() {
+        AsyncAppender appender = defaultAppender;
+        if (appender == null) {
+            synchronized (DeferredLogger.class) {
+                appender = defaultAppender;
+                if (appender == null) {
+                    appender = AsyncAppender.stdout();
+                    // 소비자는 데몬 스레드라서, 닫지 않으면 종료할때 버퍼에 남은 로그를 잃는다.
+                    Runtime.getRuntime().addShutdownHook(new Thread(appender::close, "async-appender-shutdown"));
+                    defaultAppender = appender;
+                }
+            }
+        }
+        return appender;
+    }
+
+    /* java.util.logging 설정에서 실효 레벨을 다시 읽는다. */
+    public void refreshLevel() {
+        threshold = effectiveLevel(name);
+    }
+
+    private static int effectiveLevel(String name) {
+        Logger logger = Logger.getLogger(name);
+        while (logger != null && logger.getLevel() == null) {
+            logger = logger.getParent();
+        }
+        return logger == null ? Level.INFO.intValue() : logger.getLevel().intValue();
+    }
+
+    public void setLevel(Level level) {
+        threshold = level.intValue();
+    }
+
+    public boolean isLoggable(Level level) {
+        return level.intValue() >= threshold && threshold != Level.OFF.intValue();
+    }
+
+    public void log(Level level, Supplier<String> message) {
+        if (isLoggable(level)) {
+            appender.append(level, name, message.get(), null, 0, null, null, null, 0, 0, 0, null);
+        }
+    }
+
+    public void log(Level level, String message) {
+        if (isLoggable(level)) {
+            appender.append(level, name, message, null, 0, null, null, null, 0, 0, 0, null);
+        }
+    }
+
+    public void log(Level level, String pattern, Object arg0) {
+        if (isLoggable(level)) {
+            appender.append(level, name, pattern, null, 1, arg0, null, null, 0, 0, 0, null);
+        }
+    }
+
+    public void log(Level level, String pattern, Object arg0, Object arg1) {
+        if (isLoggable(level)) {
+            appender.append(level, name, pattern, null, 2, arg0, arg1, null, 0, 0, 0, null);
+        }
+    }
+
+    public void log(Level level, String pattern, Object arg0, Object arg1, Object arg2) {
+        if (isLoggable(level)) {
+            appender.append(level, name, pattern, null, 3, arg0, arg1, arg2, 0, 0, 0, null);
+        }
+    }
+
+    /* 정수 인자(int, long 등)는 아래 오버로드로 와서 박싱되지 않는다. 숫자는 AsyncAppender 스레드에서 문자열로 바뀐다. */
+    public void log(Level level, String pattern, long arg0) {
+        if (isLoggable(level)) {
+            appender.append(level, name, pattern, null, 1, null, null, null, 0b01, arg0, 0, null);
+        }
+    }
+
+    public void log(Level level, String pattern, Object arg0, long arg1) {
+        if (isLoggable(level)) {
+            appender.append(level, name, pattern, null, 2, arg0, null, null, 0b10, 0, arg1, null);
+        }
+    }
+
+    public void log(Level level, String pattern, long arg0, long arg1) {
+        if (isLoggable(level)) {
+            appender.append(level, name, pattern, null, 2, null, null, null, 0b11, arg0, arg1, null);
+        }
+    }
+
+    public void log(Level level, String pattern, Object... args) {
+        if (isLoggable(level)) {
+            appender.append(level, name, pattern, args, args.length, null, null, null, 0, 0, 0, null);
+        }
+    }
+
+    public void log(Level level, String message, Throwable thrown) {
+        if (isLoggable(level)) {
+            appender.append(level, name, message, null, 0, null, null, null, 0, 0, 0, thrown);
+        }
+    }
+
+    public void severe(Supplier<String> message) {
+        log(Level.SEVERE, message);
+    }
+
+    public void warning(Supplier<String> message) {
+        log(Level.WARNING, message);
+    }
+
+    public void info(Supplier<String> message) {
+        log(Level.INFO, message);
+    }
+
+    public void fine(Supplier<String> message) {
+        log(Level.FINE, message);
+    }
+
+    public void finer(Supplier<String> message) {
+        log(Level.FINER, message);
+    }
+
+    public void finest(Supplier<String> message) {
+        log(Level.FINEST, message);
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,192 @@
+package com.modern.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LatencyHistogram {
+    /**
+     * HDR 방식(로그-선형 버킷)의 지연시간 히스토그램 (나노초)
+     *  값의 최상위 비트로 2의 거듭제곱 구간을 나누고, 구간마다 SUB_BUCKETS(16)개의 같은 폭 버킷을 둔다.
+     *  버킷 폭은 값의 1/16 이하라서 백분위수 오차가 6.25% 이내다. 0 ~ 15ns 는 1ns 단위로 정확하다.
+     *  MAX_TRACKABLE(약 68초)보다 큰 값은 마지막 버킷에 넣는다. (최대값은 따로 정확하게 기록)
+     *
+     *  1. record 는 버킷 번호 계산(비트 연산) + AtomicLongArray 증가 한번이다. 할당이 없다.
+     *  2. 여러 스레드가 같은 카운터를 두드리지 않도록 버킷 배열을 스트라이프(stripe)로 나눈다.
+     *     스레드 id 로 스트라이프를 고르고 snapshot 할때 모든 스트라이프를 합친다. (LongAdder 와 같은 생각)
+     *  3. snapshot() 은 그 시점까지의 값을 복사한 불변 Snapshot 을 만든다. 기록과 동시에 호출해도 된다.
+     *     (스트라이프를 차례로 읽으므로 count 와 버킷 합이 아주 약간 어긋날 수 있다)
+     * */
+
+    static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int MAX_EXPONENT = 36;
+    public static final long MAX_TRACKABLE = (1L << MAX_EXPONENT) - 1;
+    static final int BUCKETS = bucketOf(MAX_TRACKABLE) + 1;
+
+    // 한 스트라이프 = [버킷 BUCKETS 개][count][sum][max] (같은 스트라이프의 값은 같은 스레드가 주로 쓴다)
+    private static final int COUNT = BUCKETS;
+    private static final int SUM = BUCKETS + 1;
+    private static final int MAX = BUCKETS + 2;
+    private static final int STRIDE = BUCKETS + 3;
+
+    private final AtomicLongArray cells;
+    private final int stripeMask;
+
+    /* 스트라이프는 CPU 수만큼 (최대 8개, 히스토그램 하나에 약 34KB) */
+    public LatencyHistogram() {
+        this(Math.min(Runtime.getRuntime().availableProcessors(), 8));
+    }
+
+    public LatencyHistogram(int stripes) {
+        int n = Integer.highestOneBit(Math.max(1, stripes) * 2 - 1);
+        this.cells = new AtomicLongArray(n * STRIDE);
+        this.stripeMask = n - 1;
+    }
+
+    public void recordNanos(long nanos) {
+        recordNanos(nanos, 1);
+    }
+
+    /* 같은 값을 count 번 기록한다. (배치의 평균 지연시간을 건수만큼 기록할때) */
+    public void recordNanos(long nanos, long count) {
+        if (count <= 0) {
+            return;
+        }
+        long value = Math.max(0, nanos);
+        int base = ((int) Thread.currentThread().threadId() & stripeMask) * STRIDE;
+        cells.getAndAdd(base + bucketOf(Math.min(value, MAX_TRACKABLE)), count);
+        cells.getAndAdd(base + COUNT, count);
+        cells.getAndAdd(base + SUM, value * count);
+        long max;
+        while (value > (max = cells.get(base + MAX)) && !cells.compareAndSet(base + MAX, max, value)) {
+            // 다른 스레드가 최대값을 바꿨으면 다시 비교한다.
+        }
+    }
+
+    /* System.nanoTime() 으로 잰 시작 시각부터 지금까지 */
+    public void recordSince(long startNanos) {
+        recordNanos(System.nanoTime() - startNanos, 1);
+    }
+
+    public long count() {
+        long count = 0;
+        for (int base = 0; base < cells.length(); base += STRIDE) {
+            count += cells.get(base + COUNT);
+        }
+        return count;
+    }
+
+    public long totalNanos() {
+        long sum = 0;
+        for (int base = 0; base < cells.length(); base += STRIDE) {
+            sum += cells.get(base + SUM);
+        }
+        return sum;
+    }
+
+    public Snapshot snapshot() {
+        long[] buckets = new long[BUCKETS];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (int base = 0; base < cells.length(); base += STRIDE) {
+            for (int b = 0; b < BUCKETS; b++) {
+                buckets[b] += cells.get(base + b);
+            }
+            count += cells.get(base + COUNT);
+            sum += cells.get(base + SUM);
+            max = Math.max(max, cells.get(base + MAX));
+        }
+        return new Snapshot(buckets, count, sum, max);
+    }
+
+    public void reset() {
+        for (int i = 0; i < cells.length(); i++) {
+            cells.set(i, 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value); // >= SUB_BUCKET_BITS
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /* 버킷에 들어가는 가장 큰 값 */
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * 히스토그램 스냅샷 (불변)
+     *  valueAtPercentile 은 해당 버킷에 들어가는 가장 큰 값을 돌려준다. (기록된 최대값을 넘지 않는다)
+     * */
+    public static final class Snapshot {
+        private final long[] buckets;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] buckets, long count, long sum, long max) {
+            this.buckets = buckets;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public long totalNanos() {
+            return sum;
+        }
+
+        public long maxNanos() {
+            return max;
+        }
+
+        public double meanNanos() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /* percentile 은 0 ~ 100 */
+        public long valueAtPercentile(double percentile) {
+            long total = 0;
+            for (long c : buckets) {
+                total += c;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100.0 * total));
+            long seen = 0;
+            for (int b = 0; b < buckets.length; b++) {
+                seen += buckets[b];
+                if (seen >= rank) {
+                    return Math.min(highestValueIn(b), max);
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%,d, mean=%.0f ns, p50=%,d ns, p90=%,d ns, p99=%,d ns, p99.9=%,d ns, max=%,d ns",
+                    count, meanNanos(), valueAtPercentile(50), valueAtPercentile(90), valueAtPercentile(99),
+                    valueAtPercentile(99.9), max);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.modern.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+public class MetricsRegistry {
+    /**
+     * 이름 -> 지표 (카운터, 지연시간 히스토그램, 게이지)
+     *  1. 카운터는 LongAdder 다. 스레드마다 다른 셀을 증가시키는 스트라이프 카운터라 경합이 적고 할당이 없다.
+     *  2. 지연시간은 LatencyHistogram 에 기록한다.
+     *  3. 게이지는 조회할때 값을 읽는 함수다. (DigestCache::hitRate 처럼 이미 있는 값을 노출할때)
+     *  4. 함수 카운터는 다른 객체가 이미 세고 있는 단조 증가 값(적중 수, 축출 수 ...)을 조회할때 읽는 함수다.
+     *     게이지와 달리 수집기가 누적값(counter)으로 다룬다. (Prometheus 의 rate() 를 쓸수 있다)
+     *
+     *  등록(counter / histogram / gauge / functionCounter)은 ConcurrentHashMap 조회라서 뜨거운 경로에서 매번 부르지 말고
+     *  필드에 받아두고 쓴다. 같은 이름으로 다시 등록하면 기존 지표를 돌려준다. (게이지와 함수 카운터는 새 함수로 바꾼다)
+     *  이미 있는 히스토그램을 바꾸려면 register 대신 replace 를 쓴다.
+     *  Listener 를 붙이면 이미 있는 지표와 이후 등록되는 지표를 모두 받는다. (Micrometer 로 내보낼때)
+     * */
+
+    /**
+     * onGauge 로 받는 DoubleSupplier 는 레지스트리가 따로 잡아두지 않는다. 리스너가 강한 참조로 들고 있어야 한다.
+     * onHistogram 은 replace 로 같은 이름에 다시 불릴수 있다. 그때는 이전 히스토그램 대신 새 히스토그램을 내보낸다.
+     * onFunctionCounter 로 받는 LongSupplier 는 레지스트리가 잡고 있으므로 약한 참조로 들고 있어도 된다.
+     * */
+    public interface Listener {
+        void onCounter(String name, LongAdder counter);
+
+        void onHistogram(String name, LatencyHistogram histogram);
+
+        void onGauge(String name, DoubleSupplier gauge);
+
+        void onFunctionCounter(String name, LongSupplier count);
+    }
+
+    private static final class SharedHolder {
+        static final MetricsRegistry SHARED = new MetricsRegistry();
+    }
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+    private final Map<String, FunctionCount> functionCounters = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /* 애플리케이션 전체가 같이 쓰는 레지스트리 */
+    public static MetricsRegistry shared() {
+        return SharedHolder.SHARED;
+    }
+
+    public LongAdder counter(String name) {
+        LongAdder counter = counters.get(name);
+        if (counter != null) {
+            return counter;
+        }
+        LongAdder created = new LongAdder();
+        counter = counters.putIfAbsent(Objects.requireNonNull(name, "name"), created);
+        if (counter != null) {
+            return counter;
+        }
+        listeners.forEach(l -> l.onCounter(name, created));
+        return created;
+    }
+
+    public LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram != null) {
+            return histogram;
+        }
+        LatencyHistogram created = new LatencyHistogram();
+        histogram = histograms.putIfAbsent(Objects.requireNonNull(name, "name"), created);
+        if (histogram != null) {
+            return histogram;
+        }
+        listeners.forEach(l -> l.onHistogram(name, created));
+        return created;
+    }
+
+    /* 이미 만들어 둔 히스토그램을 이름으로 등록한다. 같은 이름이 있으면 기존 히스토그램을 돌려준다. */
+    public LatencyHistogram register(String name, LatencyHistogram histogram) {
+        LatencyHistogram existing = histograms.putIfAbsent(Objects.requireNonNull(name, "name"), histogram);
+        if (existing != null) {
+            return existing;
+        }
+        listeners.forEach(l -> l.onHistogram(name, histogram));
+        return histogram;
+    }
+
+    /* 같은 이름의 히스토그램이 있으면 바꾸고 리스너에도 알린다. 이전 히스토그램(없으면 null)을 반환한다. */
+    public LatencyHistogram replace(String name, LatencyHistogram histogram) {
+        Objects.requireNonNull(histogram, "histogram");
+        LatencyHistogram previous = histograms.put(Objects.requireNonNull(name, "name"), histogram);
+        if (previous != histogram) {
+            listeners.forEach(l -> l.onHistogram(name, histogram));
+        }
+        return previous;
+    }
+
+    public void gauge(String name, DoubleSupplier gauge) {
+        Objects.requireNonNull(gauge, "gauge");
+        DoubleSupplier previous = gauges.put(Objects.requireNonNull(name, "name"), gauge);
+        if (previous == null) {
+            // 리스너에는 이름으로 최신 함수를 찾는 게이지를 넘긴다. (나중에 함수가 바뀌어도 따라간다)
+            DoubleSupplier current = () -> gauges.getOrDefault(name, () -> Double.NaN).getAsDouble();
+            listeners.forEach(l -> l.onGauge(name, current));
+        }
+    }
+
+    /* 조회할때 count 를 읽는 누적 카운터를 등록한다. 같은 이름이 있으면 새 함수로 바꾼다. */
+    public void functionCounter(String name, LongSupplier count) {
+        Objects.requireNonNull(count, "count");
+        FunctionCount created = new FunctionCount(count);
+        FunctionCount existing = functionCounters.putIfAbsent(Objects.requireNonNull(name, "name"), created);
+        if (existing != null) {
+            existing.function = count;
+            return;
+        }
+        listeners.forEach(l -> l.onFunctionCounter(name, created));
+    }
+
+    /* 이미 등록된 지표를 먼저 전달하고 이후 등록되는 지표도 전달한다. */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+        counters.forEach(listener::onCounter);
+        histograms.forEach(listener::onHistogram);
+        gauges.keySet().forEach(name ->
+                listener.onGauge(name, () -> gauges.getOrDefault(name, () -> Double.NaN).getAsDouble()));
+        functionCounters.forEach(listener::onFunctionCounter);
+    }
+
+    public Map<String, LongAdder> counters() {
+        return Map.copyOf(counters);
+    }
+
+    public Map<String, LatencyHistogram> histograms() {
+        return Map.copyOf(histograms);
+    }
+
+    /* 함수 카운터 이름 -> 현재 값 */
+    public Map<String, Long> functionCounterValues() {
+        Map<String, Long> values = new TreeMap<>();
+        functionCounters.forEach((name, count) -> values.put(name, count.getAsLong()));
+        return values;
+    }
+
+    /* 게이지 이름 -> 현재 값 */
+    public Map<String, Double> gaugeValues() {
+        Map<String, Double> values = new TreeMap<>();
+        gauges.forEach((name, gauge) -> values.put(name, gauge.getAsDouble()));
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("MetricsRegistry");
+        new TreeMap<>(counters).forEach((name, c) -> sb.append("\n  ").append(name).append(" = ").append(c.sum()));
+        functionCounterValues().forEach((name, v) -> sb.append("\n  ").append(name).append(" = ").append(v));
+        gaugeValues().forEach((name, v) -> sb.append("\n  ").append(name).append(" = ").append(v));
+        new TreeMap<>(histograms).forEach((name, h) -> sb.append("\n  ").append(name).append(" : ").append(h));
+        return sb.toString();
+    }
+
+    // 이름마다 하나. 다시 등록하면 function 만 바뀌므로 리스너에 넘긴 객체가 계속 최신 함수를 따라간다.
+    private static final class FunctionCount implements LongSupplier {
+        private volatile LongSupplier function;
+
+        private FunctionCount(LongSupplier function) {
+            this.function = function;
+        }
+
+        @Override
+        public long getAsLong() {
+            return function.getAsLong();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.modern.optional;
+
+import com.modern.exec.AdaptiveQueryExecutor;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.RecursiveTask;
+
+public class InsuranceNameResolver {
+    /**
+     * Person 목록에서 보험 회사 이름을 중복없이 모으는 대량 처리기 (OptionalChap2.getCarInsuranceNames 의 결과와 같다)
+     *  getCarInsuranceNames 는 사람마다 map / flatMap / map 을 거치며 Optional 을 최대 3개 만들고
+     *  Optional::stream 으로 다시 스트림을 만든다. 수천만 명을 처리하면 이 임시 객체들이 GC 비용이 된다.
+     *
+     *  1. 필드에 이미 들어있는 Optional 을 isPresent / get 으로 바로 풀어서 따라간다. 새 Optional 을 만들지 않는다.
+     *     이미 Set 에 있는 이름을 다시 add 해도 할당이 없으므로 보험사 수가 적으면 사람 수와 상관없이 할당이 거의 없다.
+     *  2. 입력이 크면(AdaptiveQueryExecutor.shouldParallelize) 인덱스 구간으로 반씩 나눠 ForkJoinPool 에서 처리한다.
+     *     구간 하나는 한 워커 스레드가 자기 HashSet 에 모으므로 잠금이 없다. 합칠때는 작은 Set 을 큰 Set 에 넣는다.
+     *  3. RandomAccess 가 아닌 리스트(LinkedList 등)는 배열 스냅샷으로 바꿔서 나눈다.
+     *  4. Optional 필드 자체가 null 이면 값이 없는 것으로 본다. (Optional 체인이라면 NullPointerException)
+     * */
+
+    static final int MIN_CHUNK_SIZE = 4_096;
+
+    private final AdaptiveQueryExecutor executor;
+
+    public InsuranceNameResolver(AdaptiveQueryExecutor executor) {
+        this.executor = Objects.requireNonNull(executor, "executor");
+    }
+
+    /* 입력 크기에 따라 순차/병렬을 고른다. */
+    public Set<String> resolve(List<OptionalChap2.Person> persons) {
+        if (!executor.shouldParallelize(persons.size(), 1)) {
+            return resolveSequential(persons);
+        }
+        return resolveParallel(persons);
+    }
+
+    public static Set<String> resolveSequential(List<OptionalChap2.Person> persons) {
+        Set<String> names = new HashSet<>();
+        if (persons instanceof RandomAccess) {
+            collect(persons, 0, persons.size(), names);
+        } else {
+            for (OptionalChap2.Person person : persons) {
+                add(person, names);
+            }
+        }
+        return names;
+    }
+
+    /* 크기와 상관없이 항상 구간을 나눠 병렬로 처리한다. */
+    public Set<String> resolveParallel(List<OptionalChap2.Person> persons) {
+        List<OptionalChap2.Person> source = persons instanceof RandomAccess
+                ? persons
+                : Arrays.asList(persons.toArray(new OptionalChap2.Person[0]));
+        // 워커마다 구간을 몇개씩 가져가도록 잘게 나누되, 구간이 너무 작으면 Set 을 합치는 비용이 커진다.
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, source.size() / (executor.pool().getParallelism() * 4));
+        return executor.invoke(new ChunkTask(source, 0, source.size(), chunkSize));
+    }
+
+    /* 보험 회사 이름 (차, 보험, 이름 중 하나라도 없으면 null) */
+    public static String insuranceNameOf(OptionalChap2.Person person) {
+        Optional<OptionalChap2.Car> car = person.getCar();
+        if (car == null || car.isEmpty()) {
+            return null;
+        }
+        Optional<OptionalChap2.Insurance> insurance = car.get().getInsurance();
+        if (insurance == null || insurance.isEmpty()) {
+            return null;
+        }
+        return insurance.get().getName();
+    }
+
+    private static void collect(List<OptionalChap2.Person> persons, int from, int to, Set<String> names) {
+        for (int i = from; i < to; i++) {
+            add(persons.get(i), names);
+        }
+    }
+
+    private static void add(OptionalChap2.Person person, Set<String> names) {
+        String name = insuranceNameOf(person);
+        if (name != null) { // Optional.map 은 null 을 빈 Optional 로 바꾸므로 이름이 null 이면 빠진다.
+            names.add(name);
+        }
+    }
+
+    // [from, to) 구간을 반씩 나누다가 chunkSize 이하가 되면 자기 Set 에 모은다. (직렬화할 일이 없는 작업이다)
+    @SuppressWarnings("serial")
+    private static final class ChunkTask extends RecursiveTask<Set<String>> {
+        private final List<OptionalChap2.Person> persons;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        private ChunkTask(List<OptionalChap2.Person> persons, int from, int to, int chunkSize) {
+            this.persons = persons;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected Set<String> compute() {
+            if (to - from <= chunkSize) {
+                Set<String> names = new HashSet<>();
+                collect(persons, from, to, names);
+                return names;
+            }
+            int mid = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(persons, from, mid, chunkSize);
+            left.fork();
+            Set<String> right = new ChunkTask(persons, mid, to, chunkSize).compute();
+            return merge(left.join(), right);
+        }
+
+        private static Set<String> merge(Set<String> a, Set<String> b) {
+            if (a.size() < b.size()) {
+                b.addAll(a);
+                return b;
+            }
+            a.addAll(b);
+            return a;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.modern.optional;
 
+import java.lang.invoke.MethodHandles;
+
 public class OptionalChap1 {
     /**
      * 1965년 토니 호어라는 영국 컴퓨터과학자가 heap에 할당되는 레코드를 사용하며 형식을 갖는 최초의 프로그래밍
@@ -70,6 +72,16 @@ public class OptionalChap1 {
         }
         return insurance.getName();
     }
+
+    // main2(), main3()의 null 확인을 경로 문자열 하나로 대신한다.
+    // PropertyPath 는 "car.insurance.name"을 null 안전한 MethodHandle 하나로 컴파일해 두기 때문에 실행중엔 리플렉션이 없다.
+    // static final 필드에 두어야 JIT 가 getter 직접 호출과 같은 코드로 인라인한다.
+    private static final PropertyPath<Person, String> INSURANCE_NAME =
+            PropertyPath.compile(MethodHandles.lookup(), Person.class, "car.insurance.name", String.class);
+
+    public String main4(Person person) {
+        return INSURANCE_NAME.getOrDefault(person, "Unknown");
+    }
     /**
      * null로인해 발생하는 문제
      *  1. 에러의 근원 : NullpointerException발생
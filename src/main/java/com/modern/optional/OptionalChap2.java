@@ -1,5 +1,8 @@
 package com.modern.optional;
 
+import com.modern.exec.AdaptiveQueryExecutor;
+
+import java.lang.invoke.MethodHandles;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -21,21 +24,33 @@ public class OptionalChap2 {
      * */
     // 기존 Person, Car 클래스는 OptionalChap1의 재정의
     // Optional 로 재정의
-    class Person {
+    public class Person {
         private Optional<Car> car;
+        public Person() {
+            this(null);
+        }
+        public Person(Car car) {
+            this.car = Optional.ofNullable(car);
+        }
         public Optional<Car> getCar(){
             return car;
         }
     }
     // Optional 로 재정의
-    class Car {
+    public class Car {
         private Optional<Insurance> insurance;
+        public Car() {
+            this(null);
+        }
+        public Car(Insurance insurance) {
+            this.insurance = Optional.ofNullable(insurance);
+        }
         public Optional<Insurance> getInsurance() {
             return insurance;
         }
     }
 
-    class Insurance{
+    public class Insurance{
         /**
          * 조건 : 해당 객체의 name 은 반드시 존재해야하는 필드변수이다.
          * 해당 객체의 name 은 Optional 로 감싸져있지않은데 이는 곧 NullPointException 이 발생할수 있을 알수있다.
@@ -44,6 +59,11 @@ public class OptionalChap2 {
          * 그렇기 때문에 모든 null 참조 를 Optional 로 감싸는것은 옳지 않은 행동이다.
          * */
         private String name;
+        public Insurance() {
+        }
+        public Insurance(String name) {
+            this.name = name;
+        }
         public String getName(){
             return name;
         }
@@ -114,6 +134,15 @@ public class OptionalChap2 {
                 .orElse("NoName"); //Optional 이 비어있으면 기본값 "NoName" 리턴
     }
 
+    // getCarInsuranceName 과 같은 결과를 Optional 할당 없이 얻는다.
+    // getCar(), getInsurance()가 반환하는 Optional 은 PropertyPath 가 orElse(null)로 풀어서 따라간다.
+    private static final PropertyPath<Person, String> INSURANCE_NAME =
+            PropertyPath.compile(MethodHandles.lookup(), Person.class, "car.insurance.name", String.class);
+
+    public String getCarInsuranceName(Person person) {
+        return INSURANCE_NAME.getOrDefault(person, "NoName");
+    }
+
     public Set<String> getCarInsuranceNames(List<Person> persons) {
         return persons.stream()
                 .map(Person::getCar) // 1번째 map()메서드에서는 getCar()메서드는 Optional<Car> 를 반환 (사람이 차를 가지지 않을수도 있는 상황을 반환)
@@ -140,4 +169,13 @@ public class OptionalChap2 {
                 .map(Optional::get)
                 .collect(Collectors.toSet());
     }
+
+    /**
+     * 대량 처리용 : getCarInsuranceNames 와 같은 결과를 Optional 을 새로 만들지 않고 구한다.
+     * 필드에 들어있는 Optional 을 isPresent / get 으로 바로 풀어서 Person -> Car -> Insurance -> name 을 따라간다.
+     * 입력이 크면 구간(chunk)을 나눠 병렬로 처리하고 구간마다 모은 Set 을 마지막에 합친다. (InsuranceNameResolver)
+     * */
+    public Set<String> getCarInsuranceNames3(List<Person> persons) {
+        return new InsuranceNameResolver(AdaptiveQueryExecutor.shared()).resolve(persons);
+    }
 }
@@ -0,0 +1,249 @@
+package com.modern.optional;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.lang.reflect.WildcardType;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+public record PropertyPath<T, R>(Class<T> rootType, String path, Class<?> valueType, MethodHandle handle) {
+    /**
+     * "car.insurance.name" 같은 속성 경로를 null 안전한 MethodHandle 하나로 컴파일한 접근자
+     *  OptionalChap2 의 flatMap(Person::getCar).flatMap(Car::getInsurance).map(Insurance::getName) 은
+     *  경로마다 손으로 작성해야 하고, 단계마다 Optional 을 새로 만든다.
+     *
+     *  1. 경로의 각 이름은 getX() -> isX() -> x() (record 접근자) 순서로 찾는다. 인자가 없는 인스턴스 메서드만 본다.
+     *  2. getter 가 Optional 을 반환하면 orElse(null) 로 풀고, 다음 단계는 Optional<X> 의 X 에서 찾는다.
+     *     (OptionalChap1 처럼 그냥 값을 반환하는 getter 와 섞여 있어도 된다)
+     *  3. 단계마다 "받은 값이 null 이면 null" 가드를 붙여 MethodHandle 하나로 합친다. 중간에 하나라도 없으면 결과는 null 이다.
+     *     실행 중에는 리플렉션도, Optional 할당도 없다. 마지막 값이 기본형이면 박싱된다.
+     *  4. 컴파일 결과는 루트 타입 + Lookup + 경로로 캐시한다. 같은 경로를 다시 compile 하면 같은 객체를 돌려준다.
+     *  5. JIT 는 상수로 알수 있는 MethodHandle 만 인라인한다. 자주 쓰는 경로는 static final 필드에 받아둔다.
+     *     record 의 필드는 JIT 가 상수로 믿어주는 final 필드라서, static final PropertyPath 의 handle 도 상수가 된다.
+     *     (일반 클래스의 final 필드였다면 인라인되지 않아 Optional 체인보다 느리다)
+     *     워밍업 뒤에는 getter 를 직접 호출하고 null 을 확인하는 코드와 거의 같아진다.
+     *     필드나 Map 에서 꺼내 쓰면 MethodHandle 호출 한번의 비용이 남는다.
+     *
+     *  public 이 아닌 클래스(OptionalChap1.Person 등)는 그 클래스에 접근할수 있는 MethodHandles.lookup() 을 넘긴다.
+     * */
+
+    private static final MethodType ERASED = MethodType.methodType(Object.class, Object.class);
+    private static final MethodHandle IS_NULL;
+    private static final MethodHandle OPTIONAL_OR_NULL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            IS_NULL = lookup.findStatic(Objects.class, "isNull", MethodType.methodType(boolean.class, Object.class));
+            MethodHandle orElse = lookup.findVirtual(Optional.class, "orElse",
+                    MethodType.methodType(Object.class, Object.class));
+            OPTIONAL_OR_NULL = MethodHandles.insertArguments(orElse, 1, (Object) null);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // 루트 타입 -> 컴파일된 경로 (클래스가 언로드되면 같이 사라진다)
+    private static final ClassValue<Cache> CACHE = new ClassValue<>() {
+        @Override
+        protected Cache computeValue(Class<?> type) {
+            return new Cache();
+        }
+    };
+
+    /* handle 은 (Object)Object 타입의 null 안전한 접근자다. 보통은 compile 로 만든다. */
+    public PropertyPath {
+        Objects.requireNonNull(rootType, "rootType");
+        Objects.requireNonNull(path, "path");
+        Objects.requireNonNull(valueType, "valueType");
+        if (!handle.type().equals(ERASED)) {
+            throw new IllegalArgumentException("handle must be " + ERASED + ": " + handle.type());
+        }
+    }
+
+    /* public 클래스의 public getter 로만 이루어진 경로 */
+    public static <T> PropertyPath<T, Object> compile(Class<T> rootType, String path) {
+        return compile(MethodHandles.publicLookup(), rootType, path, Object.class);
+    }
+
+    public static <T, R> PropertyPath<T, R> compile(Class<T> rootType, String path, Class<R> resultType) {
+        return compile(MethodHandles.publicLookup(), rootType, path, resultType);
+    }
+
+    /**
+     * lookup 의 접근 권한으로 getter 를 찾는다.
+     * 경로의 마지막 값의 타입이 resultType 에 대입할 수 없으면 IllegalArgumentException (기본형은 박싱 타입으로 비교한다)
+     * */
+    @SuppressWarnings("unchecked")
+    public static <T, R> PropertyPath<T, R> compile(MethodHandles.Lookup lookup, Class<T> rootType, String path,
+                                                    Class<R> resultType) {
+        Objects.requireNonNull(lookup, "lookup");
+        Objects.requireNonNull(rootType, "rootType");
+        Objects.requireNonNull(path, "path");
+        Objects.requireNonNull(resultType, "resultType");
+        Cache cache = CACHE.get(rootType);
+        PropertyPath<?, ?> compiled = isPublic(lookup)
+                ? cache.publicPaths.computeIfAbsent(path, p -> build(lookup, rootType, p))
+                : cache.privatePaths.computeIfAbsent(new Key(lookup.lookupClass(), lookup.lookupModes(), path),
+                        k -> build(lookup, rootType, k.path()));
+        if (!box(resultType).isAssignableFrom(compiled.valueType)) {
+            throw new IllegalArgumentException(rootType.getSimpleName() + "." + path + " is "
+                    + compiled.valueType.getName() + ", not " + resultType.getName());
+        }
+        return (PropertyPath<T, R>) compiled;
+    }
+
+    /* 경로 중간에 null 이나 빈 Optional 이 있으면 null (root 가 null 이어도 null) */
+    @SuppressWarnings("unchecked")
+    public R get(T root) {
+        try {
+            return (R) (Object) handle.invokeExact((Object) root);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    public R getOrDefault(T root, R defaultValue) {
+        R value = get(root);
+        return value != null ? value : defaultValue;
+    }
+
+    public Optional<R> find(T root) {
+        return Optional.ofNullable(get(root));
+    }
+
+    @Override
+    public String toString() {
+        return "PropertyPath[" + rootType.getSimpleName() + "." + path + " -> " + valueType.getSimpleName() + "]";
+    }
+
+    private static <T> PropertyPath<T, ?> build(MethodHandles.Lookup lookup, Class<T> rootType, String path) {
+        if (rootType.isPrimitive()) {
+            throw new IllegalArgumentException("Root type must be a reference type: " + rootType);
+        }
+        Class<?> type = rootType;
+        MethodHandle chain = null; // (rootType)type
+        for (String name : path.split("\\.", -1)) {
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Empty property name in path: '" + path + "'");
+            }
+            if (type.isPrimitive()) {
+                throw new IllegalArgumentException("Cannot navigate into " + type + " at '" + name + "' in " + path);
+            }
+            Method getter = findGetter(type, name);
+            if (getter == null) {
+                throw new IllegalArgumentException("No getter for '" + name + "' on " + type.getName() + " in " + path);
+            }
+            MethodHandle hop;
+            try {
+                hop = lookup.unreflect(getter).asType(MethodType.methodType(getter.getReturnType(), type));
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Cannot access " + getter + " from " + lookup, e);
+            }
+            Class<?> next = getter.getReturnType();
+            if (next == Optional.class) {
+                next = optionalElementType(getter.getGenericReturnType());
+                // Optional 필드 자체가 null 인 경우도 빈 Optional 처럼 다룬다.
+                MethodHandle unwrap = nullSafe(OPTIONAL_OR_NULL.asType(MethodType.methodType(next, Optional.class)));
+                hop = MethodHandles.filterReturnValue(hop, unwrap);
+            } else if (next.isPrimitive()) {
+                next = box(next);
+                hop = hop.asType(MethodType.methodType(next, type));
+            }
+            hop = nullSafe(hop);
+            chain = chain == null ? hop : MethodHandles.filterReturnValue(chain, hop);
+            type = next;
+        }
+        MethodHandle erased = chain.asType(ERASED);
+        return new PropertyPath<>(rootType, path, type, erased);
+    }
+
+    // (A)B -> 인자가 null 이면 null 을 반환하는 (A)B
+    private static MethodHandle nullSafe(MethodHandle target) {
+        MethodType type = target.type();
+        MethodHandle isNull = IS_NULL.asType(MethodType.methodType(boolean.class, type.parameterType(0)));
+        return MethodHandles.guardWithTest(isNull, MethodHandles.empty(type), target);
+    }
+
+    private static Method findGetter(Class<?> type, String name) {
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        Method found = findMethod(type, "get" + capitalized);
+        if (found == null) {
+            Method is = findMethod(type, "is" + capitalized);
+            found = is != null && is.getReturnType() == boolean.class ? is : null;
+        }
+        return found != null ? found : findMethod(type, name);
+    }
+
+    // public 메서드(인터페이스 포함)를 먼저 보고, 없으면 상위 클래스를 따라 public 이 아닌 메서드를 찾는다.
+    private static Method findMethod(Class<?> type, String name) {
+        for (Method m : type.getMethods()) {
+            if (isGetter(m, name)) {
+                return m;
+            }
+        }
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Method m : c.getDeclaredMethods()) {
+                if (isGetter(m, name)) {
+                    return m;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isGetter(Method m, String name) {
+        return m.getName().equals(name) && m.getParameterCount() == 0 && m.getReturnType() != void.class
+                && !m.isBridge() && !Modifier.isStatic(m.getModifiers());
+    }
+
+    // Optional<X> 의 X (와일드카드나 타입 변수면 상한 타입)
+    private static Class<?> optionalElementType(Type optionalType) {
+        Type element = optionalType instanceof ParameterizedType p ? p.getActualTypeArguments()[0] : Object.class;
+        return erase(element);
+    }
+
+    private static Class<?> erase(Type type) {
+        if (type instanceof Class<?> c) {
+            return c;
+        }
+        if (type instanceof ParameterizedType p) {
+            return erase(p.getRawType());
+        }
+        if (type instanceof WildcardType w) {
+            return erase(w.getUpperBounds()[0]);
+        }
+        if (type instanceof TypeVariable<?> v) {
+            return erase(v.getBounds()[0]);
+        }
+        return Object.class;
+    }
+
+    private static Class<?> box(Class<?> type) {
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    private static boolean isPublic(MethodHandles.Lookup lookup) {
+        return lookup.lookupClass() == Object.class && lookup.lookupModes() == MethodHandles.Lookup.UNCONDITIONAL;
+    }
+
+    // 같은 경로라도 Lookup 의 권한이 다르면 따로 컴파일한다. (권한이 약한 호출자에게 캐시로 접근자가 새지 않도록)
+    private record Key(Class<?> lookupClass, int lookupModes, String path) {
+    }
+
+    private static final class Cache {
+        private final Map<String, PropertyPath<?, ?>> publicPaths = new ConcurrentHashMap<>();
+        private final Map<Key, PropertyPath<?, ?>> privatePaths = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,160 @@
+package com.modern.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@Profile("loadtest")
+public class LoadTestRunner implements ApplicationRunner {
+    /**
+     * 로컬 부하 테스트 (loadtest 프로필)
+     *  ./gradlew bootRun --args='--spring.profiles.active=loadtest'
+     *
+     *  서버가 뜨면 같은 프로세스에서 HttpClient 로 질의 API 를 호출한다.
+     *  concurrency 개의 가상 스레드가 쉬지 않고 요청을 보내고(closed loop) 응답 지연시간을 모두 기록한다.
+     *  워밍업 요청은 통계에서 뺀다. 끝나면 p50 / p90 / p99 / max 지연시간과 초당 요청 수를 출력한다.
+     *  revalidate 가 true 면 이전 응답의 ETag 를 If-None-Match 로 보내서 304 경로를 잰다.
+     * */
+
+    private final Environment environment;
+    private final ConfigurableApplicationContext context;
+    private final List<String> paths;
+    private final int concurrency;
+    private final int requests;
+    private final int warmupRequests;
+    private final boolean revalidate;
+    private final boolean exitWhenDone;
+
+    public LoadTestRunner(Environment environment, ConfigurableApplicationContext context,
+                          @Value("${loadtest.paths}") List<String> paths,
+                          @Value("${loadtest.concurrency:64}") int concurrency,
+                          @Value("${loadtest.requests:200000}") int requests,
+                          @Value("${loadtest.warmup-requests:20000}") int warmupRequests,
+                          @Value("${loadtest.revalidate:false}") boolean revalidate,
+                          @Value("${loadtest.exit:true}") boolean exitWhenDone) {
+        if (concurrency <= 0 || requests <= 0 || paths.isEmpty()) {
+            throw new IllegalArgumentException("loadtest needs paths, positive concurrency and requests");
+        }
+        this.environment = environment;
+        this.context = context;
+        this.paths = paths;
+        this.concurrency = concurrency;
+        this.requests = requests;
+        this.warmupRequests = Math.max(0, warmupRequests);
+        this.revalidate = revalidate;
+        this.exitWhenDone = exitWhenDone;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        String base = "http://localhost:" + environment.getProperty("local.server.port");
+        URI[] uris = paths.stream().map(path -> URI.create(base + path)).toArray(URI[]::new);
+        Report report;
+        // 클라이언트와 클라이언트가 쓰는 실행기를 둘 다 닫는다. (HttpClient 는 자기가 만들지 않은 실행기를 닫지 않는다)
+        try (ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .executor(clientExecutor)
+                     .connectTimeout(Duration.ofSeconds(5))
+                     .build()) {
+            run(client, uris, warmupRequests);
+            report = run(client, uris, requests);
+        }
+        System.out.println("loadtest " + paths + " concurrency=" + concurrency + " revalidate=" + revalidate);
+        System.out.println(report);
+
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context, () -> report.errors() == 0 ? 0 : 1));
+        }
+    }
+
+    private Report run(HttpClient client, URI[] uris, int total) throws Exception {
+        long[] latencies = new long[total];
+        AtomicLong next = new AtomicLong();
+        LongAdder notModified = new LongAdder();
+        LongAdder errors = new LongAdder();
+        long start = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?>[] futures = new Future<?>[concurrency];
+            for (int w = 0; w < concurrency; w++) {
+                futures[w] = workers.submit(() -> {
+                    String[] etags = new String[uris.length];
+                    long i;
+                    while ((i = next.getAndIncrement()) < total) {
+                        int target = (int) (i % uris.length);
+                        HttpRequest.Builder request = HttpRequest.newBuilder(uris[target]).GET();
+                        if (revalidate && etags[target] != null) {
+                            request.header("If-None-Match", etags[target]);
+                        }
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+                            latencies[(int) i] = System.nanoTime() - t0;
+                            if (response.statusCode() == 304) {
+                                notModified.increment();
+                            } else if (response.statusCode() != 200) {
+                                errors.increment();
+                            }
+                            etags[target] = response.headers().firstValue("ETag").orElse(null);
+                        } catch (Exception e) {
+                            latencies[(int) i] = System.nanoTime() - t0;
+                            errors.increment();
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        return new Report(total, elapsed, notModified.sum(), errors.sum(),
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1]);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    public record Report(long requests, long elapsedNanos, long notModified, long errors,
+                         long p50Nanos, long p90Nanos, long p99Nanos, long maxNanos) {
+
+        public double requestsPerSecond() {
+            return elapsedNanos == 0 ? 0 : requests / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d requests in %.1f s -> %,.0f req/s | p50=%.3f ms p90=%.3f ms p99=%.3f ms max=%.3f ms"
+                            + " | 304=%,d errors=%,d",
+                    requests, elapsedNanos / 1_000_000_000.0, requestsPerSecond(),
+                    p50Nanos / 1_000_000.0, p90Nanos / 1_000_000.0, p99Nanos / 1_000_000.0, maxNanos / 1_000_000.0,
+                    notModified, errors);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.modern.web;
+
+import com.modern.metrics.LatencyHistogram;
+import com.modern.metrics.MetricsRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+@Configuration
+public class MetricsConfiguration {
+    /**
+     * MetricsRegistry 의 지표를 Micrometer(Actuator)로 내보낸다.
+     *  /actuator/metrics 와 /actuator/prometheus 로 조회/수집할 수 있다.
+     *
+     *  ● 카운터 -> FunctionCounter (조회할때 LongAdder.sum)
+     *  ● 함수 카운터 -> FunctionCounter (조회할때 LongSupplier.getAsLong. 약한 참조지만 MetricsRegistry 가 잡고 있다)
+     *  ● 게이지 -> Gauge (Gauge.builder 는 넘긴 객체를 약한 참조로 잡는다. 게이지 함수는 다른 곳에서 잡고 있지 않으므로 strongReference)
+     *  ● 히스토그램 -> FunctionTimer(count, total) + 이름.max 와 이름.percentile{phi=0.5,0.9,0.99,0.999} TimeGauge
+     *  기록하는 쪽은 Micrometer 를 모른다. 값은 수집할때만 읽으므로 뜨거운 경로의 비용은 그대로다.
+     *  애플리케이션이 뜬 뒤에 등록되는 지표도 리스너로 받아서 내보낸다.
+     *  히스토그램이 replace 로 바뀌면 이전 히스토그램의 Meter 들을 지우고 새로 등록한다. (Micrometer 는 같은 이름이면 기존 Meter 를 돌려준다)
+     * */
+
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+
+    @Bean
+    public MetricsRegistry metricsRegistry() {
+        return MetricsRegistry.shared();
+    }
+
+    @Bean
+    public MeterBinder modernMetricsBinder(MetricsRegistry metricsRegistry) {
+        return meterRegistry -> metricsRegistry.addListener(new MicrometerListener(meterRegistry));
+    }
+
+    private static final class MicrometerListener implements MetricsRegistry.Listener {
+        private final MeterRegistry meterRegistry;
+        private final Map<String, List<Meter>> histogramMeters = new HashMap<>(); // onHistogram 에서만 (synchronized)
+
+        private MicrometerListener(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public void onCounter(String name, LongAdder counter) {
+            FunctionCounter.builder(name, counter, LongAdder::sum).register(meterRegistry);
+        }
+
+        @Override
+        public synchronized void onHistogram(String name, LatencyHistogram histogram) {
+            List<Meter> previous = histogramMeters.remove(name);
+            if (previous != null) {
+                previous.forEach(meterRegistry::remove);
+            }
+            List<Meter> meters = new ArrayList<>();
+            meters.add(FunctionTimer.builder(name, histogram, LatencyHistogram::count, LatencyHistogram::totalNanos, TimeUnit.NANOSECONDS)
+                    .register(meterRegistry));
+            meters.add(TimeGauge.builder(name + ".max", histogram, TimeUnit.NANOSECONDS, h -> h.snapshot().maxNanos())
+                    .register(meterRegistry));
+            for (double p : PERCENTILES) {
+                meters.add(TimeGauge.builder(name + ".percentile", histogram, TimeUnit.NANOSECONDS,
+                                h -> h.snapshot().valueAtPercentile(p * 100))
+                        .tag("phi", String.valueOf(p))
+                        .register(meterRegistry));
+            }
+            histogramMeters.put(name, meters);
+        }
+
+        @Override
+        public void onGauge(String name, DoubleSupplier gauge) {
+            Gauge.builder(name, gauge, DoubleSupplier::getAsDouble)
+                    .strongReference(true) // 약한 참조면 GC 뒤에 NaN 이 된다.
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public void onFunctionCounter(String name, LongSupplier count) {
+            FunctionCounter.builder(name, count, LongSupplier::getAsLong).register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.modern.web;
+
+import com.modern.dto.Dish;
+import com.modern.dto.DishTagIndex;
+import com.modern.exec.DigestCache;
+import com.modern.metrics.MetricsRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class QueryConfiguration {
+    /**
+     * 질의 API 가 쓰는 객체들
+     *  메뉴/태그 색인은 Dish.menu, Dish.dishTags 로 한번만 만든다.
+     *  요청 처리 스레드는 가상 스레드다. (application.properties 의 spring.threads.virtual.enabled)
+     * */
+
+    @Bean
+    public DishTagIndex dishTagIndex() {
+        return DishTagIndex.of(Dish.menu, Dish.dishTags);
+    }
+
+    @Bean
+    public DigestCache digestCache(@Value("${modern.query.digest-cache-size:100000}") long maximumSize,
+                                   MetricsRegistry metricsRegistry) {
+        DigestCache cache = new DigestCache(maximumSize);
+        cache.bindTo(metricsRegistry, "query.digest.cache");
+        return cache;
+    }
+
+    @Bean
+    public ResponseCache responseCache(@Value("${modern.query.response-cache-size:10000}") int maximumSize) {
+        return new ResponseCache(maximumSize);
+    }
+}
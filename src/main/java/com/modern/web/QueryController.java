@@ -0,0 +1,214 @@
+package com.modern.web;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.modern.datastructure.CompressedBitmap;
+import com.modern.dto.Dish;
+import com.modern.dto.DishTagIndex;
+import com.modern.exec.DigestCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+public class QueryController {
+    /**
+     * 메뉴 / 태그 / 다이제스트 질의 API
+     *  GET /api/menu?vegetarian=true&minCalories=300&type=OTHER : 조건에 맞는 요리
+     *  GET /api/tags/{tag}?top=3 : 태그가 붙은 요리 (top 이 있으면 칼로리 높은 순 k 개)
+     *  GET /api/dishes?all=salty,roasted&any=...&none=...&top=3 : 태그 AND / OR / NOT 질의 (DishTagIndex)
+     *  GET /api/digest?value=... : SHA-256 다이제스트 (DigestCache)
+     *
+     *  1. 응답은 Jackson 스트리밍 API(JsonGenerator)로 바로 바이트로 쓴다. (중간 객체/리플렉션 없음)
+     *  2. 메뉴/태그 응답은 질의 조건을 키로 직렬화된 바이트를 ResponseCache 에 둔다.
+     *     캐시에 있으면 바이트 배열을 그대로 출력 스트림에 쓴다.
+     *     캐시 항목은 계산 전에 읽은 DishTagIndex.version() 에 묶여있어서 색인이 바뀌면 다시 계산된다.
+     *  3. 모든 응답에 ETag 를 붙이고 If-None-Match 가 같으면 본문 없이 304 를 보낸다.
+     *     다이제스트는 결과 자체가 ETag 라서 304 일때는 JSON 을 만들지도 않는다.
+     * */
+
+    private final DishTagIndex tagIndex;
+    private final DigestCache digestCache;
+    private final ResponseCache responses;
+    private final JsonFactory json;
+
+    public QueryController(DishTagIndex tagIndex, DigestCache digestCache, ResponseCache responses, ObjectMapper objectMapper) {
+        this.tagIndex = tagIndex;
+        this.digestCache = digestCache;
+        this.responses = responses;
+        this.json = objectMapper.getFactory();
+    }
+
+    @GetMapping("/menu")
+    public void menu(@RequestParam(required = false) Boolean vegetarian,
+                     @RequestParam(defaultValue = "0") int minCalories,
+                     @RequestParam(required = false) Dish.Type type,
+                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String key = "menu|" + vegetarian + '|' + minCalories + '|' + type;
+        serve(request, response, responses.get(key, tagIndex.version(), () -> {
+            List<Dish> dishes = tagIndex.select(vegetarian, minCalories, type); // 색인의 읽기 락 안에서 찍은 스냅샷
+            return render(g -> {
+                g.writeStartArray();
+                for (Dish dish : dishes) {
+                    g.writeStartObject();
+                    g.writeStringField("name", dish.getName());
+                    g.writeBooleanField("vegetarian", dish.isVegetarian());
+                    g.writeNumberField("calories", dish.getCalories());
+                    g.writeStringField("type", dish.getType().name());
+                    g.writeEndObject();
+                }
+                g.writeEndArray();
+            });
+        }));
+    }
+
+    @GetMapping("/tags/{tag}")
+    public void tag(@PathVariable String tag,
+                    @RequestParam(defaultValue = "0") int top,
+                    HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String key = "tag|" + tag + '|' + top;
+        serve(request, response, responses.get(key, tagIndex.version(), () -> {
+            CompressedBitmap dishes = tagIndex.dishesTagged(tag);
+            return render(g -> {
+                g.writeStartObject();
+                g.writeStringField("tag", tag);
+                g.writeNumberField("count", dishes.cardinality());
+                writeNames(g, dishes, top);
+                g.writeEndObject();
+            });
+        }));
+    }
+
+    @GetMapping("/dishes")
+    public void dishes(@RequestParam(required = false) List<String> all,
+                       @RequestParam(required = false) List<String> any,
+                       @RequestParam(required = false) List<String> none,
+                       @RequestParam(defaultValue = "0") int top,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // 태그 순서가 달라도 같은 질의이므로 정렬해서 캐시 키를 만든다.
+        List<String> allTags = sorted(all);
+        List<String> anyTags = sorted(any);
+        List<String> noneTags = sorted(none);
+        String key = "dishes|" + allTags + '|' + anyTags + '|' + noneTags + '|' + top;
+        serve(request, response, responses.get(key, tagIndex.version(), () -> {
+            CompressedBitmap dishes = tagIndex.allOf(allTags.toArray(new String[0])); // 태그가 없으면 전체
+            if (!anyTags.isEmpty()) {
+                dishes = CompressedBitmap.and(dishes, tagIndex.anyOf(anyTags.toArray(new String[0])));
+            }
+            if (!noneTags.isEmpty()) {
+                dishes = CompressedBitmap.andNot(dishes, tagIndex.anyOf(noneTags.toArray(new String[0])));
+            }
+            CompressedBitmap result = dishes;
+            return render(g -> {
+                g.writeStartObject();
+                g.writeNumberField("count", result.cardinality());
+                writeNames(g, result, top);
+                g.writeEndObject();
+            });
+        }));
+    }
+
+    @GetMapping("/digest")
+    public void digest(@RequestParam String value,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String hex = HexFormat.of().formatHex(digestCache.computeIfAbsent(value));
+        String etag = '"' + hex + '"';
+        if (notModified(request, response, etag)) {
+            return;
+        }
+        write(response, render(g -> {
+            g.writeStartObject();
+            g.writeStringField("algorithm", DigestCache.DEFAULT_ALGORITHM);
+            g.writeStringField("value", value);
+            g.writeStringField("digest", hex);
+            g.writeEndObject();
+        }));
+    }
+
+    private void writeNames(JsonGenerator g, CompressedBitmap dishes, int top) throws IOException {
+        List<String> names = top > 0 ? tagIndex.topKNamesByCalories(dishes, top) : tagIndex.names(dishes);
+        g.writeArrayFieldStart("dishes");
+        for (String name : names) {
+            g.writeString(name);
+        }
+        g.writeEndArray();
+    }
+
+    private void serve(HttpServletRequest request, HttpServletResponse response, ResponseCache.CachedResponse cached)
+            throws IOException {
+        if (!notModified(request, response, cached.etag())) {
+            write(response, cached.body());
+        }
+    }
+
+    // ETag 와 재검증 헤더를 붙이고, If-None-Match 가 일치하면 304 를 보낸다.
+    private static boolean notModified(HttpServletRequest request, HttpServletResponse response, String etag) {
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache"); // 캐시해도 되지만 쓰기 전에 매번 재검증
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        return false;
+    }
+
+    static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) { // If-None-Match 는 약한 비교를 한다.
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void write(HttpServletResponse response, byte[] body) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private byte[] render(JsonWriter writer) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator g = json.createGenerator(out)) {
+            writer.write(g);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<String> sorted(List<String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> copy = new ArrayList<>(tags);
+        Collections.sort(copy);
+        return copy;
+    }
+
+    @FunctionalInterface
+    private interface JsonWriter {
+        void write(JsonGenerator g) throws IOException;
+    }
+}
@@ -0,0 +1,193 @@
+package com.modern.web;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class ResponseCache {
+    /**
+     * 직렬화가 끝난 응답(JSON 바이트 + ETag) 캐시
+     *  같은 질의는 한번만 계산/직렬화하고 이후에는 바이트 배열을 그대로 출력 스트림에 쓴다.
+     *  ETag 는 본문 바이트의 해시라서 본문이 같으면 ETag 도 같다.
+     *
+     *  ● 조회는 ConcurrentHashMap 이라 락이 없다.
+     *  ● 항목마다 만들때의 데이터 버전(DishTagIndex.version())을 같이 둔다. 버전이 다르면 미스로 보고 다시 계산한다.
+     *    더 큰 버전이 처음 들어오면 이전 버전 항목을 한번에 지운다. 그래서 색인이 바뀐 뒤 예전 본문/ETag 가 나가지 않는다.
+     *  ● 버전은 본문을 계산하기 "전에" 읽어야 한다. 계산 도중 색인이 바뀌면 새 데이터가 옛 버전 번호로 저장될 뿐이고
+     *    다음 조회에서 다시 계산된다. (반대로 옛 데이터가 새 버전 번호로 저장되는 일은 없다)
+     *  ● maximumSize 를 넘으면 second chance(CLOCK) 방식으로 축출한다. 항목은 원형 배열(ring)의 슬롯에 놓이고
+     *    시계바늘(hand)은 지난번 축출이 멈춘 슬롯부터 돌면서 referenced 표시가 있으면 지우고 지나가고, 없으면 그 항목을 지운다.
+     *    조회 경로는 표시 하나만 쓰므로 LRU 처럼 락이 필요없다.
+     *  ● 항목을 넣고 지우는 일(미스 경로)은 ring 락 안에서만 하므로 항목 수는 maximumSize 를 넘지 않는다.
+     *    본문 계산은 락 밖에서 한다.
+     *  ● 같은 키를 두 스레드가 동시에 계산할수는 있지만 결과가 같으니 먼저 넣은 값을 쓴다. (DigestCache 와 같다)
+     * */
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maximumSize;
+    private final Object clockLock = new Object();
+    private Entry[] ring; // 아래 세 필드는 clockLock 안에서만 읽고 쓴다.
+    private int hand;
+    private int used;
+    private final AtomicLong latestVersion = new AtomicLong(Long.MIN_VALUE);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ResponseCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.ring = new Entry[Math.min(maximumSize, 16)];
+    }
+
+    /**
+     * version 으로 만든 응답이 있으면 그대로 반환하고, 없거나 다른 버전이면 body 로 다시 만들어 저장한다.
+     * version 은 body 가 읽는 데이터의 버전이고 body 를 호출하기 전에 읽은 값이어야 한다.
+     * */
+    public CachedResponse get(String key, long version, Supplier<byte[]> body) {
+        Entry cached = entries.get(key);
+        if (cached != null && cached.version == version) {
+            if (!cached.referenced) {
+                cached.referenced = true;
+            }
+            hits.increment();
+            return cached.response;
+        }
+        misses.increment();
+        dropOlderThan(version);
+        Entry created = new Entry(key, version, CachedResponse.of(body.get()));
+        synchronized (clockLock) {
+            Entry current = entries.get(key);
+            // 같은 버전 이상이 이미 들어가 있으면 그것을 쓰고, 옛 버전이면 같은 슬롯에 바꿔 넣는다.
+            if (current != null && current.version >= version) {
+                return current.response;
+            }
+            created.slot = current != null ? current.slot : claimSlot();
+            ring[created.slot] = created;
+            entries.put(key, created);
+            return created.response;
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (clockLock) {
+            entries.clear();
+            Arrays.fill(ring, null);
+            used = 0;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ResponseCache[size=%d, hits=%d, misses=%d, evictions=%d]",
+                size(), hitCount(), missCount(), evictionCount());
+    }
+
+    // 처음 보는 더 큰 버전이면 그보다 오래된 항목을 모두 지운다. 버전마다 한 스레드만 지운다.
+    private void dropOlderThan(long version) {
+        long latest = latestVersion.get();
+        while (version > latest) {
+            if (latestVersion.compareAndSet(latest, version)) {
+                synchronized (clockLock) {
+                    for (int i = 0; i < ring.length; i++) {
+                        Entry e = ring[i];
+                        if (e != null && e.version < version) {
+                            entries.remove(e.key, e);
+                            ring[i] = null;
+                            used--;
+                        }
+                    }
+                }
+                return;
+            }
+            latest = latestVersion.get();
+        }
+    }
+
+    /**
+     * 새 항목이 들어갈 슬롯을 고른다. (clockLock 안에서 부른다)
+     * 가득 차지 않았으면 빈 슬롯을 쓰고(없으면 ring 을 maximumSize 까지 늘린다),
+     * 가득 찼으면 hand 를 돌려 최근에 조회되지 않은 항목 하나를 지운다. 모두 조회된 상태라도 한바퀴 돌면 표시가 지워져 있다.
+     * */
+    private int claimSlot() {
+        if (used < maximumSize) {
+            if (used == ring.length) {
+                ring = Arrays.copyOf(ring, (int) Math.min(maximumSize, 2L * ring.length));
+            }
+            while (ring[hand] != null) {
+                hand = (hand + 1) % ring.length;
+            }
+            used++;
+            return advanceHand();
+        }
+        while (true) {
+            Entry e = ring[hand];
+            if (!e.referenced) {
+                entries.remove(e.key, e);
+                evictions.increment();
+                return advanceHand();
+            }
+            e.referenced = false;
+            hand = (hand + 1) % ring.length;
+        }
+    }
+
+    // 지금 슬롯을 반환하고 hand 를 다음 슬롯으로 옮긴다. 방금 넣은 항목이 다음 축출의 첫 후보가 되지 않게 한다.
+    private int advanceHand() {
+        int slot = hand;
+        hand = (hand + 1) % ring.length;
+        return slot;
+    }
+
+    private static final class Entry {
+        final String key;
+        final long version;
+        final CachedResponse response;
+        volatile boolean referenced;
+        int slot; // clockLock 안에서만 쓴다.
+
+        Entry(String key, long version, CachedResponse response) {
+            this.key = key;
+            this.version = version;
+            this.response = response;
+        }
+    }
+
+    public record CachedResponse(byte[] body, String etag) {
+
+        public static CachedResponse of(byte[] body) {
+            return new CachedResponse(body, etagOf(body));
+        }
+
+        // 강한 ETag : 본문의 64비트 FNV-1a 해시
+        static String etagOf(byte[] body) {
+            long h = 0xcbf29ce484222325L;
+            for (byte b : body) {
+                h ^= b & 0xff;
+                h *= 0x100000001b3L;
+            }
+            return '"' + Long.toHexString(h) + '"';
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.modern.datastructure;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AhoCorasickTests {
+
+    @Test
+    void findsOverlappingKeywords() {
+        AhoCorasick automaton = AhoCorasick.of("he", "she", "his", "hers");
+        List<String> found = new ArrayList<>();
+        automaton.search("ushers", id -> found.add(automaton.keyword(id)));
+        assertEquals(List.of("she", "he", "hers"), found);
+        assertTrue(automaton.containsAny("this"));
+        assertFalse(automaton.containsAny("xyz"));
+    }
+
+    @Test
+    void matchIdsAgreesWithContainsUnderChurn() {
+        SplittableRandom random = new SplittableRandom(13);
+        AhoCorasick automaton = new AhoCorasick();
+        Set<String> live = new LinkedHashSet<>();
+        for (int step = 0; step < 5_000; step++) {
+            String keyword = randomWord(random, 1 + random.nextInt(5));
+            if (random.nextBoolean()) {
+                automaton.add(keyword);
+                live.add(keyword);
+            } else {
+                assertEquals(live.remove(keyword), automaton.remove(keyword));
+            }
+            if (step % 50 == 0) {
+                String text = randomWord(random, 40);
+                int[] expected = live.stream()
+                        .filter(text::contains)
+                        .mapToInt(automaton::idOf)
+                        .sorted()
+                        .toArray();
+                assertArrayEquals(expected, automaton.matchIds(text));
+            }
+        }
+        assertEquals(live.size(), automaton.size());
+    }
+
+    @Test
+    void removedKeywordsReleaseTrieNodes() {
+        AhoCorasick automaton = AhoCorasick.of("shared");
+        int baseline = automaton.nodeCount();
+        SplittableRandom random = new SplittableRandom(3);
+        for (int round = 0; round < 10_000; round++) {
+            String keyword = "sh" + randomWord(random, 8); // "sh" 는 "shared" 와 겹친다.
+            automaton.add(keyword);
+            automaton.build();
+            automaton.remove(keyword);
+        }
+        assertEquals(baseline, automaton.nodeCount());
+        assertEquals(1, automaton.size());
+        assertArrayEquals(new int[]{automaton.idOf("shared")}, automaton.matchIds("unshared"));
+    }
+
+    private static String randomWord(SplittableRandom random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(3));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,206 @@
+package com.modern.datastructure;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChunkedConcurrentListTests {
+
+    @Test
+    void randomOperationsMatchArrayList() {
+        SplittableRandom random = new SplittableRandom(5);
+        ChunkedConcurrentList<Integer> list = new ChunkedConcurrentList<>();
+        List<Integer> model = new ArrayList<>();
+        for (int step = 0; step < 100_000; step++) {
+            int op = random.nextInt(100);
+            int n = model.size();
+            if (op < 45) {
+                int v = random.nextInt(1000);
+                list.add(v);
+                model.add(v);
+            } else if (op < 60) {
+                int i = random.nextInt(n + 1);
+                int v = random.nextInt(1000);
+                list.add(i, v);
+                model.add(i, v);
+            } else if (op < 85 && n > 0) {
+                int i = random.nextInt(n);
+                assertEquals(model.remove(i), list.remove(i));
+            } else if (op < 90 && n > 0) {
+                Integer v = random.nextInt(1000);
+                assertEquals(model.remove(v), list.remove(v));
+            } else if (op < 95 && n > 0) {
+                int i = random.nextInt(n);
+                int v = random.nextInt();
+                assertEquals(model.set(i, v), list.set(i, v));
+            } else if (op < 96) {
+                int k = random.nextInt(7);
+                assertEquals(model.removeIf(x -> x % 7 == k), list.removeIf(x -> x % 7 == k));
+            } else if (op < 97 && n > 10) {
+                int from = random.nextInt(n / 2);
+                int to = from + random.nextInt(n - from);
+                list.subList(from, to).clear();
+                model.subList(from, to).clear();
+            } else if (op < 98) {
+                List<Integer> added = new ArrayList<>();
+                for (int k = random.nextInt(200); k > 0; k--) {
+                    added.add(random.nextInt());
+                }
+                list.addAll(added);
+                model.addAll(added);
+            }
+            if (step % 5000 == 0) {
+                assertEquals(model, list);
+                assertEquals(model.hashCode(), list.hashCode());
+            }
+        }
+        assertEquals(model, list);
+    }
+
+    @Test
+    void removeDuringForEach() {
+        ChunkedConcurrentList<String> list = new ChunkedConcurrentList<>(List.of("1", "a", "2", "b", "3"));
+        for (String s : list) {
+            if (Character.isDigit(s.charAt(0))) {
+                list.remove(s);
+            }
+        }
+        assertEquals(List.of("a", "b"), list);
+    }
+
+    @Test
+    void iteratorRemoveFindsElementAfterConcurrentInsert() {
+        ChunkedConcurrentList<Integer> list = new ChunkedConcurrentList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add(i % 10);
+        }
+        for (Iterator<Integer> it = list.iterator(); it.hasNext(); ) {
+            int v = it.next();
+            if (v % 2 == 0) {
+                it.remove();
+            }
+            if (v == 9) {
+                list.add(0, -1);
+            }
+        }
+        assertEquals(600, list.size());
+        assertEquals(100, list.stream().filter(v -> v == -1).count());
+        assertTrue(list.stream().allMatch(v -> v == -1 || v % 2 == 1));
+    }
+
+    @Test
+    void sortAndReplaceAllRebuildInsteadOfListIteratorSet() {
+        SplittableRandom random = new SplittableRandom(7);
+        ChunkedConcurrentList<Integer> list = new ChunkedConcurrentList<>();
+        List<Integer> model = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            int v = random.nextInt();
+            list.add(v);
+            model.add(v);
+        }
+        List<Integer> before = list.snapshot();
+
+        list.sort(null);
+        model.sort(null);
+        assertEquals(model, list);
+
+        list.sort(Comparator.reverseOrder());
+        model.sort(Comparator.reverseOrder());
+        assertEquals(model, list);
+
+        list.replaceAll(v -> v / 2);
+        model.replaceAll(v -> v / 2);
+        assertEquals(model, list);
+
+        assertEquals(10_000, before.size());
+        assertFalse(before.equals(list), "snapshot must keep the old version");
+    }
+
+    @Test
+    void failingOperatorLeavesListUnchanged() {
+        ChunkedConcurrentList<Integer> list = new ChunkedConcurrentList<>(List.of(1, 2, 3));
+        assertThrows(IllegalStateException.class, () -> list.replaceAll(v -> {
+            if (v == 3) {
+                throw new IllegalStateException();
+            }
+            return v * 10;
+        }));
+        assertEquals(List.of(1, 2, 3), list);
+    }
+
+    @Test
+    void listIteratorIsReadOnly() {
+        ChunkedConcurrentList<Integer> list = new ChunkedConcurrentList<>(List.of(1, 2));
+        var it = list.listIterator();
+        it.next();
+        assertThrows(UnsupportedOperationException.class, () -> it.set(5));
+    }
+
+    @Test
+    void readersSeeConsistentSnapshotsWhileWritersMutate() throws Exception {
+        ChunkedConcurrentList<Long> list = new ChunkedConcurrentList<>();
+        AtomicBoolean stop = new AtomicBoolean();
+        Object order = new Object();
+        long[] sequence = new long[1];
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < 2; w++) {
+                writers.add(pool.submit(() -> {
+                    SplittableRandom random = new SplittableRandom();
+                    while (!stop.get()) {
+                        synchronized (order) { // 값이 늘어나는 순서대로 끝에 붙인다.
+                            list.add(++sequence[0]);
+                        }
+                        int size = list.size();
+                        if (random.nextInt(3) == 0 && size > 0) {
+                            try {
+                                list.remove(random.nextInt(size));
+                            } catch (IndexOutOfBoundsException ignored) {
+                                // 다른 writer 가 먼저 지웠다.
+                            }
+                        }
+                    }
+                }));
+            }
+            List<Future<Boolean>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(pool.submit(() -> {
+                    boolean ordered = true;
+                    while (!stop.get()) {
+                        long previous = 0;
+                        for (long v : list) {
+                            ordered &= v > previous;
+                            previous = v;
+                        }
+                    }
+                    return ordered;
+                }));
+            }
+            Thread.sleep(300);
+            stop.set(true);
+            for (Future<?> writer : writers) {
+                writer.get(5, TimeUnit.SECONDS);
+            }
+            for (Future<Boolean> reader : readers) {
+                assertTrue(reader.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.modern.datastructure;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedBitmapTests {
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 63, 64, 65, 4096, 4097, 65_535, 65_536, 65_537, 200_000})
+    void rangeContainsExactlyZeroToSize(int size) {
+        CompressedBitmap range = CompressedBitmap.range(size);
+        assertEquals(size, range.cardinality());
+        assertEquals(size == 0, range.isEmpty());
+        assertFalse(range.contains(size));
+        if (size > 0) {
+            assertTrue(range.contains(0));
+            assertTrue(range.contains(size - 1));
+        }
+        int[] expected = new int[size];
+        for (int i = 0; i < size; i++) {
+            expected[i] = i;
+        }
+        assertArrayEquals(expected, range.toArray());
+    }
+
+    @Test
+    void rangeRejectsNegativeSize() {
+        assertThrows(IllegalArgumentException.class, () -> CompressedBitmap.range(-1));
+    }
+
+    @Test
+    void randomOperationsMatchBitSet() {
+        SplittableRandom random = new SplittableRandom(8);
+        CompressedBitmap bitmap = new CompressedBitmap();
+        BitSet model = new BitSet();
+        for (int step = 0; step < 200_000; step++) {
+            // 두 청크에 몰아서 배열 <-> 비트맵 컨테이너 전환이 자주 일어나게 한다.
+            int value = (random.nextBoolean() ? 0 : 3 << 16) + random.nextInt(12_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(model.get(value), bitmap.remove(value));
+                model.clear(value);
+            } else {
+                assertEquals(!model.get(value), bitmap.add(value));
+                model.set(value);
+            }
+        }
+        assertEquals(model.cardinality(), bitmap.cardinality());
+        assertArrayEquals(model.stream().toArray(), bitmap.toArray());
+    }
+
+    @Test
+    void setOperationsMatchBitSet() {
+        SplittableRandom random = new SplittableRandom(9);
+        for (int round = 0; round < 20; round++) {
+            BitSet x = randomSet(random);
+            BitSet y = randomSet(random);
+            CompressedBitmap a = CompressedBitmap.of(x.stream().toArray());
+            CompressedBitmap b = CompressedBitmap.of(y.stream().toArray());
+
+            BitSet and = (BitSet) x.clone();
+            and.and(y);
+            BitSet or = (BitSet) x.clone();
+            or.or(y);
+            BitSet andNot = (BitSet) x.clone();
+            andNot.andNot(y);
+
+            assertArrayEquals(and.stream().toArray(), CompressedBitmap.and(a, b).toArray());
+            assertArrayEquals(or.stream().toArray(), CompressedBitmap.or(a, b).toArray());
+            assertArrayEquals(andNot.stream().toArray(), CompressedBitmap.andNot(a, b).toArray());
+            assertArrayEquals(x.stream().toArray(), a.toArray(), "operands are not modified");
+        }
+    }
+
+    @Test
+    void copyIsIndependent() {
+        CompressedBitmap original = CompressedBitmap.of(1, 2, 70_000);
+        CompressedBitmap copy = original.copy();
+        copy.add(3);
+        copy.remove(70_000);
+        assertEquals(CompressedBitmap.of(1, 2, 70_000), original);
+        assertEquals(CompressedBitmap.of(1, 2, 3), copy);
+    }
+
+    @Test
+    void negativeValues() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+        assertFalse(bitmap.contains(-1));
+        assertFalse(bitmap.remove(-1));
+    }
+
+    // 청크마다 희소(배열) 또는 밀집(비트맵) 밀도를 섞는다.
+    private static BitSet randomSet(SplittableRandom random) {
+        BitSet set = new BitSet();
+        for (int chunk = 0; chunk < 4; chunk++) {
+            int n = random.nextBoolean() ? random.nextInt(100) : 5_000 + random.nextInt(20_000);
+            for (int i = 0; i < n; i++) {
+                set.set((chunk << 16) + random.nextInt(1 << 16));
+            }
+        }
+        return set;
+    }
+}
@@ -0,0 +1,150 @@
+package com.modern.datastructure;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentMultimapTests {
+
+    @Test
+    void putAndGetKeepInsertionOrder() {
+        ConcurrentMultimap<String, Integer> multimap = new ConcurrentMultimap<>();
+        multimap.put("a", 1);
+        assertEquals(List.of(1), multimap.get("a"));
+        multimap.put("a", 2);
+        multimap.putAll("a", List.of(3, 4, 5));
+        multimap.putAll("b", List.of(9));
+        assertEquals(List.of(1, 2, 3, 4, 5), multimap.get("a"));
+        assertEquals(List.of(9), multimap.get("b"));
+        assertEquals(List.of(), multimap.get("c"));
+        assertEquals(6, multimap.size());
+        assertEquals(2, multimap.keyCount());
+    }
+
+    @Test
+    void putAllWithNullAddsNothing() {
+        ConcurrentMultimap<String, Integer> multimap = new ConcurrentMultimap<>();
+        multimap.putAll("single", List.of(1));
+        multimap.putAll("many", List.of(1, 2));
+
+        List<Integer> withNull = Arrays.asList(3, null, 4);
+        assertThrows(NullPointerException.class, () -> multimap.putAll("single", withNull));
+        assertThrows(NullPointerException.class, () -> multimap.putAll("many", withNull));
+        assertThrows(NullPointerException.class, () -> multimap.putAll("absent", withNull::iterator));
+        assertThrows(NullPointerException.class, () -> multimap.put("single", null));
+
+        assertEquals(List.of(1), multimap.get("single"));
+        assertEquals(List.of(1, 2), multimap.get("many"));
+        assertFalse(multimap.containsKey("absent"));
+    }
+
+    @Test
+    void putAllAcceptsPlainIterable() {
+        ConcurrentMultimap<String, Integer> multimap = new ConcurrentMultimap<>();
+        List<Integer> values = List.of(1, 2, 3);
+        multimap.putAll("a", values::iterator);
+        multimap.putAll(Map.of("a", List.of(4)));
+        assertEquals(List.of(1, 2, 3, 4), multimap.get("a"));
+    }
+
+    @Test
+    void viewDoesNotChangeAfterLaterWrites() {
+        ConcurrentMultimap<String, Integer> multimap = new ConcurrentMultimap<>();
+        multimap.putAll("a", List.of(1, 2));
+        List<Integer> view = multimap.get("a");
+        multimap.put("a", 3);
+        multimap.putAll("a", List.of(4, 5, 6, 7, 8));
+        assertTrue(multimap.remove("a", 1));
+        assertEquals(List.of(1, 2), view);
+        assertEquals(List.of(2, 3, 4, 5, 6, 7, 8), multimap.get("a"));
+        assertThrows(UnsupportedOperationException.class, () -> view.add(9));
+    }
+
+    @Test
+    void removeDropsKeyWithLastValue() {
+        ConcurrentMultimap<String, Integer> multimap = new ConcurrentMultimap<>();
+        multimap.putAll("a", List.of(1, 2));
+        assertFalse(multimap.remove("a", 3));
+        assertTrue(multimap.remove("a", 1));
+        assertTrue(multimap.remove("a", 2));
+        assertFalse(multimap.containsKey("a"));
+        assertEquals(List.of(), multimap.removeAll("a"));
+    }
+
+    @Test
+    void concurrentWritersLoseNothing() throws Exception {
+        ConcurrentMultimap<Integer, Integer> multimap = new ConcurrentMultimap<>();
+        int threads = 4;
+        int perThread = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int base = t * perThread;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i += 2) {
+                        multimap.put(i % 16, base + i);
+                        multimap.putAll(i % 16, List.of(base + i + 1));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals((long) threads * perThread, multimap.size());
+        int[] seen = new int[threads * perThread];
+        multimap.forEach((key, values) -> values.forEach(v -> seen[v]++));
+        assertTrue(Arrays.stream(seen).allMatch(count -> count == 1));
+    }
+
+    @Test
+    void readersNeverSeeHolesWhileValuesGrow() throws Exception {
+        ConcurrentMultimap<String, Integer> multimap = new ConcurrentMultimap<>();
+        int total = 200_000;
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            Future<?> writer = pool.submit(() -> {
+                for (int i = 0; i < total; i += 2) {
+                    multimap.put("k", i);
+                    multimap.putAll("k", List.of(i + 1));
+                }
+            });
+            List<Future<Boolean>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(pool.submit(() -> {
+                    boolean consistent = true;
+                    while (!writer.isDone()) {
+                        List<Integer> view = multimap.get("k");
+                        for (int i = 0; i < view.size(); i++) { // 값은 0, 1, 2 ... 순서로 빈칸 없이 보여야 한다.
+                            Integer v = view.get(i);
+                            consistent &= v != null && v == i;
+                        }
+                    }
+                    return consistent;
+                }));
+            }
+            writer.get(30, TimeUnit.SECONDS);
+            for (Future<Boolean> reader : readers) {
+                assertTrue(reader.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(total, multimap.get("k").size());
+    }
+}
@@ -0,0 +1,69 @@
+package com.modern.datastructure;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrozenMapTests {
+
+    @Test
+    void behavesLikeHashMap() {
+        SplittableRandom random = new SplittableRandom(29);
+        for (int size : new int[]{0, 1, 2, 100, 50_000}) {
+            Map<Integer, String> expected = new HashMap<>();
+            while (expected.size() < size) {
+                int key = random.nextInt();
+                expected.put(key, Integer.toHexString(key));
+            }
+            FrozenMap<Integer, String> map = FrozenMap.copyOf(expected);
+            assertEquals(expected, map);
+            assertEquals(map, expected);
+            assertEquals(expected.hashCode(), map.hashCode());
+            for (int i = 0; i < 1000; i++) {
+                int probe = random.nextInt();
+                assertEquals(expected.get(probe), map.get(probe));
+                assertEquals(expected.getOrDefault(probe, "-"), map.getOrDefault(probe, "-"));
+            }
+            Map<Integer, String> visited = new HashMap<>();
+            map.forEach(visited::put);
+            assertEquals(expected, visited);
+        }
+    }
+
+    @Test
+    void ofEntriesRejectsDuplicatesAndNulls() {
+        assertThrows(IllegalArgumentException.class,
+                () -> FrozenMap.ofEntries(Map.entry("a", 1), Map.entry("a", 2)));
+        assertThrows(NullPointerException.class,
+                () -> FrozenMap.ofEntries(new AbstractMap.SimpleEntry<>("a", null)));
+        assertThrows(NullPointerException.class,
+                () -> FrozenMap.ofEntries(new AbstractMap.SimpleEntry<>(null, 1)));
+    }
+
+    @Test
+    void lookupsAndEntrySet() {
+        FrozenMap<String, Integer> map = FrozenMap.ofEntries(Map.entry("a", 1), Map.entry("b", 2));
+        assertEquals(1, map.get("a"));
+        assertNull(map.get("c"));
+        assertNull(map.get(null));
+        assertTrue(map.containsKey("b"));
+        assertTrue(map.containsValue(2));
+        assertFalse(map.containsValue(3));
+        assertTrue(map.entrySet().contains(Map.entry("b", 2)));
+        assertFalse(map.entrySet().contains(Map.entry("b", 3)));
+        assertSame(map, FrozenMap.copyOf(map));
+        assertSame(FrozenMap.of(), FrozenMap.of());
+        assertThrows(UnsupportedOperationException.class, () -> map.put("c", 3));
+        assertThrows(UnsupportedOperationException.class, () -> map.remove("a"));
+    }
+}
@@ -0,0 +1,82 @@
+package com.modern.datastructure;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrozenSetTests {
+
+    @Test
+    void behavesLikeHashSet() {
+        SplittableRandom random = new SplittableRandom(23);
+        for (int size : new int[]{0, 1, 2, 3, 17, 1000, 50_000}) {
+            Set<Integer> expected = new HashSet<>();
+            while (expected.size() < size) {
+                expected.add(random.nextInt());
+            }
+            FrozenSet<Integer> set = FrozenSet.copyOf(expected);
+            assertEquals(expected, set);
+            assertEquals(set, expected);
+            assertEquals(expected.hashCode(), set.hashCode());
+            for (int i = 0; i < 1000; i++) {
+                int probe = random.nextInt();
+                assertEquals(expected.contains(probe), set.contains(probe));
+            }
+            assertFalse(set.contains(null));
+        }
+    }
+
+    @Test
+    void collidingHashCodesAreDistinguishedByEquals() {
+        // "Aa" 와 "BB" 는 hashCode 가 같다.
+        FrozenSet<String> set = FrozenSet.of("Aa", "BB", "AaAa", "BBBB", "AaBB");
+        assertEquals(5, set.size());
+        assertTrue(set.containsAll(List.of("Aa", "BB", "AaAa", "BBBB", "AaBB")));
+        assertFalse(set.contains("BBAa"));
+    }
+
+    @Test
+    void ofRejectsDuplicatesAndNullsButCopyOfDeduplicates() {
+        assertThrows(IllegalArgumentException.class, () -> FrozenSet.of("a", "b", "a"));
+        assertThrows(NullPointerException.class, () -> FrozenSet.of("a", null));
+        assertEquals(Set.of("a", "b"), FrozenSet.copyOf(Arrays.asList("a", "b", "a")));
+    }
+
+    @Test
+    void ofDoesNotKeepTheCallersArray() {
+        String[] elements = {"a", "b"};
+        FrozenSet<String> set = FrozenSet.of(elements);
+        elements[0] = "z";
+        assertEquals(Set.of("a", "b"), set);
+
+        // 실제 타입이 String[] 인 배열로 만들어도 toArray() 는 Object[] 를 반환한다.
+        assertSame(Object[].class, set.toArray().getClass());
+        String[] typed = set.toArray(new String[0]);
+        Arrays.sort(typed);
+        assertArrayEquals(new String[]{"a", "b"}, typed);
+    }
+
+    @Test
+    void isUnmodifiable() {
+        FrozenSet<String> set = FrozenSet.of("a");
+        assertThrows(UnsupportedOperationException.class, () -> set.add("b"));
+        assertThrows(UnsupportedOperationException.class, () -> set.remove("a"));
+        assertThrows(UnsupportedOperationException.class, () -> set.iterator().remove());
+        assertSame(set, FrozenSet.copyOf(set));
+        List<String> iterated = new ArrayList<>();
+        set.forEach(iterated::add);
+        assertEquals(List.of("a"), iterated);
+    }
+}
@@ -0,0 +1,99 @@
+package com.modern.datastructure;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongCounterMapTests {
+
+    @Test
+    void randomOperationsMatchHashMap() {
+        SplittableRandom random = new SplittableRandom(5);
+        LongCounterMap counters = new LongCounterMap(4);
+        Map<String, Long> model = new HashMap<>();
+        for (int step = 0; step < 200_000; step++) {
+            String key = "k" + random.nextInt(5_000);
+            int op = random.nextInt(10);
+            if (op < 5) {
+                assertEquals(model.merge(key, 1L, Long::sum), counters.increment(key));
+            } else if (op < 8) {
+                long delta = random.nextLong(-100, 100);
+                assertEquals(model.merge(key, delta, Long::sum), counters.addTo(key, delta));
+            } else if (op < 9) {
+                Long removed = model.remove(key);
+                assertEquals(removed == null ? 0 : removed, counters.remove(key));
+            } else {
+                assertEquals(model.getOrDefault(key, 0L), counters.get(key));
+                assertEquals(model.containsKey(key), counters.containsKey(key));
+            }
+        }
+        assertEquals(model.size(), counters.size());
+        assertEquals(model, counters.toMap());
+
+        Map<String, Long> visited = new HashMap<>();
+        counters.forEach(visited::put);
+        assertEquals(model, visited);
+    }
+
+    @Test
+    void addAllClearAndNullKeys() {
+        LongCounterMap a = new LongCounterMap();
+        a.addTo("x", 2);
+        LongCounterMap b = new LongCounterMap();
+        b.addTo("x", 3);
+        b.increment("y");
+        a.addAll(b);
+        assertEquals(Map.of("x", 5L, "y", 1L), a.toMap());
+
+        a.clear();
+        assertTrue(a.isEmpty());
+        assertEquals(0, a.get("x"));
+        assertFalse(a.containsKey("x"));
+        assertThrows(NullPointerException.class, () -> a.increment(null));
+    }
+
+    @Test
+    void stripedCountsFromManyThreads() throws Exception {
+        StripedLongCounterMap counters = new StripedLongCounterMap(8);
+        int threads = 4;
+        int perThread = 50_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        counters.increment("k" + (i % 100));
+                        counters.addTo("total", 2);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(2L * threads * perThread, counters.get("total"));
+        LongCounterMap snapshot = counters.snapshot();
+        assertEquals(101, snapshot.size());
+        for (int k = 0; k < 100; k++) {
+            assertEquals((long) threads * perThread / 100, snapshot.get("k" + k));
+        }
+        counters.clear();
+        assertEquals(0, counters.get("total"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.modern.datastructure;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SegmentedTextTests {
+
+    @Test
+    void editsMatchStringOperations() {
+        SplittableRandom random = new SplittableRandom(15);
+        String expected = "labda lambda labda";
+        SegmentedText text = new SegmentedText(expected);
+        String[] words = {"labda", "lambda", "ab", "a", "xy", " "};
+        for (int step = 0; step < 2000; step++) {
+            String word = words[random.nextInt(words.length)];
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    expected = word + expected;
+                    text.prepend(word);
+                }
+                case 1 -> {
+                    expected = expected + word;
+                    text.append(word);
+                }
+                default -> {
+                    String replacement = words[random.nextInt(words.length)];
+                    if (expected.length() < 5_000 || replacement.length() <= word.length()) {
+                        expected = expected.replace(word, replacement);
+                        text.replace(word, replacement);
+                    }
+                }
+            }
+            if (step % 100 == 0) {
+                assertEquals(expected, text.toString());
+                assertEquals(expected.length(), text.length());
+                int at = random.nextInt(Math.max(1, expected.length()));
+                if (!expected.isEmpty()) {
+                    assertEquals(expected.charAt(at), text.charAt(at));
+                    assertEquals(expected.substring(at), text.subSequence(at, expected.length()).toString());
+                }
+            }
+        }
+        assertEquals(expected, text.toString());
+    }
+
+    @Test
+    void matchAcrossSegmentBoundary() {
+        SegmentedText text = new SegmentedText("lam").append("bda").append("!");
+        assertEquals(1, text.replace("lambda", "λ"));
+        assertEquals("λ!", text.toString());
+    }
+
+    @Test
+    void constructorStartsWithOneSegment() {
+        assertEquals(1, new SegmentedText("abc").segmentCount());
+        assertEquals(0, new SegmentedText("").segmentCount());
+        assertThrows(NullPointerException.class, () -> new SegmentedText(null));
+    }
+}
@@ -0,0 +1,198 @@
+package com.modern.exec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncFeedTests {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3})
+    void everyObserverGetsEveryTweetInOrder(int consumers) {
+        List<List<String>> received = new ArrayList<>();
+        try (AsyncFeed feed = new AsyncFeed(64, consumers, AsyncFeed.BackpressurePolicy.BLOCK)) {
+            for (int o = 0; o < 5; o++) {
+                List<String> tweets = new CopyOnWriteArrayList<>();
+                received.add(tweets);
+                feed.registerObserver(tweets::add);
+            }
+            for (int i = 0; i < 10_000; i++) {
+                feed.notifyObserver(Integer.toString(i));
+            }
+            feed.flush();
+        }
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            expected.add(Integer.toString(i));
+        }
+        for (List<String> tweets : received) {
+            assertEquals(expected, tweets);
+        }
+    }
+
+    @Test
+    void observerRegisteredLaterDoesNotReceiveBacklog() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> late = new CopyOnWriteArrayList<>();
+        List<String> batched = new CopyOnWriteArrayList<>();
+        try (AsyncFeed feed = new AsyncFeed(64, 1, AsyncFeed.BackpressurePolicy.BLOCK)) {
+            feed.registerObserver(tweet -> {
+                blocked.countDown();
+                await(release);
+            });
+            feed.notifyObserver("first");
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+            feed.notifyObserver("backlog-1");
+            feed.notifyObserver("backlog-2");
+
+            feed.registerObserver(late::add);
+            feed.defaultGroup().registerObserver((AsyncFeed.BatchObserver) batched::addAll);
+            feed.notifyObserver("after");
+            release.countDown();
+            feed.flush();
+        }
+        assertEquals(List.of("after"), late);
+        assertEquals(List.of("after"), batched);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3})
+    void deliveredTweetsAreNotRetainedByTheBuffer(int consumers) throws InterruptedException {
+        WeakReference<String> reference;
+        try (AsyncFeed feed = new AsyncFeed(64, consumers, AsyncFeed.BackpressurePolicy.BLOCK)) {
+            for (int i = 0; i < consumers; i++) {
+                feed.registerObserver(tweet -> { });
+            }
+            String tweet = new String("payload-" + consumers);
+            reference = new WeakReference<>(tweet);
+            feed.notifyObserver(tweet);
+            tweet = null;
+            feed.flush();
+
+            for (int i = 0; i < 20 && reference.get() != null; i++) {
+                System.gc();
+                Thread.sleep(10);
+            }
+            assertNull(reference.get());
+        }
+    }
+
+    @Test
+    void dropPolicyCountsDroppedTweets() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        try (AsyncFeed feed = new AsyncFeed(8, 1, AsyncFeed.BackpressurePolicy.DROP)) {
+            feed.registerObserver(tweet -> await(release));
+            for (int i = 0; i < 100; i++) {
+                feed.notifyObserver(Integer.toString(i));
+            }
+            assertTrue(feed.droppedCount() > 0);
+            assertEquals(100, feed.defaultGroup().publishedCount() + feed.droppedCount());
+            release.countDown();
+        }
+    }
+
+    @Test
+    void failingObserverDoesNotStopOthers() {
+        List<String> received = new CopyOnWriteArrayList<>();
+        try (AsyncFeed feed = new AsyncFeed(64, 1, AsyncFeed.BackpressurePolicy.BLOCK)) {
+            feed.registerObserver(tweet -> {
+                throw new IllegalStateException(tweet);
+            });
+            feed.registerObserver(received::add);
+            feed.notifyObserver("a");
+            feed.notifyObserver("b");
+            feed.flush();
+            assertEquals(List.of("a", "b"), received);
+            assertTrue(feed.defaultGroup().failedCount() >= 1);
+        }
+    }
+
+    @Test
+    void observerKeepsReceivingAfterItThrows() {
+        List<String> received = new CopyOnWriteArrayList<>();
+        try (AsyncFeed feed = new AsyncFeed(64, 1, AsyncFeed.BackpressurePolicy.BLOCK)) {
+            feed.registerObserver(tweet -> {
+                if (tweet.equals("b")) {
+                    throw new IllegalStateException(tweet);
+                }
+                received.add(tweet);
+            });
+            for (String tweet : List.of("a", "b", "c", "d")) {
+                feed.notifyObserver(tweet);
+            }
+            feed.flush();
+            assertEquals(List.of("a", "c", "d"), received);
+            assertEquals(1, feed.defaultGroup().failedCount());
+        }
+    }
+
+    @Test
+    void blockingPublisherDoesNotHangWhenConsumerDies() {
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            try (AsyncFeed feed = new AsyncFeed(8, 1, AsyncFeed.BackpressurePolicy.BLOCK)) {
+                feed.registerObserver(tweet -> {
+                    throw new AssertionError("observer bug"); // Error 는 잡지 않으므로 소비자 스레드가 죽는다.
+                });
+                for (int i = 0; i < 100; i++) {
+                    feed.notifyObserver(Integer.toString(i));
+                }
+                assertTrue(feed.droppedCount() > 0);
+            }
+        });
+    }
+
+    @Test
+    void closeDeliversEverythingPublished() {
+        List<String> received = new CopyOnWriteArrayList<>();
+        AsyncFeed feed = new AsyncFeed(16, 1, AsyncFeed.BackpressurePolicy.BLOCK);
+        feed.registerObserver(tweet -> {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200)); // 느린 옵저버
+            received.add(tweet);
+        });
+        for (int i = 0; i < 2_000; i++) {
+            feed.notifyObserver(Integer.toString(i));
+        }
+        feed.close();
+        assertEquals(2_000, received.size());
+    }
+
+    @Test
+    void unregisteredObserverStopsReceiving() {
+        List<String> received = new CopyOnWriteArrayList<>();
+        DesignPatternReFactory.Observer observer = received::add;
+        try (AsyncFeed feed = new AsyncFeed()) {
+            feed.registerObserver(observer);
+            feed.notifyObserver("a");
+            feed.flush();
+            assertTrue(feed.defaultGroup().unregisterObserver(observer));
+            assertFalse(feed.defaultGroup().unregisterObserver(observer));
+            feed.notifyObserver("b");
+            feed.flush();
+        }
+        assertEquals(List.of("a"), received);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.modern.exec;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchLoaderTests {
+
+    @Test
+    void coalescesKeysIntoBatchesAndCachesResults() {
+        List<List<Integer>> calls = new ArrayList<>();
+        try (BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> {
+            synchronized (calls) {
+                calls.add(List.copyOf(keys));
+            }
+            Map<Integer, String> result = new HashMap<>();
+            keys.stream().filter(k -> k % 10 != 0).forEach(k -> result.put(k, "v" + k));
+            return result;
+        }, 4, Duration.ofSeconds(10), Duration.ofMinutes(1))) {
+            CompletableFuture<String> first = loader.load(1);
+            assertSame(first, loader.load(1)); // 대기중인 키는 같은 future
+            loader.load(2);
+            CompletableFuture<String> missing = loader.load(10);
+            CompletableFuture<String> last = loader.load(3); // 4개가 모여서 window 를 기다리지 않고 보낸다.
+
+            assertEquals("v3", last.join()); // 배치의 마지막 키까지 완료
+            assertEquals("v1", first.join());
+            assertNull(missing.join()); // 결과에 없는 키는 null
+
+            assertEquals("v2", loader.get(2)); // 캐시
+            assertEquals(1, loader.batchCount());
+            assertEquals(1, loader.coalescedCount());
+            assertEquals(1, loader.cacheHitCount());
+
+            Map<Integer, String> many = loader.loadMany(List.of(3, 5, 6)).join();
+            assertEquals(List.of(3, 5, 6), List.copyOf(many.keySet()));
+            assertEquals("v6", many.get(6));
+        }
+        assertEquals(List.of(1, 2, 10, 3), calls.get(0));
+    }
+
+    @Test
+    void failedBatchCompletesEveryFutureExceptionally() {
+        try (BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> {
+            throw new IllegalStateException("db down");
+        }, 2, Duration.ofSeconds(10), Duration.ofMinutes(1))) {
+            CompletableFuture<String> a = loader.load(1);
+            CompletableFuture<String> b = loader.load(2);
+            CompletionException e = assertThrows(CompletionException.class, a::join);
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+            assertThrows(CompletionException.class, b::join);
+        }
+    }
+
+    @Test
+    void loadAfterCloseFailsInsteadOfHanging() {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> Map.of());
+        CompletableFuture<String> beforeClose = loader.load(1);
+        loader.close();
+        assertNull(beforeClose.orTimeout(5, TimeUnit.SECONDS).join()); // 대기중이던 키는 close 가 보낸다.
+
+        CompletableFuture<String> afterClose = loader.load(2);
+        assertTrue(afterClose.isCompletedExceptionally());
+        CompletionException e = assertThrows(CompletionException.class, afterClose::join);
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    void rejectedBatchCompletesItsFutures() {
+        ExecutorService fetch = Executors.newSingleThreadExecutor();
+        fetch.shutdown();
+        try (BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> Map.of(), 1, Duration.ZERO,
+                Duration.ofMinutes(1), fetch)) {
+            CompletableFuture<String> future = loader.load(1);
+            CompletionException e = assertThrows(CompletionException.class, () -> future.orTimeout(5, TimeUnit.SECONDS).join());
+            assertInstanceOf(RejectedExecutionException.class, e.getCause());
+
+            CompletableFuture<String> retry = loader.load(1); // 대기 목록에서 빠졌으므로 새로 요청된다.
+            assertTrue(retry != future);
+        }
+    }
+}
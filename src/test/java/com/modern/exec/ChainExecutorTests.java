@@ -0,0 +1,91 @@
+package com.modern.exec;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChainExecutorTests {
+
+    private final DesignPatternReFactory patterns = new DesignPatternReFactory(s -> true);
+
+    @Test
+    void compileFlattensTheSuccessorChain() {
+        DesignPatternReFactory.ProcessingObject<String> header = patterns.new HeaderTextProcessing();
+        DesignPatternReFactory.ProcessingObject<String> spell = patterns.new SpellCheckerProcessing();
+        header.setSuccessor(spell);
+
+        ChainExecutor<String> chain = ChainExecutor.compile(header);
+        assertEquals(List.of("HeaderTextProcessing", "SpellCheckerProcessing"), chain.stageNames());
+        String input = "Aren't labdas really sexy?!!";
+        assertEquals(header.handle(input), chain.handle(input));
+
+        header.setSuccessor(null); // 컴파일한 뒤의 변경은 반영되지 않는다.
+        assertEquals(2, chain.stageCount());
+        assertEquals("From Raoul , Mario and Alan: lambda", chain.handle("labda"));
+    }
+
+    @Test
+    void cyclicChainIsRejected() {
+        DesignPatternReFactory.ProcessingObject<String> header = patterns.new HeaderTextProcessing();
+        DesignPatternReFactory.ProcessingObject<String> spell = patterns.new SpellCheckerProcessing();
+        header.setSuccessor(spell);
+        spell.setSuccessor(header);
+        assertThrows(IllegalArgumentException.class, () -> ChainExecutor.compile(header));
+    }
+
+    @Test
+    void batchMatchesSingleItemsAndRecordsOneSamplePerBatch() {
+        ChainExecutor<String> chain = ChainExecutor.of(true,
+                ChainExecutor.stage("trim", String::trim),
+                ChainExecutor.stage("upper", String::toUpperCase));
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            inputs.add("  item-" + i + " ");
+        }
+
+        List<String> batch = chain.handle(inputs);
+        assertEquals(inputs.stream().map(s -> s.trim().toUpperCase()).toList(), batch);
+        for (int stage = 0; stage < 2; stage++) {
+            assertEquals(100, chain.stats().get(stage).items());
+            assertEquals(1, chain.stageBatchLatency(stage).count());
+            assertEquals(0, chain.stageLatency(stage).count());
+        }
+
+        assertEquals("X", chain.handle(" x "));
+        assertEquals(101, chain.stats().get(0).items());
+        assertEquals(1, chain.stageLatency(0).count());
+        assertEquals(1, chain.stageBatchLatency(0).count());
+        assertEquals(List.of(), chain.handle(List.of()));
+    }
+
+    @Test
+    void failingStageStopsTheBatch() {
+        ChainExecutor<String> chain = ChainExecutor.of(true,
+                ChainExecutor.stage("check", s -> {
+                    if (s.isEmpty()) {
+                        throw new IllegalArgumentException("empty");
+                    }
+                    return s;
+                }),
+                ChainExecutor.stage("upper", String::toUpperCase));
+
+        assertThrows(IllegalArgumentException.class, () -> chain.handle(List.of("a", "", "b")));
+        assertEquals(1, chain.stats().get(0).failures());
+        assertEquals(0, chain.stats().get(0).items());
+        assertEquals(1, chain.stageBatchLatency(0).count());
+        assertEquals(0, chain.stats().get(1).items());
+    }
+
+    @Test
+    void uninstrumentedChainRecordsNothing() {
+        ChainExecutor<String> chain = ChainExecutor.of(false, ChainExecutor.stage("upper", String::toUpperCase));
+        assertEquals(List.of("A", "B"), chain.handle(List.of("a", "b")));
+        assertEquals("C", chain.handle("c"));
+        assertEquals(0, chain.stats().get(0).items());
+        assertEquals(0, chain.stageLatency(0).count() + chain.stageBatchLatency(0).count());
+    }
+}
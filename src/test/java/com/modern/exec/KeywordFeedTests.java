@@ -0,0 +1,103 @@
+package com.modern.exec;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeywordFeedTests {
+
+    @Test
+    void deliversOnlyToMatchingSubscribersOnce() {
+        KeywordFeed feed = new KeywordFeed();
+        List<String> money = new ArrayList<>();
+        List<String> all = new ArrayList<>();
+        DesignPatternReFactory.Observer moneyObserver = money::add;
+        feed.registerObserver("money", moneyObserver);
+        feed.registerObserver("cash", moneyObserver);
+        feed.registerObserver(all::add);
+
+        feed.notifyObserver("money and cash");
+        feed.notifyObserver("the queen");
+
+        assertEquals(List.of("money and cash"), money);
+        assertEquals(List.of("money and cash", "the queen"), all);
+        assertEquals(List.of("cash", "money"), feed.matchingKeywords("cash money").stream().sorted().toList());
+    }
+
+    @Test
+    void unregisteringLastObserverRemovesKeyword() {
+        KeywordFeed feed = new KeywordFeed();
+        DesignPatternReFactory.Observer observer = tweet -> { };
+        feed.registerObserver("wine", observer);
+        assertEquals(1, feed.keywordCount());
+        assertTrue(feed.unregisterObserver("wine", observer));
+        assertEquals(0, feed.keywordCount());
+        assertEquals(List.of(), feed.matchingObservers("red wine"));
+    }
+
+    @Test
+    void matchingObserversCannotModifySubscriptions() {
+        KeywordFeed feed = new KeywordFeed();
+        List<String> received = new ArrayList<>();
+        feed.registerObserver("wine", received::add);
+        List<DesignPatternReFactory.Observer> observers = feed.matchingObservers("red wine");
+        assertEquals(1, observers.size());
+        assertThrows(UnsupportedOperationException.class, observers::clear);
+        feed.notifyObserver("white wine");
+        assertEquals(List.of("white wine"), received);
+    }
+
+    @Test
+    void reusedKeywordIdsNeverReachTheWrongObserver() throws Exception {
+        KeywordFeed feed = new KeywordFeed();
+        AtomicBoolean misdelivered = new AtomicBoolean();
+        DesignPatternReFactory.Observer stable = tweet -> { };
+        feed.registerObserver("stable", stable);
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            // 같은 id 를 두 키워드가 번갈아 쓰게 만든다. "alpha" 구독자는 alpha 가 없는 트윗을 받으면 안된다.
+            Future<?> churn = pool.submit(() -> {
+                DesignPatternReFactory.Observer alpha = tweet -> {
+                    if (!tweet.contains("alpha")) {
+                        misdelivered.set(true);
+                    }
+                };
+                DesignPatternReFactory.Observer beta = tweet -> { };
+                while (!stop.get()) {
+                    feed.registerObserver("alpha", alpha);
+                    feed.unregisterObserver("alpha", alpha);
+                    feed.registerObserver("beta", beta);
+                    feed.unregisterObserver("beta", beta);
+                }
+            });
+            List<Future<?>> notifiers = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                notifiers.add(pool.submit(() -> {
+                    while (!stop.get()) {
+                        feed.notifyObserver("beta stable");
+                    }
+                }));
+            }
+            Thread.sleep(300);
+            stop.set(true);
+            churn.get(5, TimeUnit.SECONDS);
+            for (Future<?> notifier : notifiers) {
+                notifier.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertTrue(!misdelivered.get(), "tweet delivered to an observer of a different keyword");
+    }
+}
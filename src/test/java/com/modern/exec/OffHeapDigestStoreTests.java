@@ -0,0 +1,154 @@
+package com.modern.exec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapDigestStoreTests {
+    // 레코드 몇개만 들어가는 작은 슬랩이라 레코드가 슬랩 경계를 자주 넘어간다.
+    private static final int SLAB_SIZE = 256;
+    private static final int DIGEST_LENGTH = OffHeapDigestStore.DEFAULT_DIGEST_LENGTH;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void putAndGetAcrossSlabs() {
+        try (OffHeapDigestStore store = new OffHeapDigestStore(DIGEST_LENGTH, SLAB_SIZE)) {
+            for (int i = 0; i < 5_000; i++) {
+                assertTrue(store.putIfAbsent(key(i), digest(i)));
+            }
+            assertFalse(store.putIfAbsent(key(7), digest(8)));
+            assertEquals(5_000, store.size());
+            for (int i = 0; i < 5_000; i++) {
+                assertArrayEquals(digest(i), store.get(key(i)));
+            }
+            assertNull(store.get("missing"));
+            assertThrows(IllegalArgumentException.class, () -> store.putIfAbsent("short", new byte[3]));
+        }
+    }
+
+    @Test
+    void flushAndLoadRoundTrip() throws IOException {
+        Path file = dir.resolve("digests.bin");
+        try (OffHeapDigestStore store = new OffHeapDigestStore(DIGEST_LENGTH, SLAB_SIZE)) {
+            for (int i = 0; i < 3_000; i++) {
+                store.putIfAbsent(key(i), digest(i));
+            }
+            store.flush(file);
+        }
+
+        try (OffHeapDigestStore loaded = OffHeapDigestStore.load(file, SLAB_SIZE)) {
+            assertEquals(3_000, loaded.size());
+            byte[] dst = new byte[DIGEST_LENGTH + 2];
+            for (int i = 0; i < 3_000; i++) {
+                assertTrue(loaded.get(key(i), dst, 2));
+                assertArrayEquals(digest(i), Arrays.copyOfRange(dst, 2, dst.length));
+            }
+            // 매핑된 슬랩 뒤에 새 direct 슬랩으로 이어 쓰고 다시 저장한다.
+            for (int i = 3_000; i < 4_000; i++) {
+                assertTrue(loaded.putIfAbsent(key(i), digest(i)));
+            }
+            assertFalse(loaded.putIfAbsent(key(0), digest(1)));
+            loaded.flush(file);
+        }
+
+        try (OffHeapDigestStore reloaded = OffHeapDigestStore.load(file, SLAB_SIZE)) {
+            assertEquals(4_000, reloaded.size());
+            for (int i = 0; i < 4_000; i++) {
+                assertArrayEquals(digest(i), reloaded.get(key(i)));
+            }
+        }
+    }
+
+    @Test
+    void emptyStoreRoundTrip() throws IOException {
+        Path file = dir.resolve("empty.bin");
+        try (OffHeapDigestStore store = new OffHeapDigestStore()) {
+            store.flush(file);
+        }
+        try (OffHeapDigestStore loaded = OffHeapDigestStore.load(file)) {
+            assertEquals(0, loaded.size());
+            assertNull(loaded.get("a"));
+        }
+    }
+
+    @Test
+    void corruptOrShortFilesAreRejected() throws IOException {
+        Path file = dir.resolve("digests.bin");
+        try (OffHeapDigestStore store = new OffHeapDigestStore(DIGEST_LENGTH, SLAB_SIZE)) {
+            for (int i = 0; i < 100; i++) {
+                store.putIfAbsent(key(i), digest(i));
+            }
+            store.flush(file);
+        }
+        byte[] valid = Files.readAllBytes(file);
+
+        assertRejected(Arrays.copyOf(valid, 10)); // 헤더가 잘림
+        assertRejected(Arrays.copyOf(valid, valid.length - 5)); // 마지막 슬랩이 잘림
+        assertRejected(withInt(valid, 0, 0x12345678)); // magic
+        assertRejected(withInt(valid, 4, 99)); // version
+        assertRejected(withInt(valid, 8, -1)); // digestLength
+        assertRejected(withLong(valid, 16, Long.MAX_VALUE)); // recordCount
+        assertRejected(withLong(valid, 16, 99)); // 실제 레코드 수와 다름
+        assertRejected(withInt(valid, 24, Integer.MAX_VALUE)); // 첫 슬랩 길이
+        assertRejected(withInt(valid, 28, 1_000)); // 첫 레코드의 키 길이
+    }
+
+    @Test
+    void closedStoreRejectsEveryOperation() {
+        OffHeapDigestStore store = new OffHeapDigestStore(DIGEST_LENGTH, SLAB_SIZE);
+        store.putIfAbsent("a", digest(1));
+        store.close();
+        store.close();
+
+        assertThrows(IllegalStateException.class, store::size);
+        assertThrows(IllegalStateException.class, () -> store.contains("a"));
+        assertThrows(IllegalStateException.class, () -> store.get("a"));
+        assertThrows(IllegalStateException.class, () -> store.putIfAbsent("b", digest(2)));
+        assertThrows(IllegalStateException.class, () -> store.computeIfAbsent("c", k -> digest(3)));
+        assertThrows(IllegalStateException.class, () -> store.flush(dir.resolve("closed.bin")));
+        assertEquals("OffHeapDigestStore[closed]", store.toString());
+    }
+
+    private void assertRejected(byte[] content) throws IOException {
+        Path file = Files.write(dir.resolve("corrupt.bin"), content);
+        assertThrows(IOException.class, () -> OffHeapDigestStore.load(file, SLAB_SIZE));
+    }
+
+    private static byte[] withInt(byte[] content, int offset, int value) {
+        byte[] copy = content.clone();
+        ByteBuffer.wrap(copy).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, value);
+        return copy;
+    }
+
+    private static byte[] withLong(byte[] content, int offset, long value) {
+        byte[] copy = content.clone();
+        ByteBuffer.wrap(copy).order(ByteOrder.LITTLE_ENDIAN).putLong(offset, value);
+        return copy;
+    }
+
+    private static String key(int i) {
+        return "key-" + i + (i % 7 == 0 ? "-한글" : "");
+    }
+
+    private static byte[] digest(int i) {
+        byte[] digest = new byte[DIGEST_LENGTH];
+        new SplittableRandom(i).nextBytes(digest);
+        return digest;
+    }
+}
@@ -0,0 +1,170 @@
+package com.modern.exec;
+
+import com.modern.datastructure.ChunkedConcurrentList;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelBulkOpsTests {
+    // 이 환경의 코어 수와 상관없이 fork/join 경로를 타도록 워커 4개짜리 풀을 쓴다.
+    private static AdaptiveQueryExecutor executor;
+    private static ParallelBulkOps ops;
+
+    @BeforeAll
+    static void createPool() {
+        executor = new AdaptiveQueryExecutor(4);
+        ops = new ParallelBulkOps(executor);
+    }
+
+    @AfterAll
+    static void closePool() {
+        executor.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 63, 64, 65, 9_999, 10_000, 100_001, 1_000_003})
+    void listOperationsMatchTheJdk(int n) {
+        SplittableRandom random = new SplittableRandom(n);
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            list.add(random.nextInt(1000));
+        }
+        List<Integer> expected = new ArrayList<>(list);
+
+        int before = expected.size();
+        expected.removeIf(x -> x % 3 == 0);
+        assertEquals(before - expected.size(), ops.removeIf(list, x -> x % 3 == 0));
+        assertEquals(expected, list);
+
+        ops.replaceAll(list, x -> x * 7 + 1);
+        expected.replaceAll(x -> x * 7 + 1);
+        assertEquals(expected, list);
+
+        ops.sort(list, Comparator.reverseOrder());
+        expected.sort(Comparator.reverseOrder());
+        assertEquals(expected, list);
+
+        LinkedList<Integer> linked = new LinkedList<>(expected);
+        ops.removeIf(linked, x -> x % 2 == 0);
+        expected.removeIf(x -> x % 2 == 0);
+        assertEquals(expected, linked);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 63, 64, 65, 9_999, 10_000, 100_001, 1_000_003})
+    void arrayOperationsMatchTheJdk(int n) {
+        SplittableRandom random = new SplittableRandom(n);
+
+        int[] ints = random.ints(n, -50, 50).toArray();
+        int[] kept = Arrays.stream(ints).filter(x -> x >= 0).map(x -> x * 3).sorted().toArray();
+        int length = ops.removeIf(ints, x -> x < 0);
+        ops.replaceAll(ints, 0, length, x -> x * 3);
+        ops.sort(ints, 0, length);
+        assertArrayEquals(kept, Arrays.copyOf(ints, length));
+
+        long[] longs = random.longs(n).toArray();
+        long[] odd = Arrays.stream(longs).filter(x -> x % 2 != 0).sorted().toArray();
+        length = ops.removeIf(longs, x -> x % 2 == 0);
+        ops.sort(longs, 0, length);
+        assertArrayEquals(odd, Arrays.copyOf(longs, length));
+
+        double[] doubles = random.doubles(n).toArray();
+        if (n > 5) {
+            doubles[1] = Double.NaN;
+            doubles[2] = -0.0;
+            doubles[3] = 0.0;
+        }
+        double[] expected = Arrays.stream(doubles).map(x -> x - 0.5).sorted().toArray();
+        ops.replaceAll(doubles, x -> x - 0.5);
+        ops.sort(doubles);
+        assertArrayEquals(expected, doubles);
+        length = ops.removeIf(doubles, x -> x > 0);
+        assertArrayEquals(Arrays.stream(expected).filter(x -> !(x > 0)).toArray(), Arrays.copyOf(doubles, length));
+    }
+
+    @Test
+    void rangeOperationsLeaveTheRestOfTheArrayAlone() {
+        int[] array = new SplittableRandom(1).ints(200_000, 0, 100).toArray();
+        int[] original = array.clone();
+        int from = 1_000;
+        int to = 150_000;
+
+        int end = ops.removeIf(array, from, to, x -> x % 2 == 0);
+        int[] kept = Arrays.stream(original, from, to).filter(x -> x % 2 != 0).toArray();
+        assertEquals(from + kept.length, end);
+        assertArrayEquals(kept, Arrays.copyOfRange(array, from, end));
+
+        ops.replaceAll(array, from, end, x -> -x);
+        ops.sort(array, from, end);
+        int[] expected = Arrays.stream(kept).map(x -> -x).sorted().toArray();
+        assertArrayEquals(expected, Arrays.copyOfRange(array, from, end));
+        assertArrayEquals(Arrays.copyOf(original, from), Arrays.copyOf(array, from));
+        assertArrayEquals(Arrays.copyOfRange(original, to, original.length), Arrays.copyOfRange(array, to, array.length));
+    }
+
+    @Test
+    void nonArrayListsAreDelegated() {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            values.add(50_000 - i);
+        }
+
+        List<Integer> fixedSize = Arrays.asList(values.toArray(new Integer[0]));
+        assertThrows(UnsupportedOperationException.class, () -> ops.removeIf(fixedSize, x -> x % 2 == 0));
+        assertEquals(values, fixedSize); // 반쯤 당겨진 상태로 남지 않는다.
+        ops.sort(fixedSize, null);
+        assertEquals(1, fixedSize.get(0));
+
+        CopyOnWriteArrayList<Integer> copyOnWrite = new CopyOnWriteArrayList<>(values);
+        assertEquals(25_000, ops.removeIf(copyOnWrite, x -> x % 2 == 0));
+        ops.replaceAll(copyOnWrite, x -> x + 1);
+        ops.sort(copyOnWrite, null);
+        assertEquals(2, copyOnWrite.get(0));
+
+        ChunkedConcurrentList<Integer> chunked = new ChunkedConcurrentList<>(values);
+        ops.replaceAll(chunked, x -> x * 2);
+        ops.sort(chunked, null);
+        assertEquals(2, chunked.get(0));
+        assertEquals(100_000, chunked.get(chunked.size() - 1));
+    }
+
+    @Test
+    void failingPredicateLeavesListUnchanged() {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            list.add(i);
+        }
+        List<Integer> copy = new ArrayList<>(list);
+        assertThrows(IllegalStateException.class, () -> ops.removeIf(list, x -> {
+            if (x == 150_000) {
+                throw new IllegalStateException("boom");
+            }
+            return x % 2 == 0;
+        }));
+        assertEquals(copy, list);
+    }
+
+    @Test
+    void parallelBulkProcessingOnlyTouchesTheKeptPrefix() {
+        int[] amounts = {5, -1, 3, 0, 9, -7, 1};
+        List<String> codes = new ArrayList<>(List.of("b1", "2x", "a3"));
+        int length = new ListAndAggregateProcessing().parallelBulkProcessing(codes, amounts);
+        assertEquals(List.of("A3", "B1"), codes);
+        assertEquals(4, length);
+        assertArrayEquals(new int[]{2, 6, 10, 18}, Arrays.copyOf(amounts, length));
+    }
+}
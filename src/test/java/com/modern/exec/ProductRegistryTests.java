@@ -0,0 +1,74 @@
+package com.modern.exec;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductRegistryTests {
+
+    @Test
+    void pooledProductsAreSharedAcrossVirtualThreads() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        ProductRegistry<StringBuilder> registry = new ProductRegistry<>();
+        int ordinal = registry.registerPooled("builder", () -> {
+            created.incrementAndGet();
+            return new StringBuilder();
+        }, sb -> sb.setLength(0), 4);
+
+        // 요청마다 새 가상 스레드라도 앞선 스레드가 돌려놓은 상품을 다시 쓴다.
+        for (int i = 0; i < 100; i++) {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                executor.submit(() -> {
+                    StringBuilder sb = registry.acquire(ordinal);
+                    assertEquals(0, sb.length());
+                    sb.append("used");
+                    registry.release(ordinal, sb);
+                }).get();
+            }
+        }
+        assertEquals(1, created.get());
+        assertEquals(99, registry.stats(ordinal).hits());
+    }
+
+    @Test
+    void poolIsBoundedByCapacity() {
+        ProductRegistry<Object> registry = new ProductRegistry<>();
+        int ordinal = registry.registerPooled("object", Object::new, null, 2);
+        List<Object> taken = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            taken.add(registry.acquire(ordinal));
+        }
+        taken.forEach(o -> registry.release(ordinal, o));
+        assertEquals(1, registry.stats(ordinal).discards());
+
+        Object first = registry.acquire(ordinal);
+        Object second = registry.acquire(ordinal);
+        assertNotSame(first, second);
+        assertTrue(taken.contains(first) && taken.contains(second));
+
+        registry.release(ordinal, first);
+        registry.clearPools();
+        assertNotSame(first, registry.acquire(ordinal));
+    }
+
+    @Test
+    void unpooledProductsAreAlwaysNew() {
+        ProductRegistry<Object> registry = new ProductRegistry<>();
+        int ordinal = registry.register("object", Object::new);
+        Object product = registry.acquire(ordinal);
+        registry.release(ordinal, product);
+        assertNotSame(product, registry.acquire(ordinal));
+        assertEquals(ordinal, registry.ordinalOf("object"));
+        assertThrows(IllegalArgumentException.class, () -> registry.register("object", Object::new));
+        assertThrows(RuntimeException.class, () -> registry.ordinalOf("missing"));
+    }
+}
@@ -0,0 +1,156 @@
+package com.modern.exec;
+
+import com.modern.exec.ValidationEngine.CharClass;
+import com.modern.exec.ValidationEngine.Rule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ValidationEngineTests {
+    // 각 문자 클래스와 같은 뜻의 정규식 (\d, \s 처럼 ASCII 만 본다)
+    private static final Map<CharClass, Pattern> EQUIVALENT = Map.of(
+            CharClass.LOWER, Pattern.compile("[a-z]+"),
+            CharClass.UPPER, Pattern.compile("[A-Z]+"),
+            CharClass.ALPHA, Pattern.compile("[a-zA-Z]+"),
+            CharClass.DIGIT, Pattern.compile("\\d+"),
+            CharClass.ALNUM, Pattern.compile("[a-zA-Z0-9]+"),
+            CharClass.WHITESPACE, Pattern.compile("\\s+"));
+
+    // ASCII 문자 클래스마다의 문자들과, 비슷해 보이지만 ASCII 가 아닌 문자들
+    private static final String[] POOLS = {
+            "abcxyz", "ABCXYZ", "0189", " \t\n\u000B\f\r", "_-.!@{}~\u007F\u0000",
+            "éß한글٣Ａａ  　😀"};
+
+    // 조합식과 같은 뜻의 Pattern 조합
+    private record Case(Rule rule, Predicate<String> expected, String description) {
+    }
+
+    @ParameterizedTest
+    @EnumSource(CharClass.class)
+    void eachCharClassMatchesItsPattern(CharClass charClass) {
+        assertSameAsPattern(leaf(charClass), new SplittableRandom(charClass.ordinal()));
+    }
+
+    @Test
+    void everyPairOfRulesCombinesLikePatterns() {
+        SplittableRandom random = new SplittableRandom(11);
+        List<Case> leaves = new ArrayList<>();
+        for (CharClass charClass : CharClass.values()) {
+            leaves.add(leaf(charClass));
+        }
+        leaves.add(regex("[a-z]+\\d*")); // 문자 클래스로 표현할수 없는 규칙
+        for (Case a : leaves) {
+            assertSameAsPattern(not(a), random);
+            for (Case b : leaves) {
+                assertSameAsPattern(and(a, b), random);
+                assertSameAsPattern(or(a, b), random);
+                assertSameAsPattern(and(a, not(b)), random);
+                assertSameAsPattern(not(or(a, b)), random);
+            }
+        }
+    }
+
+    @Test
+    void randomNestedRulesMatchPatterns() {
+        SplittableRandom random = new SplittableRandom(12);
+        for (int round = 0; round < 300; round++) {
+            assertSameAsPattern(randomCase(random, 4), random);
+        }
+    }
+
+    @Test
+    void sharedRuleKeepsItsMeaningInEveryValidator() {
+        Rule digits = Rule.allOf(CharClass.DIGIT);
+        ValidationEngine.CompiledValidator first = ValidationEngine.compile(digits.or(Rule.allOf(CharClass.LOWER)));
+        ValidationEngine.CompiledValidator second = ValidationEngine.compile(Rule.allOf(CharClass.UPPER).and(digits));
+        assertEquals(true, first.execute("123"));
+        assertEquals(false, second.execute("123"));
+        assertEquals(true, first.execute("abc"));
+    }
+
+    @Test
+    void batchValidationMatchesSingleCalls() {
+        SplittableRandom random = new SplittableRandom(13);
+        ValidationEngine.CompiledValidator validator = ValidationEngine.compile(
+                Rule.allOf(CharClass.LOWER).or(Rule.allOf(CharClass.DIGIT)));
+        List<String> inputs = new ArrayList<>();
+        BitSet expected = new BitSet();
+        for (int i = 0; i < 2_000; i++) {
+            String input = randomInput(random);
+            inputs.add(input);
+            expected.set(i, validator.execute(input));
+        }
+        assertEquals(expected, validator.validate(inputs));
+        assertEquals(expected, validator.validate(inputs.stream()));
+    }
+
+    private static void assertSameAsPattern(Case c, SplittableRandom random) {
+        ValidationEngine.CompiledValidator validator = ValidationEngine.compile(c.rule());
+        for (int i = 0; i < 2_000; i++) {
+            String input = randomInput(random);
+            assertEquals(c.expected().test(input), validator.execute(input), () -> c.description() + " on \"" + input + "\"");
+        }
+    }
+
+    private static Case randomCase(SplittableRandom random, int depth) {
+        int pick = random.nextInt(depth == 0 ? 2 : 5);
+        switch (pick) {
+            case 0:
+                return leaf(CharClass.values()[random.nextInt(CharClass.values().length)]);
+            case 1:
+                return random.nextBoolean() ? regex("\\w+") : regex(".*\\d.*");
+            case 2:
+                return not(randomCase(random, depth - 1));
+            case 3:
+                return and(randomCase(random, depth - 1), randomCase(random, depth - 1));
+            default:
+                return or(randomCase(random, depth - 1), randomCase(random, depth - 1));
+        }
+    }
+
+    private static Case leaf(CharClass charClass) {
+        Pattern pattern = EQUIVALENT.get(charClass);
+        return new Case(Rule.allOf(charClass), s -> pattern.matcher(s).matches(), charClass.name());
+    }
+
+    private static Case regex(String regex) {
+        Pattern pattern = Pattern.compile(regex);
+        return new Case(Rule.matches(regex), s -> pattern.matcher(s).matches(), "/" + regex + "/");
+    }
+
+    private static Case not(Case c) {
+        return new Case(Rule.not(c.rule()), c.expected().negate(), "not(" + c.description() + ")");
+    }
+
+    private static Case and(Case a, Case b) {
+        return new Case(a.rule().and(b.rule()), a.expected().and(b.expected()),
+                "(" + a.description() + " and " + b.description() + ")");
+    }
+
+    private static Case or(Case a, Case b) {
+        return new Case(a.rule().or(b.rule()), a.expected().or(b.expected()),
+                "(" + a.description() + " or " + b.description() + ")");
+    }
+
+    // 길이 0 ~ 8. 절반은 한 풀에서만 골라서 문자 클래스 규칙이 통과하는 입력도 충분히 나오게 한다.
+    private static String randomInput(SplittableRandom random) {
+        int length = random.nextInt(9);
+        String single = random.nextBoolean() ? POOLS[random.nextInt(POOLS.length)] : null;
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            String pool = single != null ? single : POOLS[random.nextInt(POOLS.length)];
+            sb.append(pool.charAt(random.nextInt(pool.length())));
+        }
+        return sb.toString();
+    }
+}
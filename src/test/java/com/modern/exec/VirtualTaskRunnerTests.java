@@ -0,0 +1,130 @@
+package com.modern.exec;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualTaskRunnerTests {
+
+    @Test
+    void runsEveryItemWithinTheConcurrencyLimit() throws Exception {
+        ConcurrencyProbe probe = new ConcurrencyProbe();
+        VirtualTaskRunner runner = new VirtualTaskRunner(8);
+        List<Integer> items = IntStream.range(0, 2_000).boxed().toList();
+
+        VirtualTaskRunner.Result result = runner.runAll(items, item -> probe.during(() -> LockSupport.parkNanos(100_000)));
+
+        assertEquals(2_000, result.completed());
+        assertTrue(probe.peak() <= 8, "peak " + probe.peak());
+    }
+
+    @Test
+    void firstFailureCancelsTheRest() {
+        AtomicInteger started = new AtomicInteger();
+        VirtualTaskRunner runner = new VirtualTaskRunner(4);
+        List<Integer> items = IntStream.range(0, 100_000).boxed().toList();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> runner.runAll(items, item -> {
+            started.incrementAndGet();
+            if (item == 10) {
+                throw new IllegalStateException("boom");
+            }
+            LockSupport.parkNanos(1_000_000);
+        }));
+
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertTrue(started.get() < items.size());
+    }
+
+    @Test
+    void timedOutTaskKeepsItsPermitUntilItsBodyReturns() {
+        ConcurrencyProbe probe = new ConcurrencyProbe();
+        VirtualTaskRunner runner = new VirtualTaskRunner(2, Duration.ofMillis(20));
+        List<Integer> items = IntStream.range(0, 50).boxed().toList();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> runner.runAll(items, item ->
+                probe.during(() -> {
+                    // 인터럽트를 무시하고 100ms 동안 돈다. (취소되어도 본문은 끝까지 실행된다)
+                    long end = System.nanoTime() + 100_000_000L;
+                    while (System.nanoTime() < end) {
+                        LockSupport.parkNanos(1_000_000);
+                    }
+                })));
+
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        assertTrue(probe.peak() <= 2, "peak " + probe.peak());
+        assertEquals(0, probe.active());
+    }
+
+    @Test
+    void interruptWhileWaitingForTasksThrowsInterruptedException() throws Exception {
+        CountDownLatch started = new CountDownLatch(4);
+        VirtualTaskRunner runner = new VirtualTaskRunner(8);
+        List<Integer> items = IntStream.range(0, 4).boxed().toList();
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        AtomicBoolean interruptedAfter = new AtomicBoolean();
+
+        Thread caller = new Thread(() -> {
+            try {
+                runner.runAll(items, item -> {
+                    started.countDown();
+                    try {
+                        Thread.sleep(60_000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                thrown.set(e);
+            }
+            interruptedAfter.set(Thread.currentThread().isInterrupted());
+        });
+        caller.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        caller.interrupt(); // 모든 항목을 띄운 뒤라 호출 스레드는 executor close() 에서 기다리고 있다.
+        caller.join(10_000);
+
+        assertFalse(caller.isAlive());
+        assertInstanceOf(InterruptedException.class, thrown.get());
+        assertTrue(interruptedAfter.get());
+    }
+
+    // 동시에 실행중인 작업 수의 최댓값
+    private static final class ConcurrencyProbe {
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger peak = new AtomicInteger();
+
+        void during(Runnable body) {
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                body.run();
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+
+        int peak() {
+            return peak.get();
+        }
+
+        int active() {
+            return active.get();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.modern.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncAppenderTests {
+
+    @Test
+    void closeWritesEverythingLoggedBeforeIt() {
+        StringWriter out = new StringWriter();
+        AsyncAppender appender = new AsyncAppender(64, out, AsyncAppender.OverflowPolicy.BLOCK);
+        DeferredLogger logger = logger(appender);
+        for (int i = 0; i < 10_000; i++) {
+            logger.log(Level.INFO, "event {}", i);
+        }
+        appender.close();
+
+        String[] lines = out.toString().split(System.lineSeparator());
+        assertEquals(10_000, lines.length);
+        assertTrue(lines[0].endsWith("event 0"));
+        assertTrue(lines[9_999].endsWith("event 9999"));
+    }
+
+    @Test
+    void formatsPrimitiveAndObjectArguments() {
+        StringWriter out = new StringWriter();
+        AsyncAppender appender = new AsyncAppender(16, out, AsyncAppender.OverflowPolicy.BLOCK);
+        DeferredLogger logger = logger(appender);
+        logger.log(Level.INFO, "{} has {} dishes", "menu", 9);
+        logger.log(Level.INFO, "{} of {}", 3L, 4);
+        logger.log(Level.INFO, "{}, {}, {}, {}", "a", "b", "c", "d");
+        logger.log(Level.INFO, "missing {} {}", "one");
+        logger.log(Level.FINE, "filtered {}", 1);
+        appender.close();
+
+        String[] lines = out.toString().split(System.lineSeparator());
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].endsWith("- menu has 9 dishes"));
+        assertTrue(lines[1].endsWith("- 3 of 4"));
+        assertTrue(lines[2].endsWith("- a, b, c, d"));
+        assertTrue(lines[3].endsWith("- missing one {}"));
+    }
+
+    @Test
+    void logAfterCloseIsDroppedInsteadOfBlocking() {
+        AsyncAppender appender = new AsyncAppender(2, new StringWriter(), AsyncAppender.OverflowPolicy.BLOCK);
+        DeferredLogger logger = logger(appender);
+        appender.close();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < 100; i++) {
+                logger.log(Level.INFO, "late {}", i);
+            }
+        });
+        assertEquals(100, appender.droppedCount());
+    }
+
+    @Test
+    void blockedProducerIsReleasedByClose() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        StringWriter sink = new StringWriter();
+        Writer slow = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                sink.write(buffer, offset, length);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        AsyncAppender appender = new AsyncAppender(2, slow, AsyncAppender.OverflowPolicy.BLOCK);
+        DeferredLogger logger = logger(appender);
+        CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                logger.log(Level.INFO, "event {}", i);
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(producer.isDone(), "producer should wait for free slots");
+
+        CompletableFuture<Void> closing = CompletableFuture.runAsync(appender::close);
+        producer.get(5, TimeUnit.SECONDS); // close() 뒤에는 기다리지 않고 버린다.
+        assertFalse(closing.isDone(), "close must wait until accepted events are written");
+        release.countDown();
+        closing.get(5, TimeUnit.SECONDS);
+        assertTrue(appender.droppedCount() > 0);
+    }
+
+    @Test
+    void throwingArgumentDoesNotStopTheConsumer() {
+        StringWriter out = new StringWriter();
+        AsyncAppender appender = new AsyncAppender(16, out, AsyncAppender.OverflowPolicy.BLOCK);
+        DeferredLogger logger = logger(appender);
+        Object broken = new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException("broken");
+            }
+        };
+        logger.log(Level.INFO, "bad {}", broken);
+        logger.log(Level.INFO, "good");
+        appender.close();
+
+        assertTrue(out.toString().contains("- good"));
+        assertEquals(1, appender.droppedCount());
+    }
+
+    @Test
+    void idleConsumerWakesUpForEveryEvent() {
+        StringWriter out = new StringWriter();
+        AsyncAppender appender = new AsyncAppender(16, out, AsyncAppender.OverflowPolicy.BLOCK);
+        DeferredLogger logger = logger(appender);
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < 200; i++) {
+                Thread.sleep(3); // 소비자가 백오프를 다 쓰고 park 로 잠들 만큼 쉰다.
+                logger.log(Level.INFO, "wake {}", i);
+                appender.flush();
+            }
+        });
+        appender.close();
+        assertEquals(200, out.toString().split(System.lineSeparator()).length);
+    }
+
+    private static DeferredLogger logger(AsyncAppender appender) {
+        DeferredLogger logger = new DeferredLogger("async-appender-test", appender);
+        logger.setLevel(Level.INFO);
+        return logger;
+    }
+}
@@ -0,0 +1,78 @@
+package com.modern.optional;
+
+import com.modern.exec.AdaptiveQueryExecutor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinTask;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InsuranceNameResolverTests {
+    // 이 환경의 코어 수와 상관없이 fork/join 경로를 타도록 워커 4개짜리 풀을 쓴다.
+    private static AdaptiveQueryExecutor executor;
+    private static InsuranceNameResolver resolver;
+
+    private final OptionalChap2 model = new OptionalChap2();
+
+    @BeforeAll
+    static void createPool() {
+        executor = new AdaptiveQueryExecutor(4);
+        resolver = new InsuranceNameResolver(executor);
+    }
+
+    @AfterAll
+    static void closePool() {
+        executor.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 100, 4_096, 4_097, 50_000})
+    void everyPathMatchesTheOptionalChain(int n) {
+        List<OptionalChap2.Person> persons = randomPersons(new SplittableRandom(n), n);
+        Set<String> expected = model.getCarInsuranceNames(persons);
+
+        assertEquals(expected, InsuranceNameResolver.resolveSequential(persons));
+        assertEquals(expected, resolver.resolveParallel(persons));
+        assertEquals(expected, resolver.resolve(persons));
+
+        List<OptionalChap2.Person> linked = new LinkedList<>(persons); // RandomAccess 가 아닌 입력
+        assertEquals(expected, InsuranceNameResolver.resolveSequential(linked));
+        assertEquals(expected, resolver.resolveParallel(linked));
+        assertEquals(expected, resolver.resolve(linked));
+    }
+
+    @Test
+    void parallelCallFromInsideThePoolDoesNotResubmit() {
+        List<OptionalChap2.Person> persons = randomPersons(new SplittableRandom(7), 50_000);
+        Set<String> expected = model.getCarInsuranceNames(persons);
+        assertEquals(expected, executor.invoke(ForkJoinTask.adapt(() -> resolver.resolveParallel(persons))));
+    }
+
+    // 차 없음 / 보험 없음 / 이름 없는 보험 / 이름 있는 보험이 섞인 사람들
+    private List<OptionalChap2.Person> randomPersons(SplittableRandom random, int n) {
+        List<OptionalChap2.Person> persons = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int roll = random.nextInt(10);
+            if (roll < 2) {
+                persons.add(model.new Person());
+            } else if (roll < 4) {
+                persons.add(model.new Person(model.new Car()));
+            } else if (roll < 5) {
+                persons.add(model.new Person(model.new Car(model.new Insurance())));
+            } else {
+                String name = "insurance-" + random.nextInt(1 + n / 10);
+                persons.add(model.new Person(model.new Car(model.new Insurance(name))));
+            }
+        }
+        return persons;
+    }
+}
@@ -0,0 +1,77 @@
+package com.modern.optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PropertyPathTests {
+
+    record Dog(String name, int age, Optional<Dog> parent, boolean good) {
+        public boolean isGood() {
+            return good;
+        }
+    }
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final Dog grandparent = new Dog("g", 9, Optional.empty(), true);
+    private final Dog parent = new Dog("p", 5, Optional.of(grandparent), false);
+    private final Dog dog = new Dog("d", 1, Optional.of(parent), true);
+
+    @Test
+    void followsOptionalAndPlainGetters() {
+        PropertyPath<Dog, Integer> grandparentAge = PropertyPath.compile(LOOKUP, Dog.class, "parent.parent.age", Integer.class);
+        assertEquals(9, grandparentAge.get(dog));
+        assertNull(grandparentAge.get(parent)); // 중간의 빈 Optional
+        assertNull(grandparentAge.get(null));
+        assertEquals(-1, grandparentAge.getOrDefault(grandparent, -1));
+        assertEquals(Optional.of(9), grandparentAge.find(dog));
+
+        assertEquals(true, PropertyPath.compile(LOOKUP, Dog.class, "good", Boolean.class).get(dog));
+        assertEquals("p", PropertyPath.compile(LOOKUP, Dog.class, "parent.name", String.class).get(dog));
+    }
+
+    @Test
+    void matchesTheOptionalChainOfOptionalChap2() {
+        OptionalChap2 m = new OptionalChap2();
+        OptionalChap2.Person insured = m.new Person(m.new Car(m.new Insurance("A")));
+        OptionalChap2.Person noInsurance = m.new Person(m.new Car());
+        assertEquals("A", m.getCarInsuranceName(insured));
+        assertEquals(m.getCarInsuranceName(Optional.of(noInsurance)), m.getCarInsuranceName(noInsurance));
+        assertEquals(m.getCarInsuranceName(Optional.of(m.new Person())), m.getCarInsuranceName(m.new Person()));
+    }
+
+    @Test
+    void compiledPathsAreCached() {
+        Object first = PropertyPath.compile(LOOKUP, Dog.class, "parent.parent.age", Integer.class);
+        Object second = PropertyPath.compile(LOOKUP, Dog.class, "parent.parent.age", Number.class);
+        assertSame(first, second);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"x", "age.foo", "parent..age", ""})
+    void invalidPathsAreRejected(String path) {
+        assertThrows(IllegalArgumentException.class, () -> PropertyPath.compile(LOOKUP, Dog.class, path, Object.class));
+    }
+
+    @Test
+    void resultTypeIsChecked() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> PropertyPath.compile(LOOKUP, Dog.class, "name", Integer.class));
+        assertTrue(e.getMessage().contains("String"));
+    }
+
+    @Test
+    void publicLookupCannotSeeNonPublicTypes() {
+        assertThrows(IllegalArgumentException.class, () -> PropertyPath.compile(Dog.class, "name"));
+    }
+}
@@ -0,0 +1,95 @@
+package com.modern.web;
+
+import com.modern.exec.ChainExecutor;
+import com.modern.exec.DigestCache;
+import com.modern.metrics.MetricsRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class MetricsConfigurationTests {
+
+    @Test
+    void gaugeSurvivesGarbageCollection() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        new MetricsConfiguration().modernMetricsBinder(metrics).bindTo(meters);
+
+        AtomicLong value = new AtomicLong(42);
+        metrics.gauge("test.gauge", value::get);
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(42.0, meters.get("test.gauge").gauge().value());
+        value.set(7);
+        assertEquals(7.0, meters.get("test.gauge").gauge().value());
+    }
+
+    @Test
+    void functionCounterSurvivesGarbageCollectionAndFollowsReplacement() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        new MetricsConfiguration().modernMetricsBinder(metrics).bindTo(meters);
+
+        AtomicLong first = new AtomicLong(3);
+        metrics.functionCounter("test.count", first::get);
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        FunctionCounter counter = meters.get("test.count").functionCounter();
+        assertEquals(3.0, counter.count());
+
+        AtomicLong second = new AtomicLong(11);
+        metrics.functionCounter("test.count", second::get);
+        assertEquals(11.0, counter.count());
+        assertEquals(11L, metrics.functionCounterValues().get("test.count"));
+    }
+
+    @Test
+    void digestCacheCountsAreExportedAsFunctionCounters() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        DigestCache cache = new DigestCache(100);
+        cache.bindTo(metrics, "test.cache");
+        new MetricsConfiguration().modernMetricsBinder(metrics).bindTo(meters); // 등록된 뒤에 붙어도 전달된다.
+
+        cache.computeIfAbsent("a");
+        cache.computeIfAbsent("a");
+        cache.computeIfAbsent("b");
+        assertEquals((double) cache.hitCount(), meters.get("test.cache.hits").functionCounter().count());
+        assertEquals((double) cache.missCount(), meters.get("test.cache.misses").functionCounter().count());
+        assertEquals((double) cache.evictionCount(), meters.get("test.cache.evictions").functionCounter().count());
+        assertEquals(1.0, meters.get("test.cache.hits").functionCounter().count());
+        assertEquals(cache.hitRate(), meters.get("test.cache.hitRate").gauge().value());
+    }
+
+    @Test
+    void reexportingUnderSamePrefixReplacesTheWholeChain() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        new MetricsConfiguration().modernMetricsBinder(metrics).bindTo(meters);
+
+        ChainExecutor<String> first = ChainExecutor.of(true, ChainExecutor.stage("upper", String::toUpperCase));
+        first.handle(List.of("a", "b", "c"));
+        first.exportTo(metrics, "chain.test");
+
+        ChainExecutor<String> second = ChainExecutor.of(true, ChainExecutor.stage("upper", String::toUpperCase));
+        second.handle("d");
+        second.exportTo(metrics, "chain.test");
+
+        assertSame(second.stageLatency(0), metrics.histograms().get("chain.test.upper.latency"));
+        assertEquals(1.0, metrics.gaugeValues().get("chain.test.upper.items"));
+        FunctionTimer timer = meters.get("chain.test.upper.latency").functionTimer();
+        assertEquals(1.0, timer.count());
+        assertEquals(1.0, meters.get("chain.test.upper.items").gauge().value());
+    }
+}
@@ -0,0 +1,139 @@
+package com.modern.web;
+
+import com.modern.dto.Dish;
+import com.modern.dto.DishTagIndex;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseCacheTests {
+
+    @Test
+    void sameVersionIsServedFromCache() {
+        ResponseCache cache = new ResponseCache(10);
+        AtomicInteger calls = new AtomicInteger();
+        ResponseCache.CachedResponse first = cache.get("k", 0, () -> bytes("a" + calls.incrementAndGet()));
+        ResponseCache.CachedResponse second = cache.get("k", 0, () -> bytes("a" + calls.incrementAndGet()));
+        assertSame(first, second);
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void indexMutationInvalidatesBodyAndEtag() {
+        DishTagIndex index = DishTagIndex.of(Dish.menu, Dish.dishTags);
+        ResponseCache cache = new ResponseCache(10);
+
+        ResponseCache.CachedResponse before = cache.get("tag|salty", index.version(),
+                () -> bytes(index.names(index.dishesTagged("salty")).toString()));
+        cache.get("tag|other", index.version(), () -> bytes("other"));
+
+        long version = index.version();
+        index.addDish(new Dish("kimchi", true, 40, Dish.Type.OTHER), List.of("salty"));
+        assertTrue(index.version() > version);
+
+        ResponseCache.CachedResponse after = cache.get("tag|salty", index.version(),
+                () -> bytes(index.names(index.dishesTagged("salty")).toString()));
+        assertNotEquals(before.etag(), after.etag());
+        assertTrue(new String(after.body(), StandardCharsets.UTF_8).contains("kimchi"));
+        assertEquals(1, cache.size(), "entries of the old version are dropped");
+    }
+
+    @Test
+    void unchangedTagOperationsKeepVersion() {
+        DishTagIndex index = DishTagIndex.of(Dish.menu, Dish.dishTags);
+        long version = index.version();
+        assertFalse(index.removeTag(0, "no-such-tag"));
+        assertEquals(version, index.version());
+        index.addTag(0, "spicy");
+        assertEquals(version + 1, index.version());
+        index.addTag(0, "spicy");
+        assertEquals(version + 1, index.version());
+    }
+
+    @Test
+    void olderVersionNeverReplacesNewerEntry() {
+        ResponseCache cache = new ResponseCache(10);
+        ResponseCache.CachedResponse fresh = cache.get("k", 2, () -> bytes("new"));
+        // 옛 버전을 읽은 요청도 캐시에 있는 새 버전 응답을 받고, 캐시에는 새 버전이 남는다.
+        assertSame(fresh, cache.get("k", 1, () -> bytes("old")));
+        assertArrayEquals(bytes("new"), cache.get("k", 2, () -> bytes("again")).body());
+    }
+
+    @Test
+    void evictsEntriesThatWereNotReadFirst() {
+        ResponseCache cache = new ResponseCache(3);
+        cache.get("a", 0, () -> bytes("a"));
+        cache.get("b", 0, () -> bytes("b"));
+        cache.get("c", 0, () -> bytes("c"));
+        ResponseCache.CachedResponse a = cache.get("a", 0, () -> bytes("a'"));
+        ResponseCache.CachedResponse c = cache.get("c", 0, () -> bytes("c'"));
+
+        cache.get("d", 0, () -> bytes("d"));
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.evictionCount());
+        assertSame(a, cache.get("a", 0, () -> bytes("a''")));
+        assertSame(c, cache.get("c", 0, () -> bytes("c''")));
+    }
+
+    @Test
+    void clockHandResumesWhereTheLastEvictionStopped() {
+        ResponseCache cache = new ResponseCache(3);
+        cache.get("a", 0, () -> bytes("a"));
+        cache.get("b", 0, () -> bytes("b"));
+        cache.get("c", 0, () -> bytes("c"));
+        ResponseCache.CachedResponse d = cache.get("d", 0, () -> bytes("d")); // a 자리
+        cache.get("e", 0, () -> bytes("e")); // 바늘이 b 에서 다시 시작하므로 방금 넣은 d 는 남는다.
+
+        assertEquals(2, cache.evictionCount());
+        assertSame(d, cache.get("d", 0, () -> bytes("d'")));
+        long misses = cache.missCount();
+        cache.get("c", 0, () -> bytes("c'"));
+        assertEquals(misses, cache.missCount(), "c was not evicted");
+    }
+
+    @Test
+    void concurrentMissesNeverExceedMaximumSize() throws Exception {
+        ResponseCache cache = new ResponseCache(64);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int base = t * 10_000;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        String key = Integer.toString(base + i);
+                        cache.get(key, 0, () -> bytes(key));
+                        assertTrue(cache.size() <= 64);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(64, cache.size());
+        assertEquals(40_000 - 64, cache.evictionCount());
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}